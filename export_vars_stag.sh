@@ -29,11 +29,17 @@ export DELIVERY_COMPANY_TABLE_NAME="FulfAI-${ENV}-DeliveryCompany"
 export DELIVERY_DRIVER_TABLE_NAME="FulfAI-${ENV}-Driver"
 export DELIVERY_ASSIGNMENT_TABLE_NAME="FulfAI-${ENV}-DriverAssignment"
 export DELIVERY_LOCATION_TABLE_NAME="FulfAI-${ENV}-DriverLocation"
+export DELIVERY_POSITION_TABLE_NAME="FulfAI-${ENV}-DriverPosition"
+export DELIVERY_LOCATION_CHUNK_TABLE_NAME="FulfAI-${ENV}-DriverLocationChunk"
+export DELIVERY_TRAJECTORY_TABLE_NAME="FulfAI-${ENV}-DriverTrajectory"
+export DELIVERY_ORDER_CLAIM_TABLE_NAME="FulfAI-${ENV}-OrderClaim"
 
 # -----------------------------------------------------------------------------
 # Notification WebSocket API - DynamoDB Tables
 # -----------------------------------------------------------------------------
 export WEBSOCKET_CONNECTION_TABLE_NAME="FulfAI-${ENV}-WebSocketConnection"
+export WEBSOCKET_SUBSCRIPTION_TABLE_NAME="FulfAI-${ENV}-WebSocketSubscription"
+export WEBSOCKET_MESSAGE_LOG_TABLE_NAME="FulfAI-${ENV}-WebSocketMessageLog"
 
 # -----------------------------------------------------------------------------
 # S3 Buckets
@@ -76,9 +82,14 @@ echo "  DELIVERY_COMPANY_TABLE_NAME: $DELIVERY_COMPANY_TABLE_NAME"
 echo "  DELIVERY_DRIVER_TABLE_NAME: $DELIVERY_DRIVER_TABLE_NAME"
 echo "  DELIVERY_ASSIGNMENT_TABLE_NAME: $DELIVERY_ASSIGNMENT_TABLE_NAME"
 echo "  DELIVERY_LOCATION_TABLE_NAME: $DELIVERY_LOCATION_TABLE_NAME"
+echo "  DELIVERY_POSITION_TABLE_NAME: $DELIVERY_POSITION_TABLE_NAME"
+echo "  DELIVERY_LOCATION_CHUNK_TABLE_NAME: $DELIVERY_LOCATION_CHUNK_TABLE_NAME"
+echo "  DELIVERY_TRAJECTORY_TABLE_NAME: $DELIVERY_TRAJECTORY_TABLE_NAME"
 echo ""
 echo "Notification WebSocket API Tables:"
 echo "  WEBSOCKET_CONNECTION_TABLE_NAME: $WEBSOCKET_CONNECTION_TABLE_NAME"
+echo "  WEBSOCKET_SUBSCRIPTION_TABLE_NAME: $WEBSOCKET_SUBSCRIPTION_TABLE_NAME"
+echo "  WEBSOCKET_MESSAGE_LOG_TABLE_NAME: $WEBSOCKET_MESSAGE_LOG_TABLE_NAME"
 echo ""
 echo "S3 Buckets:"
 echo "  ASSETS_BUCKET_NAME: $ASSETS_BUCKET_NAME"
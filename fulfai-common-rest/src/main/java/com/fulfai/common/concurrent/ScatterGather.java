@@ -0,0 +1,127 @@
+package com.fulfai.common.concurrent;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import io.quarkus.logging.Log;
+
+/**
+ * Bounded-concurrency scatter-gather over asynchronous tasks.
+ * At most {@code maxConcurrency} tasks are in flight; each completion starts the
+ * next pending key. Results are merged as they arrive, and whatever has not
+ * completed when the deadline passes is reported as timed out.
+ */
+public class ScatterGather<K, R> {
+
+    private final Queue<K> pending;
+    private final Function<K, CompletableFuture<R>> task;
+    private final Map<K, R> results = new ConcurrentHashMap<>();
+    private final Set<K> completed = ConcurrentHashMap.newKeySet();
+    private final Map<K, Throwable> failures = new ConcurrentHashMap<>();
+    private final AtomicInteger remaining;
+    private final AtomicBoolean expired = new AtomicBoolean();
+    private final CompletableFuture<Void> allDone = new CompletableFuture<>();
+
+    private ScatterGather(Collection<K> keys, Function<K, CompletableFuture<R>> task) {
+        this.pending = new ConcurrentLinkedQueue<>(new LinkedHashSet<>(keys));
+        this.task = task;
+        this.remaining = new AtomicInteger(pending.size());
+    }
+
+    /**
+     * Run {@code task} for every key and wait until all complete or the deadline passes.
+     *
+     * @param keys           Keys to fan out over (duplicates are ignored)
+     * @param task           Async task per key
+     * @param maxConcurrency Maximum number of tasks in flight
+     * @param deadline       Maximum time to wait for all tasks
+     * @return Results gathered before the deadline, plus timed-out and failed keys
+     */
+    public static <K, R> ScatterGatherResult<K, R> execute(Collection<K> keys,
+            Function<K, CompletableFuture<R>> task, int maxConcurrency, Duration deadline) {
+        ScatterGather<K, R> run = new ScatterGather<>(keys, task);
+        Set<K> allKeys = new LinkedHashSet<>(run.pending);
+        if (allKeys.isEmpty()) {
+            return new ScatterGatherResult<>(Map.of(), Set.of(), Map.of());
+        }
+
+        for (int i = 0; i < Math.max(1, maxConcurrency); i++) {
+            run.launchNext();
+        }
+
+        try {
+            run.allDone.get(deadline.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            Log.debugf("SCATTER_GATHER: deadline of %dms reached", deadline.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // allDone is only ever completed normally
+        }
+        run.expired.set(true);
+
+        // Snapshot so late completions cannot change what the caller sees
+        // (completed before results: a key is added to results before it is marked completed)
+        Set<K> done = new LinkedHashSet<>(run.completed);
+        Map<K, R> gathered = new HashMap<>(run.results);
+        gathered.keySet().retainAll(done);
+        Map<K, Throwable> failed = new HashMap<>(run.failures);
+        Set<K> timedOut = new LinkedHashSet<>(allKeys);
+        timedOut.removeAll(done);
+        timedOut.removeAll(failed.keySet());
+
+        Log.debugf("SCATTER_GATHER_RESULT: keys=%d, completed=%d, failed=%d, timedOut=%d",
+                allKeys.size(), gathered.size(), failed.size(), timedOut.size());
+        return new ScatterGatherResult<>(gathered, timedOut, failed);
+    }
+
+    private void launchNext() {
+        if (expired.get()) {
+            return;
+        }
+        K key = pending.poll();
+        if (key == null) {
+            return;
+        }
+
+        CompletableFuture<R> future;
+        try {
+            future = task.apply(key);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        future.whenComplete((result, error) -> {
+            if (error == null) {
+                if (result != null) {
+                    results.put(key, result);
+                }
+                completed.add(key);
+            } else {
+                failures.put(key, error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error);
+            }
+            if (remaining.decrementAndGet() == 0) {
+                allDone.complete(null);
+            } else {
+                launchNext();
+            }
+        });
+    }
+}
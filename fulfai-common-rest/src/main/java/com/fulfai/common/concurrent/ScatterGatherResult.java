@@ -0,0 +1,36 @@
+package com.fulfai.common.concurrent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Merged outcome of a {@link ScatterGather} run.
+ * Keys that missed the deadline or failed are listed separately so callers can
+ * return partial results instead of failing the whole request.
+ */
+@Getter
+@AllArgsConstructor
+public class ScatterGatherResult<K, R> {
+
+    private final Map<K, R> results;
+    private final Set<K> timedOut;
+    private final Map<K, Throwable> failed;
+
+    public boolean isPartial() {
+        return !timedOut.isEmpty() || !failed.isEmpty();
+    }
+
+    /**
+     * Flatten list-valued results into one list.
+     */
+    public static <K, E> List<E> flatten(ScatterGatherResult<K, List<E>> result) {
+        return result.getResults().values().stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,33 @@
+package com.fulfai.common.dynamodb;
+
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+
+@ApplicationScoped
+public class AsyncClientFactory {
+    @Inject
+    DynamoDbAsyncClient dynamoDbAsyncClient;
+
+    DynamoDbEnhancedAsyncClient enhancedAsyncClient;
+
+    /**
+     * Low-level async client, for update expressions the enhanced client cannot
+     * express (e.g. REMOVE alongside SET).
+     */
+    public DynamoDbAsyncClient getDynamoAsyncClient() {
+        return dynamoDbAsyncClient;
+    }
+
+    public DynamoDbEnhancedAsyncClient getEnhancedDynamoAsyncClient() {
+        if (enhancedAsyncClient == null) {
+            Log.debug("Creating a new DynamoDB Enhanced Async Client");
+            enhancedAsyncClient = DynamoDbEnhancedAsyncClient.builder()
+                    .dynamoDbClient(dynamoDbAsyncClient)
+                    .build();
+        }
+        return enhancedAsyncClient;
+    }
+}
@@ -0,0 +1,389 @@
+package com.fulfai.common.dynamodb;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import com.fulfai.common.dto.PaginatedResponse;
+
+import io.quarkus.logging.Log;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncIndex;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchGetResultPage;
+import software.amazon.awssdk.enhanced.dynamodb.model.DeleteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ReadBatch;
+import software.amazon.awssdk.enhanced.dynamodb.model.TransactWriteItemsEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+/**
+ * Non-blocking twin of {@link DynamoDBUtils} backed by the enhanced async client.
+ * Every operation returns a {@link CompletableFuture} so independent reads can be
+ * issued concurrently and joined, instead of blocking a thread per call.
+ * Pagination tokens and exceptions are interchangeable with {@link DynamoDBUtils}.
+ */
+public class AsyncDynamoDBUtils {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    public static <T> CompletableFuture<T> getItem(DynamoDbAsyncTable<T> table, String partitionKey) {
+        Log.debugf("DYNAMODB_ASYNC_GET: table=%s, partitionKey=%s", table.tableName(), partitionKey);
+        Key key = Key.builder().partitionValue(partitionKey).build();
+        return table.getItem(GetItemEnhancedRequest.builder().key(key).build());
+    }
+
+    public static <T> CompletableFuture<T> getItem(DynamoDbAsyncTable<T> table, String partitionKey,
+            String sortKey) {
+        Log.debugf("DYNAMODB_ASYNC_GET: table=%s, partitionKey=%s, sortKey=%s",
+                table.tableName(), partitionKey, sortKey);
+        Key key = Key.builder().partitionValue(partitionKey).sortValue(sortKey).build();
+        return table.getItem(GetItemEnhancedRequest.builder().key(key).build());
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> CompletableFuture<Void> putItem(DynamoDbAsyncTable<T> table, T item) {
+        Log.debugf("DYNAMODB_ASYNC_PUT: table=%s, item=%s", table.tableName(), item);
+        PutItemEnhancedRequest<T> request = PutItemEnhancedRequest.builder((Class<T>) item.getClass())
+                .item(item)
+                .build();
+        return table.putItem(request);
+    }
+
+    public static <T> CompletableFuture<Void> deleteItem(DynamoDbAsyncTable<T> table, String partitionKey,
+            String sortKey) {
+        Log.debugf("DYNAMODB_ASYNC_DELETE: table=%s, partitionKey=%s, sortKey=%s",
+                table.tableName(), partitionKey, sortKey);
+        Key key = Key.builder().partitionValue(partitionKey).sortValue(sortKey).build();
+        return table.deleteItem(DeleteItemEnhancedRequest.builder().key(key).build()).thenApply(deleted -> null);
+    }
+
+    // Query by partition key with pagination
+    public static <T> CompletableFuture<PaginatedResponse<T>> queryByPartitionKey(DynamoDbAsyncTable<T> table,
+            String partitionKey, String nextToken, Integer limit) {
+        Log.debugf("DYNAMODB_ASYNC_QUERY: table=%s, partitionKey=%s, nextToken=%s, limit=%d",
+                table.tableName(), partitionKey, nextToken, limit);
+        QueryEnhancedRequest request = buildRequest(
+                QueryConditional.keyEqualTo(Key.builder().partitionValue(partitionKey).build()),
+                true, nextToken, limit);
+        return firstPage(table.query(request), table.tableName());
+    }
+
+    // Query by partition key with pagination (descending order by sort key)
+    public static <T> CompletableFuture<PaginatedResponse<T>> queryByPartitionKeyDescending(
+            DynamoDbAsyncTable<T> table, String partitionKey, String nextToken, Integer limit) {
+        Log.debugf("DYNAMODB_ASYNC_QUERY_DESC: table=%s, partitionKey=%s, nextToken=%s, limit=%d",
+                table.tableName(), partitionKey, nextToken, limit);
+        QueryEnhancedRequest request = buildRequest(
+                QueryConditional.keyEqualTo(Key.builder().partitionValue(partitionKey).build()),
+                false, nextToken, limit);
+        return firstPage(table.query(request), table.tableName());
+    }
+
+    // Query by partition key and sort key between (with pagination)
+    public static <T> CompletableFuture<PaginatedResponse<T>> queryByPartitionKeyAndSortKeyBetween(
+            DynamoDbAsyncTable<T> table, String partitionKey, String sortKeyStart, String sortKeyEnd,
+            String nextToken, Integer limit) {
+        Log.debugf("DYNAMODB_ASYNC_QUERY: table=%s, partitionKey=%s, sortKeyStart=%s, sortKeyEnd=%s, "
+                + "nextToken=%s, limit=%d", table.tableName(), partitionKey, sortKeyStart, sortKeyEnd, nextToken, limit);
+        QueryEnhancedRequest request = buildRequest(QueryConditional.sortBetween(
+                Key.builder().partitionValue(partitionKey).sortValue(sortKeyStart).build(),
+                Key.builder().partitionValue(partitionKey).sortValue(sortKeyEnd).build()),
+                true, nextToken, limit);
+        return firstPage(table.query(request), table.tableName());
+    }
+
+    // Query GSI by partition key with pagination
+    public static <T> CompletableFuture<PaginatedResponse<T>> queryGsiByPartitionKey(DynamoDbAsyncIndex<T> index,
+            String partitionKey, String nextToken, Integer limit) {
+        Log.debugf("DYNAMODB_ASYNC_QUERY_GSI: index=%s, partitionKey=%s, nextToken=%s, limit=%d",
+                index.indexName(), partitionKey, nextToken, limit);
+        QueryEnhancedRequest request = buildRequest(
+                QueryConditional.keyEqualTo(Key.builder().partitionValue(partitionKey).build()),
+                true, nextToken, limit);
+        return firstPage(index.query(request), index.indexName());
+    }
+
+    // Query GSI by partition key and sort key (exact match)
+    public static <T> CompletableFuture<PaginatedResponse<T>> queryGsiByPartitionKeyAndSortKey(
+            DynamoDbAsyncIndex<T> index, String partitionKey, String sortKey, String nextToken, Integer limit) {
+        Log.debugf("DYNAMODB_ASYNC_QUERY_GSI: index=%s, partitionKey=%s, sortKey=%s, nextToken=%s, limit=%d",
+                index.indexName(), partitionKey, sortKey, nextToken, limit);
+        QueryEnhancedRequest request = buildRequest(
+                QueryConditional.keyEqualTo(Key.builder().partitionValue(partitionKey).sortValue(sortKey).build()),
+                true, nextToken, limit);
+        return firstPage(index.query(request), index.indexName());
+    }
+
+    private static QueryEnhancedRequest buildRequest(QueryConditional conditional, boolean scanForward,
+            String nextToken, Integer limit) {
+        QueryEnhancedRequest.Builder requestBuilder = QueryEnhancedRequest.builder()
+                .queryConditional(conditional)
+                .scanIndexForward(scanForward)
+                .limit(limit != null ? limit : DEFAULT_PAGE_SIZE);
+
+        if (nextToken != null && !nextToken.isEmpty()) {
+            requestBuilder.exclusiveStartKey(DynamoDBUtils.decodeExclusiveStartKey(nextToken));
+        }
+        return requestBuilder.build();
+    }
+
+    // Subscribe to the first page only and convert it to a paginated response
+    private static <T> CompletableFuture<PaginatedResponse<T>> firstPage(SdkPublisher<Page<T>> publisher, String source) {
+        AtomicReference<Page<T>> first = new AtomicReference<>();
+        return publisher.limit(1).subscribe(first::set).thenApply(ignored -> {
+            Page<T> page = first.get();
+            List<T> items = page != null ? new ArrayList<>(page.items()) : new ArrayList<>();
+            String nextTokenResult = page != null ? DynamoDBUtils.encodeLastEvaluatedKey(page.lastEvaluatedKey()) : null;
+            Log.debugf("DYNAMODB_ASYNC_QUERY_RESULT: source=%s, count=%d, hasMore=%b",
+                    source, items.size(), nextTokenResult != null);
+
+            return PaginatedResponse.<T>builder()
+                    .items(items)
+                    .nextToken(nextTokenResult)
+                    .hasMore(nextTokenResult != null)
+                    .build();
+        });
+    }
+
+    // ==================== Batch Support ====================
+
+    /**
+     * Fetch many items by primary key using BatchGetItem.
+     * All 100-key chunks are issued concurrently; unprocessed keys are retried
+     * after a non-blocking backoff delay.
+     *
+     * @see DynamoDBUtils#batchGetItems
+     */
+    public static <T> CompletableFuture<Map<Key, T>> batchGetItems(DynamoDbEnhancedAsyncClient enhancedClient,
+            DynamoDbAsyncTable<T> table, Collection<Key> keys) {
+        List<Key> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        Log.debugf("DYNAMODB_ASYNC_BATCH_GET: table=%s, keys=%d", table.tableName(), distinctKeys.size());
+
+        Map<Key, T> results = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int start = 0; start < distinctKeys.size(); start += DynamoDBUtils.BATCH_GET_MAX_KEYS) {
+            List<Key> chunk = distinctKeys.subList(start,
+                    Math.min(start + DynamoDBUtils.BATCH_GET_MAX_KEYS, distinctKeys.size()));
+            chunks.add(batchGetChunk(enhancedClient, table, chunk, results, 1));
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(CompletableFuture<?>[]::new)).thenApply(ignored -> results);
+    }
+
+    private static <T> CompletableFuture<Void> batchGetChunk(DynamoDbEnhancedAsyncClient enhancedClient,
+            DynamoDbAsyncTable<T> table, List<Key> pending, Map<Key, T> results, int attempt) {
+        if (pending.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (attempt > DynamoDBUtils.BATCH_MAX_ATTEMPTS) {
+            return CompletableFuture.failedFuture(new DynamoDBUtils.BatchOperationFailedException(
+                    "Batch get exhausted retries with " + pending.size() + " unprocessed keys on table "
+                            + table.tableName()));
+        }
+
+        ReadBatch.Builder<T> readBatch = ReadBatch.builder(table.tableSchema().itemType().rawClass())
+                .mappedTableResource(table);
+        pending.forEach(readBatch::addGetItem);
+
+        // Only take the first page so unprocessed keys are retried with backoff
+        AtomicReference<BatchGetResultPage> first = new AtomicReference<>();
+        return enhancedClient.batchGetItem(r -> r.readBatches(readBatch.build()))
+                .limit(1)
+                .subscribe(first::set)
+                .thenCompose(ignored -> {
+                    BatchGetResultPage page = first.get();
+                    if (page == null) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    for (T item : page.resultsForTable(table)) {
+                        results.put(table.keyFrom(item), item);
+                    }
+                    List<Key> unprocessed = page.unprocessedKeysForTable(table);
+                    if (unprocessed.isEmpty()) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return CompletableFuture.supplyAsync(() -> null, CompletableFuture.delayedExecutor(
+                            DynamoDBUtils.backoffDelayMillis(attempt), TimeUnit.MILLISECONDS))
+                            .thenCompose(delayed -> batchGetChunk(enhancedClient, table, unprocessed, results,
+                                    attempt + 1));
+                });
+    }
+
+    /**
+     * Put many items using BatchWriteItem with the default parallelism.
+     *
+     * @see #batchWrite(DynamoDbEnhancedAsyncClient, DynamoDbAsyncTable, List, int)
+     */
+    public static <T> CompletableFuture<BatchWriteOutcome<T>> batchWrite(DynamoDbEnhancedAsyncClient enhancedClient,
+            DynamoDbAsyncTable<T> table, List<T> items) {
+        return batchWrite(enhancedClient, table, items, DynamoDBUtils.DEFAULT_BATCH_WRITE_PARALLELISM);
+    }
+
+    /**
+     * Put many items using BatchWriteItem.
+     * Items are split into chunks of 25, at most {@code parallelism} in flight;
+     * unprocessed items are retried after a non-blocking backoff delay. A chunk
+     * that fails outright marks its remaining items as failed instead of failing
+     * the whole call.
+     *
+     * @see DynamoDBUtils#batchWrite(software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient,
+     *      software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable, List, int)
+     */
+    public static <T> CompletableFuture<BatchWriteOutcome<T>> batchWrite(DynamoDbEnhancedAsyncClient enhancedClient,
+            DynamoDbAsyncTable<T> table, List<T> items, int parallelism) {
+        Log.debugf("DYNAMODB_ASYNC_BATCH_WRITE: table=%s, items=%d, parallelism=%d",
+                table.tableName(), items.size(), parallelism);
+
+        Queue<List<T>> chunks = new ConcurrentLinkedQueue<>();
+        for (int start = 0; start < items.size(); start += DynamoDBUtils.BATCH_WRITE_MAX_ITEMS) {
+            chunks.add(items.subList(start, Math.min(start + DynamoDBUtils.BATCH_WRITE_MAX_ITEMS, items.size())));
+        }
+
+        // Each worker writes one chunk at a time until the queue is drained
+        List<CompletableFuture<BatchWriteOutcome<T>>> workers = new ArrayList<>();
+        for (int i = 0; i < Math.min(Math.max(parallelism, 1), chunks.size()); i++) {
+            workers.add(drainChunks(enhancedClient, table, chunks, new BatchWriteOutcome<>()));
+        }
+
+        return CompletableFuture.allOf(workers.toArray(CompletableFuture<?>[]::new)).thenApply(ignored -> {
+            BatchWriteOutcome<T> outcome = new BatchWriteOutcome<>();
+            workers.forEach(worker -> outcome.merge(worker.join()));
+            Log.debugf("DYNAMODB_ASYNC_BATCH_WRITE_RESULT: table=%s, written=%d, failed=%d",
+                    table.tableName(), outcome.getWritten().size(), outcome.getFailed().size());
+            return outcome;
+        });
+    }
+
+    private static <T> CompletableFuture<BatchWriteOutcome<T>> drainChunks(DynamoDbEnhancedAsyncClient enhancedClient,
+            DynamoDbAsyncTable<T> table, Queue<List<T>> chunks, BatchWriteOutcome<T> outcome) {
+        List<T> chunk = chunks.poll();
+        if (chunk == null) {
+            return CompletableFuture.completedFuture(outcome);
+        }
+        return writeChunk(enhancedClient, table, chunk, outcome, 1)
+                .thenCompose(ignored -> drainChunks(enhancedClient, table, chunks, outcome));
+    }
+
+    private static <T> CompletableFuture<Void> writeChunk(DynamoDbEnhancedAsyncClient enhancedClient,
+            DynamoDbAsyncTable<T> table, List<T> pending, BatchWriteOutcome<T> outcome, int attempt) {
+        if (pending.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (attempt > DynamoDBUtils.BATCH_MAX_ATTEMPTS) {
+            pending.forEach(item -> outcome.addFailed(item,
+                    "Unprocessed after " + DynamoDBUtils.BATCH_MAX_ATTEMPTS + " attempts"));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        WriteBatch.Builder<T> writeBatch = WriteBatch.builder(table.tableSchema().itemType().rawClass())
+                .mappedTableResource(table);
+        pending.forEach(writeBatch::addPutItem);
+
+        return enhancedClient.batchWriteItem(r -> r.writeBatches(writeBatch.build()))
+                .handle((result, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause()
+                                : error;
+                        Log.warnf("DYNAMODB_ASYNC_BATCH_WRITE: chunk failed on table=%s: %s", table.tableName(),
+                                cause.getMessage());
+                        pending.forEach(item -> outcome.addFailed(item, cause.getMessage()));
+                        return List.<T>of();
+                    }
+                    Set<Key> unprocessed = result.unprocessedPutItemsForTable(table).stream()
+                            .map(table::keyFrom)
+                            .collect(Collectors.toSet());
+                    List<T> retry = new ArrayList<>();
+                    for (T item : pending) {
+                        if (unprocessed.contains(table.keyFrom(item))) {
+                            retry.add(item);
+                        } else {
+                            outcome.addWritten(item);
+                        }
+                    }
+                    return retry;
+                })
+                .thenCompose(retry -> retry.isEmpty()
+                        ? CompletableFuture.completedFuture(null)
+                        : CompletableFuture.supplyAsync(() -> null, CompletableFuture.delayedExecutor(
+                                DynamoDBUtils.backoffDelayMillis(attempt), TimeUnit.MILLISECONDS))
+                                .thenCompose(delayed -> writeChunk(enhancedClient, table, retry, outcome,
+                                        attempt + 1)));
+    }
+
+    /**
+     * Apply a raw update expression to one item only if the condition holds.
+     * Completes exceptionally with ConditionalCheckFailedException otherwise.
+     *
+     * @param client              The low-level DynamoDB async client
+     * @param tableName           The table name
+     * @param key                 The item's primary key attributes
+     * @param updateExpression    Update expression with its names and values
+     * @param conditionExpression Condition expression with its names and values
+     */
+    public static CompletableFuture<Void> updateItemWithExpression(DynamoDbAsyncClient client, String tableName,
+            Map<String, AttributeValue> key, Expression updateExpression, Expression conditionExpression) {
+        Log.debugf("DYNAMODB_ASYNC_UPDATE_EXPRESSION_CONDITIONAL: table=%s, key=%s, expression=%s, condition=%s",
+                tableName, key, updateExpression.expression(), conditionExpression.expression());
+        return client.updateItem(r -> r.tableName(tableName)
+                .key(key)
+                .updateExpression(updateExpression.expression())
+                .conditionExpression(conditionExpression.expression())
+                .expressionAttributeNames(DynamoDBUtils.mergeNames(updateExpression, conditionExpression))
+                .expressionAttributeValues(DynamoDBUtils.mergeValues(updateExpression, conditionExpression)))
+                .thenApply(response -> null);
+    }
+
+    // ==================== Transaction Support ====================
+
+    /**
+     * Execute transactWriteItems with the provided builder consumer.
+     * Cancelled transactions complete exceptionally with
+     * {@link DynamoDBUtils.TransactionFailedException}.
+     *
+     * @param enhancedClient The DynamoDB enhanced async client
+     * @param requestBuilder Consumer to build the transaction request
+     */
+    public static CompletableFuture<Void> transactWriteItems(DynamoDbEnhancedAsyncClient enhancedClient,
+            Consumer<TransactWriteItemsEnhancedRequest.Builder> requestBuilder) {
+        Log.debug("DYNAMODB_ASYNC_TRANSACT_WRITE: Starting transaction");
+        TransactWriteItemsEnhancedRequest.Builder builder = TransactWriteItemsEnhancedRequest.builder();
+        requestBuilder.accept(builder);
+
+        return enhancedClient.transactWriteItems(builder.build()).exceptionally(throwable -> {
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause()
+                    : throwable;
+            if (cause instanceof TransactionCanceledException e) {
+                Log.errorf("DYNAMODB_ASYNC_TRANSACT_WRITE: Transaction cancelled - reasons: %s",
+                        e.cancellationReasons());
+                throw new DynamoDBUtils.TransactionFailedException(
+                        "Transaction cancelled: " + DynamoDBUtils.extractCancellationReasons(e), e);
+            }
+            throw throwable instanceof CompletionException ce ? ce : new CompletionException(throwable);
+        });
+    }
+}
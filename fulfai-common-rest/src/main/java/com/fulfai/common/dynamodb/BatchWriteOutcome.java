@@ -0,0 +1,42 @@
+package com.fulfai.common.dynamodb;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Per-item result of a batch write: which items were persisted and which
+ * could not be written (with the reason).
+ */
+@Getter
+public class BatchWriteOutcome<T> {
+
+    private final List<T> written = new ArrayList<>();
+    private final List<FailedItem<T>> failed = new ArrayList<>();
+
+    public boolean isAllWritten() {
+        return failed.isEmpty();
+    }
+
+    public void addWritten(T item) {
+        written.add(item);
+    }
+
+    public void addFailed(T item, String reason) {
+        failed.add(new FailedItem<>(item, reason));
+    }
+
+    void merge(BatchWriteOutcome<T> other) {
+        written.addAll(other.written);
+        failed.addAll(other.failed);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class FailedItem<T> {
+        private final T item;
+        private final String reason;
+    }
+}
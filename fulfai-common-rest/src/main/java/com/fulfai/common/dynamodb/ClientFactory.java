@@ -13,6 +13,14 @@ public class ClientFactory {
 
     DynamoDbEnhancedClient enhancedClient;
 
+    /**
+     * Low-level client, for update expressions the enhanced client cannot express
+     * (e.g. list_append, ADD).
+     */
+    public DynamoDbClient getDynamoClient() {
+        return dynamoDbClient;
+    }
+
     public DynamoDbEnhancedClient getEnhancedDynamoClient() {
         if (enhancedClient == null) {
             Log.debug("Creating a new DynamoDB Enhanced Client");
@@ -3,32 +3,73 @@ package com.fulfai.common.dynamodb;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import com.fulfai.common.dto.PaginatedResponse;
 
 import io.quarkus.logging.Log;
+import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchGetResultPage;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
 import software.amazon.awssdk.enhanced.dynamodb.model.DeleteItemEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.IgnoreNullsMode;
 import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ReadBatch;
 import software.amazon.awssdk.enhanced.dynamodb.model.TransactWriteItemsEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.model.UpdateItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
 
 public class DynamoDBUtils {
 
     private static final int DEFAULT_PAGE_SIZE = 20;
+    static final int BATCH_GET_MAX_KEYS = 100; // DynamoDB BatchGetItem limit
+    static final int BATCH_WRITE_MAX_ITEMS = 25; // DynamoDB BatchWriteItem limit
+    static final int DEFAULT_BATCH_WRITE_PARALLELISM = 4;
+    static final int BATCH_MAX_ATTEMPTS = 8;
+    private static final long BATCH_BASE_BACKOFF_MS = 25;
+    private static final long BATCH_MAX_BACKOFF_MS = 1000;
+    private static final int BATCH_EXECUTOR_THREADS = 16;
+
+    // Shared by all batch writes so a call does not pay for creating and tearing down threads
+    private static final ExecutorService BATCH_EXECUTOR = Executors.newFixedThreadPool(BATCH_EXECUTOR_THREADS,
+            new ThreadFactory() {
+                private final AtomicInteger threads = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "dynamodb-batch-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
 
     public static <T> T getItem(DynamoDbTable<T> table, String partitionKey) {
         Log.debugf("DYNAMODB_GET: table=%s, partitionKey=%s", table.tableName(), partitionKey);
@@ -290,7 +331,7 @@ public class DynamoDBUtils {
     }
 
     // Encode last evaluated key to base64 string for pagination token
-    private static String encodeLastEvaluatedKey(Map<String, AttributeValue> lastEvaluatedKey) {
+    static String encodeLastEvaluatedKey(Map<String, AttributeValue> lastEvaluatedKey) {
         if (lastEvaluatedKey == null || lastEvaluatedKey.isEmpty()) {
             return null;
         }
@@ -306,7 +347,7 @@ public class DynamoDBUtils {
     }
 
     // Decode pagination token to exclusive start key
-    private static Map<String, AttributeValue> decodeExclusiveStartKey(String nextToken) {
+    static Map<String, AttributeValue> decodeExclusiveStartKey(String nextToken) {
         if (nextToken == null || nextToken.isEmpty()) {
             return null;
         }
@@ -327,6 +368,185 @@ public class DynamoDBUtils {
         }
     }
 
+    // ==================== Batch Support ====================
+
+    /**
+     * Fetch many items by primary key using BatchGetItem.
+     * Keys are de-duplicated and sent in chunks of 100; unprocessed keys are
+     * re-requested with exponential backoff. Items that do not exist are simply
+     * absent from the returned map.
+     *
+     * @param enhancedClient The DynamoDB enhanced client
+     * @param table          The DynamoDB table
+     * @param keys           Primary keys to fetch
+     * @return Found items keyed by their primary key
+     */
+    public static <T> Map<Key, T> batchGetItems(DynamoDbEnhancedClient enhancedClient, DynamoDbTable<T> table,
+            Collection<Key> keys) {
+        List<Key> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        Log.debugf("DYNAMODB_BATCH_GET: table=%s, keys=%d", table.tableName(), distinctKeys.size());
+
+        Map<Key, T> results = new HashMap<>();
+        for (int start = 0; start < distinctKeys.size(); start += BATCH_GET_MAX_KEYS) {
+            List<Key> pending = distinctKeys.subList(start, Math.min(start + BATCH_GET_MAX_KEYS, distinctKeys.size()));
+
+            for (int attempt = 1; !pending.isEmpty(); attempt++) {
+                if (attempt > BATCH_MAX_ATTEMPTS) {
+                    throw new BatchOperationFailedException("Batch get exhausted retries with " + pending.size()
+                            + " unprocessed keys on table " + table.tableName());
+                }
+                if (attempt > 1) {
+                    backoff(attempt - 1);
+                }
+
+                ReadBatch.Builder<T> readBatch = ReadBatch.builder(table.tableSchema().itemType().rawClass())
+                        .mappedTableResource(table);
+                pending.forEach(readBatch::addGetItem);
+
+                // Only take the first page so unprocessed keys are retried with backoff
+                BatchGetResultPage page = enhancedClient.batchGetItem(r -> r.readBatches(readBatch.build()))
+                        .iterator().next();
+                for (T item : page.resultsForTable(table)) {
+                    results.put(table.keyFrom(item), item);
+                }
+                pending = page.unprocessedKeysForTable(table);
+            }
+        }
+
+        Log.debugf("DYNAMODB_BATCH_GET_RESULT: table=%s, requested=%d, found=%d",
+                table.tableName(), distinctKeys.size(), results.size());
+        return results;
+    }
+
+    /**
+     * Put many items using BatchWriteItem with the default parallelism.
+     *
+     * @see #batchWrite(DynamoDbEnhancedClient, DynamoDbTable, List, int)
+     */
+    public static <T> BatchWriteOutcome<T> batchWrite(DynamoDbEnhancedClient enhancedClient, DynamoDbTable<T> table,
+            List<T> items) {
+        return batchWrite(enhancedClient, table, items, DEFAULT_BATCH_WRITE_PARALLELISM);
+    }
+
+    /**
+     * Put many items using BatchWriteItem.
+     * Items are split into chunks of 25 which are dispatched concurrently on a
+     * shared pool, at most {@code parallelism} at a time. Unprocessed items are re-driven with jittered
+     * exponential backoff. A chunk that fails outright (e.g. validation error or
+     * exhausted retries) marks its remaining items as failed instead of aborting
+     * the other chunks. Items in one call must have distinct primary keys.
+     *
+     * @param enhancedClient The DynamoDB enhanced client
+     * @param table          The DynamoDB table
+     * @param items          Items to put
+     * @param parallelism    Maximum number of chunks in flight
+     * @return Per-item outcome (written / failed with reason)
+     */
+    public static <T> BatchWriteOutcome<T> batchWrite(DynamoDbEnhancedClient enhancedClient, DynamoDbTable<T> table,
+            List<T> items, int parallelism) {
+        Log.debugf("DYNAMODB_BATCH_WRITE: table=%s, items=%d, parallelism=%d",
+                table.tableName(), items.size(), parallelism);
+
+        List<List<T>> chunks = new ArrayList<>();
+        for (int start = 0; start < items.size(); start += BATCH_WRITE_MAX_ITEMS) {
+            chunks.add(items.subList(start, Math.min(start + BATCH_WRITE_MAX_ITEMS, items.size())));
+        }
+
+        BatchWriteOutcome<T> outcome = new BatchWriteOutcome<>();
+        if (chunks.size() <= 1 || parallelism <= 1) {
+            chunks.forEach(chunk -> outcome.merge(writeChunk(enhancedClient, table, chunk)));
+        } else {
+            // Up to `parallelism` workers on the shared pool, each draining chunks from a common queue
+            Queue<List<T>> queue = new ConcurrentLinkedQueue<>(chunks);
+            List<Future<BatchWriteOutcome<T>>> workers = new ArrayList<>();
+            for (int i = 0; i < Math.min(parallelism, chunks.size()); i++) {
+                workers.add(BATCH_EXECUTOR.submit(() -> {
+                    BatchWriteOutcome<T> written = new BatchWriteOutcome<>();
+                    for (List<T> chunk = queue.poll(); chunk != null; chunk = queue.poll()) {
+                        written.merge(writeChunk(enhancedClient, table, chunk));
+                    }
+                    return written;
+                }));
+            }
+            try {
+                for (Future<BatchWriteOutcome<T>> worker : workers) {
+                    outcome.merge(worker.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                workers.forEach(worker -> worker.cancel(true));
+                throw new BatchOperationFailedException("Interrupted while waiting for batch write", e);
+            } catch (ExecutionException e) {
+                workers.forEach(worker -> worker.cancel(true));
+                throw new BatchOperationFailedException("Batch write failed: " + e.getCause().getMessage(),
+                        e.getCause());
+            }
+        }
+
+        Log.debugf("DYNAMODB_BATCH_WRITE_RESULT: table=%s, written=%d, failed=%d",
+                table.tableName(), outcome.getWritten().size(), outcome.getFailed().size());
+        return outcome;
+    }
+
+    // Write a single chunk (<= 25 items), re-driving unprocessed items until done or out of attempts
+    private static <T> BatchWriteOutcome<T> writeChunk(DynamoDbEnhancedClient enhancedClient, DynamoDbTable<T> table,
+            List<T> chunk) {
+        BatchWriteOutcome<T> outcome = new BatchWriteOutcome<>();
+        List<T> pending = chunk;
+
+        try {
+            for (int attempt = 1; !pending.isEmpty(); attempt++) {
+                if (attempt > BATCH_MAX_ATTEMPTS) {
+                    pending.forEach(item -> outcome.addFailed(item,
+                            "Unprocessed after " + BATCH_MAX_ATTEMPTS + " attempts"));
+                    return outcome;
+                }
+                if (attempt > 1) {
+                    backoff(attempt - 1);
+                }
+
+                WriteBatch.Builder<T> writeBatch = WriteBatch.builder(table.tableSchema().itemType().rawClass())
+                        .mappedTableResource(table);
+                pending.forEach(writeBatch::addPutItem);
+
+                BatchWriteResult result = enhancedClient.batchWriteItem(r -> r.writeBatches(writeBatch.build()));
+                Set<Key> unprocessed = result.unprocessedPutItemsForTable(table).stream()
+                        .map(table::keyFrom)
+                        .collect(Collectors.toSet());
+
+                List<T> retry = new ArrayList<>();
+                for (T item : pending) {
+                    if (unprocessed.contains(table.keyFrom(item))) {
+                        retry.add(item);
+                    } else {
+                        outcome.addWritten(item);
+                    }
+                }
+                pending = retry;
+            }
+        } catch (SdkException e) {
+            Log.warnf("DYNAMODB_BATCH_WRITE: chunk failed on table=%s: %s", table.tableName(), e.getMessage());
+            pending.forEach(item -> outcome.addFailed(item, e.getMessage()));
+        }
+        return outcome;
+    }
+
+    // Sleep before retrying unprocessed batch items
+    private static void backoff(int retry) {
+        try {
+            Thread.sleep(backoffDelayMillis(retry));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BatchOperationFailedException("Interrupted while retrying batch operation", e);
+        }
+    }
+
+    // Retry delay for unprocessed batch items: capped exponential backoff with jitter
+    static long backoffDelayMillis(int retry) {
+        long ceiling = Math.min(BATCH_MAX_BACKOFF_MS, BATCH_BASE_BACKOFF_MS << Math.min(retry, 16));
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
     // ==================== Transaction Support ====================
 
     /**
@@ -383,6 +603,91 @@ public class DynamoDBUtils {
                 .build());
     }
 
+    /**
+     * Update only the non-null attributes of an item in a single UpdateItem call.
+     * The key attributes identify the item; every other non-null attribute becomes a
+     * SET clause and null attributes are left untouched, so there is no read and no
+     * full-item rewrite.
+     * 
+     * @param table               The DynamoDB table
+     * @param item                Key attributes plus the attributes to set
+     * @param conditionExpression The condition expression (may be null)
+     * @return The full item as it is after the update
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T updateNonNullAttributes(DynamoDbTable<T> table, T item, Expression conditionExpression) {
+        Log.debugf("DYNAMODB_UPDATE_PARTIAL: table=%s, item=%s", table.tableName(), item);
+        return table.updateItem(UpdateItemEnhancedRequest.builder((Class<T>) item.getClass())
+                .item(item)
+                .ignoreNullsMode(IgnoreNullsMode.SCALAR_ONLY)
+                .conditionExpression(conditionExpression)
+                .build());
+    }
+
+    /**
+     * Apply a raw update expression (e.g. list_append or ADD) to one item with a
+     * single UpdateItem call; creates the item if it does not exist.
+     * 
+     * @param client           The low-level DynamoDB client
+     * @param tableName        The table name
+     * @param key              The item's primary key attributes
+     * @param updateExpression Update expression with its names and values
+     */
+    public static void updateItemWithExpression(DynamoDbClient client, String tableName,
+            Map<String, AttributeValue> key, Expression updateExpression) {
+        Log.debugf("DYNAMODB_UPDATE_EXPRESSION: table=%s, key=%s, expression=%s",
+                tableName, key, updateExpression.expression());
+        client.updateItem(r -> r.tableName(tableName)
+                .key(key)
+                .updateExpression(updateExpression.expression())
+                .expressionAttributeNames(updateExpression.expressionNames())
+                .expressionAttributeValues(updateExpression.expressionValues()));
+    }
+
+    /**
+     * Apply a raw update expression (e.g. SET plus REMOVE) to one item only if the
+     * condition holds; throws ConditionalCheckFailedException otherwise.
+     * 
+     * @param client              The low-level DynamoDB client
+     * @param tableName           The table name
+     * @param key                 The item's primary key attributes
+     * @param updateExpression    Update expression with its names and values
+     * @param conditionExpression Condition expression with its names and values
+     */
+    public static void updateItemWithExpression(DynamoDbClient client, String tableName,
+            Map<String, AttributeValue> key, Expression updateExpression, Expression conditionExpression) {
+        Log.debugf("DYNAMODB_UPDATE_EXPRESSION_CONDITIONAL: table=%s, key=%s, expression=%s, condition=%s",
+                tableName, key, updateExpression.expression(), conditionExpression.expression());
+        client.updateItem(r -> r.tableName(tableName)
+                .key(key)
+                .updateExpression(updateExpression.expression())
+                .conditionExpression(conditionExpression.expression())
+                .expressionAttributeNames(mergeNames(updateExpression, conditionExpression))
+                .expressionAttributeValues(mergeValues(updateExpression, conditionExpression)));
+    }
+
+    static Map<String, String> mergeNames(Expression first, Expression second) {
+        Map<String, String> names = new HashMap<>();
+        if (first.expressionNames() != null) {
+            names.putAll(first.expressionNames());
+        }
+        if (second.expressionNames() != null) {
+            names.putAll(second.expressionNames());
+        }
+        return names.isEmpty() ? null : names;
+    }
+
+    static Map<String, AttributeValue> mergeValues(Expression first, Expression second) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        if (first.expressionValues() != null) {
+            values.putAll(first.expressionValues());
+        }
+        if (second.expressionValues() != null) {
+            values.putAll(second.expressionValues());
+        }
+        return values.isEmpty() ? null : values;
+    }
+
     /**
      * Create a condition expression to check if an attribute equals a specific
      * value.
@@ -472,7 +777,7 @@ public class DynamoDBUtils {
      * Extract human-readable cancellation reasons from
      * TransactionCanceledException.
      */
-    private static String extractCancellationReasons(TransactionCanceledException e) {
+    static String extractCancellationReasons(TransactionCanceledException e) {
         if (e.cancellationReasons() == null || e.cancellationReasons().isEmpty()) {
             return "Unknown reason";
         }
@@ -491,4 +796,17 @@ public class DynamoDBUtils {
             super(message, cause);
         }
     }
+
+    /**
+     * Custom exception for batch operations that could not complete.
+     */
+    public static class BatchOperationFailedException extends RuntimeException {
+        public BatchOperationFailedException(String message) {
+            super(message);
+        }
+
+        public BatchOperationFailedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
 }
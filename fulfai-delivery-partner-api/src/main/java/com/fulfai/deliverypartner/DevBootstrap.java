@@ -30,6 +30,18 @@ public class DevBootstrap {
     @ConfigProperty(name = "delivery.location.table.name")
     String locationTableName;
 
+    @ConfigProperty(name = "delivery.position.table.name")
+    String positionTableName;
+
+    @ConfigProperty(name = "delivery.location-chunk.table.name")
+    String locationChunkTableName;
+
+    @ConfigProperty(name = "delivery.trajectory.table.name")
+    String trajectoryTableName;
+
+    @ConfigProperty(name = "delivery.order-claim.table.name")
+    String orderClaimTableName;
+
     @PostConstruct
     void init() {
         Log.info("=======================================");
@@ -38,11 +50,19 @@ public class DevBootstrap {
         Log.infof("Creating Driver Table: %s", driverTableName);
         Log.infof("Creating Assignment Table: %s", assignmentTableName);
         Log.infof("Creating Location Table: %s", locationTableName);
+        Log.infof("Creating Position Table: %s", positionTableName);
+        Log.infof("Creating Location Chunk Table: %s", locationChunkTableName);
+        Log.infof("Creating Trajectory Table: %s", trajectoryTableName);
+        Log.infof("Creating Order Claim Table: %s", orderClaimTableName);
         Log.info("=======================================");
 
         TableCreator.createCompanyTable(dynamoDbClient, companyTableName);
         TableCreator.createDriverTable(dynamoDbClient, driverTableName);
         TableCreator.createAssignmentTable(dynamoDbClient, assignmentTableName);
         TableCreator.createLocationTable(dynamoDbClient, locationTableName);
+        TableCreator.createPositionTable(dynamoDbClient, positionTableName);
+        TableCreator.createLocationChunkTable(dynamoDbClient, locationChunkTableName);
+        TableCreator.createTrajectoryTable(dynamoDbClient, trajectoryTableName);
+        TableCreator.createOrderClaimTable(dynamoDbClient, orderClaimTableName);
     }
 }
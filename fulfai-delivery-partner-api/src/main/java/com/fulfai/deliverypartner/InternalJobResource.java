@@ -0,0 +1,96 @@
+package com.fulfai.deliverypartner;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Optional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fulfai.deliverypartner.location.TrajectoryService;
+import com.fulfai.deliverypartner.presence.PresenceService;
+
+import io.quarkus.logging.Log;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Triggers for periodic jobs, for deployments without a resident process (Lambda)
+ * where a scheduler (e.g. an EventBridge API destination) calls these endpoints.
+ *
+ * Callers must send the shared secret from delivery.internal.jobs.token in the
+ * X-Internal-Token header. Without a configured token the endpoints do not exist.
+ */
+@Path("/internal/jobs")
+@Produces(MediaType.APPLICATION_JSON)
+public class InternalJobResource {
+
+    static final String TOKEN_HEADER = "X-Internal-Token";
+
+    @ConfigProperty(name = "delivery.internal.jobs.token")
+    Optional<String> token;
+
+    @Inject
+    TrajectoryService trajectoryService;
+
+    @Inject
+    PresenceService presenceService;
+
+    /**
+     * Compact one UTC day of location history (date=yyyy-MM-dd, default yesterday)
+     * for every driver. Days already compacted are skipped, so reruns are cheap.
+     */
+    @POST
+    @Path("/trajectory-compaction")
+    public Response compactTrajectories(@HeaderParam(TOKEN_HEADER) String callerToken,
+            @QueryParam("date") String date) {
+        checkToken(callerToken);
+        LocalDate day = parseDay(date);
+        int compacted = trajectoryService.compactAll(day);
+        Log.infof("Compacted %s location history for %d drivers", day, compacted);
+        return Response.ok(Map.of("day", day.toString(), "compacted", compacted)).build();
+    }
+
+    /**
+     * Flip drivers that stopped reporting to OFFLINE (see PresenceService.sweep).
+     * Meant to be called every minute or so; concurrent calls are harmless.
+     */
+    @POST
+    @Path("/presence-sweep")
+    public Response sweepPresence(@HeaderParam(TOKEN_HEADER) String callerToken) {
+        checkToken(callerToken);
+        int flipped = presenceService.sweep();
+        return Response.ok(Map.of("offline", flipped)).build();
+    }
+
+    private void checkToken(String callerToken) {
+        if (token.isEmpty() || token.get().isBlank() || callerToken == null
+                || !MessageDigest.isEqual(token.get().getBytes(StandardCharsets.UTF_8),
+                        callerToken.getBytes(StandardCharsets.UTF_8))) {
+            // Indistinguishable from a missing route, so the endpoints are not discoverable
+            throw new NotFoundException();
+        }
+    }
+
+    private static LocalDate parseDay(String date) {
+        if (date == null || date.isBlank()) {
+            return LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        }
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid date: " + date);
+        }
+    }
+}
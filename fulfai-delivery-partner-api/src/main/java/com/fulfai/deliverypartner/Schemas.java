@@ -1,12 +1,18 @@
 package com.fulfai.deliverypartner;
 
 import java.time.Instant;
+import java.util.Arrays;
 
 import com.fulfai.deliverypartner.assignment.DriverOrderAssignment;
+import com.fulfai.deliverypartner.assignment.OrderClaim;
 import com.fulfai.deliverypartner.company.Company;
 import com.fulfai.deliverypartner.driver.Driver;
 import com.fulfai.deliverypartner.location.DriverLocation;
+import com.fulfai.deliverypartner.location.DriverPosition;
+import com.fulfai.deliverypartner.location.DriverTrajectory;
+import com.fulfai.deliverypartner.location.LocationChunk;
 
+import software.amazon.awssdk.core.SdkBytes;
 import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags;
@@ -49,6 +55,21 @@ public class Schemas {
                         .addAttribute(Boolean.class, a -> a.name("isActive")
                                         .getter(Company::getIsActive)
                                         .setter(Company::setIsActive))
+                        .addAttribute(Boolean.class, a -> a.name("stationaryFilterEnabled")
+                                        .getter(Company::getStationaryFilterEnabled)
+                                        .setter(Company::setStationaryFilterEnabled))
+                        .addAttribute(Double.class, a -> a.name("stationaryRadiusMeters")
+                                        .getter(Company::getStationaryRadiusMeters)
+                                        .setter(Company::setStationaryRadiusMeters))
+                        .addAttribute(Double.class, a -> a.name("stationaryHeadingDegrees")
+                                        .getter(Company::getStationaryHeadingDegrees)
+                                        .setter(Company::setStationaryHeadingDegrees))
+                        .addAttribute(Double.class, a -> a.name("stationarySpeedKmh")
+                                        .getter(Company::getStationarySpeedKmh)
+                                        .setter(Company::setStationarySpeedKmh))
+                        .addAttribute(Integer.class, a -> a.name("locationHeartbeatSeconds")
+                                        .getter(Company::getLocationHeartbeatSeconds)
+                                        .setter(Company::setLocationHeartbeatSeconds))
                         .addAttribute(Instant.class, a -> a.name("createdAt")
                                         .getter(Company::getCreatedAt)
                                         .setter(Company::setCreatedAt))
@@ -66,7 +87,8 @@ public class Schemas {
                         .addAttribute(String.class, a -> a.name("driverId")
                                         .getter(Driver::getDriverId)
                                         .setter(Driver::setDriverId)
-                                        .tags(StaticAttributeTags.primarySortKey()))
+                                        .tags(StaticAttributeTags.primarySortKey(),
+                                                        StaticAttributeTags.secondarySortKey(Driver.COMPANY_STATUS_GSI)))
                         .addAttribute(String.class, a -> a.name("name")
                                         .getter(Driver::getName)
                                         .setter(Driver::setName))
@@ -89,6 +111,10 @@ public class Schemas {
                                         .getter(Driver::getStatus)
                                         .setter(Driver::setStatus)
                                         .tags(StaticAttributeTags.secondaryPartitionKey(Driver.STATUS_GSI)))
+                        .addAttribute(String.class, a -> a.name("companyStatusShard")
+                                        .getter(Driver::getCompanyStatusShard)
+                                        .setter(Driver::setCompanyStatusShard)
+                                        .tags(StaticAttributeTags.secondaryPartitionKey(Driver.COMPANY_STATUS_GSI)))
                         .addAttribute(String.class, a -> a.name("currentCity")
                                         .getter(Driver::getCurrentCity)
                                         .setter(Driver::setCurrentCity))
@@ -101,6 +127,14 @@ public class Schemas {
                         .addAttribute(Instant.class, a -> a.name("lastLocationUpdate")
                                         .getter(Driver::getLastLocationUpdate)
                                         .setter(Driver::setLastLocationUpdate))
+                        .addAttribute(Instant.class, a -> a.name("lastSeenAt")
+                                        .getter(Driver::getLastSeenAt)
+                                        .setter(Driver::setLastSeenAt)
+                                        .tags(StaticAttributeTags.secondarySortKey(Driver.PRESENCE_GSI)))
+                        .addAttribute(String.class, a -> a.name("presenceShard")
+                                        .getter(Driver::getPresenceShard)
+                                        .setter(Driver::setPresenceShard)
+                                        .tags(StaticAttributeTags.secondaryPartitionKey(Driver.PRESENCE_GSI)))
                         .addAttribute(Boolean.class, a -> a.name("isActive")
                                         .getter(Driver::getIsActive)
                                         .setter(Driver::setIsActive))
@@ -123,6 +157,9 @@ public class Schemas {
                                         .getter(DriverOrderAssignment::getAssignedAt)
                                         .setter(DriverOrderAssignment::setAssignedAt)
                                         .tags(StaticAttributeTags.primarySortKey()))
+                        .addAttribute(String.class, a -> a.name("companyId")
+                                        .getter(DriverOrderAssignment::getCompanyId)
+                                        .setter(DriverOrderAssignment::setCompanyId))
                         .addAttribute(String.class, a -> a.name("orderId")
                                         .getter(DriverOrderAssignment::getOrderId)
                                         .setter(DriverOrderAssignment::setOrderId)
@@ -205,5 +242,145 @@ public class Schemas {
                         .addAttribute(String.class, a -> a.name("status")
                                         .getter(DriverLocation::getStatus)
                                         .setter(DriverLocation::setStatus))
+                        .addAttribute(Long.class, a -> a.name("expiresAt")
+                                        .getter(DriverLocation::getExpiresAt)
+                                        .setter(DriverLocation::setExpiresAt))
+                        .build();
+
+        public static final TableSchema<DriverPosition> POSITION_SCHEMA = TableSchema.builder(DriverPosition.class)
+                        .newItemSupplier(DriverPosition::new)
+                        .addAttribute(String.class, a -> a.name("driverId")
+                                        .getter(DriverPosition::getDriverId)
+                                        .setter(DriverPosition::setDriverId)
+                                        .tags(StaticAttributeTags.primaryPartitionKey()))
+                        .addAttribute(String.class, a -> a.name("companyId")
+                                        .getter(DriverPosition::getCompanyId)
+                                        .setter(DriverPosition::setCompanyId))
+                        .addAttribute(String.class, a -> a.name("companyGeohash4")
+                                        .getter(DriverPosition::getCompanyGeohash4)
+                                        .setter(DriverPosition::setCompanyGeohash4)
+                                        .tags(StaticAttributeTags
+                                                        .secondaryPartitionKey(DriverPosition.COMPANY_GEOHASH4_GSI)))
+                        .addAttribute(String.class, a -> a.name("companyGeohash5")
+                                        .getter(DriverPosition::getCompanyGeohash5)
+                                        .setter(DriverPosition::setCompanyGeohash5)
+                                        .tags(StaticAttributeTags
+                                                        .secondaryPartitionKey(DriverPosition.COMPANY_GEOHASH5_GSI)))
+                        .addAttribute(String.class, a -> a.name("companyGeohash6")
+                                        .getter(DriverPosition::getCompanyGeohash6)
+                                        .setter(DriverPosition::setCompanyGeohash6)
+                                        .tags(StaticAttributeTags
+                                                        .secondaryPartitionKey(DriverPosition.COMPANY_GEOHASH6_GSI)))
+                        .addAttribute(String.class, a -> a.name("companyGeohash7")
+                                        .getter(DriverPosition::getCompanyGeohash7)
+                                        .setter(DriverPosition::setCompanyGeohash7)
+                                        .tags(StaticAttributeTags
+                                                        .secondaryPartitionKey(DriverPosition.COMPANY_GEOHASH7_GSI)))
+                        .addAttribute(Instant.class, a -> a.name("timestamp")
+                                        .getter(DriverPosition::getTimestamp)
+                                        .setter(DriverPosition::setTimestamp)
+                                        .tags(StaticAttributeTags.secondarySortKey(Arrays.asList(
+                                                        DriverPosition.COMPANY_GEOHASH4_GSI,
+                                                        DriverPosition.COMPANY_GEOHASH5_GSI,
+                                                        DriverPosition.COMPANY_GEOHASH6_GSI,
+                                                        DriverPosition.COMPANY_GEOHASH7_GSI))))
+                        .addAttribute(Long.class, a -> a.name("timestampMillis")
+                                        .getter(DriverPosition::getTimestampMillis)
+                                        .setter(DriverPosition::setTimestampMillis))
+                        .addAttribute(Double.class, a -> a.name("latitude")
+                                        .getter(DriverPosition::getLatitude)
+                                        .setter(DriverPosition::setLatitude))
+                        .addAttribute(Double.class, a -> a.name("longitude")
+                                        .getter(DriverPosition::getLongitude)
+                                        .setter(DriverPosition::setLongitude))
+                        .addAttribute(String.class, a -> a.name("geohash")
+                                        .getter(DriverPosition::getGeohash)
+                                        .setter(DriverPosition::setGeohash))
+                        .addAttribute(Double.class, a -> a.name("accuracy")
+                                        .getter(DriverPosition::getAccuracy)
+                                        .setter(DriverPosition::setAccuracy))
+                        .addAttribute(Double.class, a -> a.name("speed")
+                                        .getter(DriverPosition::getSpeed)
+                                        .setter(DriverPosition::setSpeed))
+                        .addAttribute(Double.class, a -> a.name("heading")
+                                        .getter(DriverPosition::getHeading)
+                                        .setter(DriverPosition::setHeading))
+                        .addAttribute(String.class, a -> a.name("status")
+                                        .getter(DriverPosition::getStatus)
+                                        .setter(DriverPosition::setStatus))
+                        .addAttribute(Long.class, a -> a.name("sequence")
+                                        .getter(DriverPosition::getSequence)
+                                        .setter(DriverPosition::setSequence))
+                        .build();
+
+        public static final TableSchema<LocationChunk> LOCATION_CHUNK_SCHEMA = TableSchema.builder(LocationChunk.class)
+                        .newItemSupplier(LocationChunk::new)
+                        .addAttribute(String.class, a -> a.name("driverId")
+                                        .getter(LocationChunk::getDriverId)
+                                        .setter(LocationChunk::setDriverId)
+                                        .tags(StaticAttributeTags.primaryPartitionKey()))
+                        .addAttribute(Instant.class, a -> a.name("windowStart")
+                                        .getter(LocationChunk::getWindowStart)
+                                        .setter(LocationChunk::setWindowStart)
+                                        .tags(StaticAttributeTags.primarySortKey()))
+                        .addAttribute(EnhancedType.listOf(SdkBytes.class), a -> a.name("segments")
+                                        .getter(LocationChunk::getSegments)
+                                        .setter(LocationChunk::setSegments))
+                        .addAttribute(Integer.class, a -> a.name("pointCount")
+                                        .getter(LocationChunk::getPointCount)
+                                        .setter(LocationChunk::setPointCount))
+                        .addAttribute(Integer.class, a -> a.name("byteCount")
+                                        .getter(LocationChunk::getByteCount)
+                                        .setter(LocationChunk::setByteCount))
+                        .addAttribute(Instant.class, a -> a.name("updatedAt")
+                                        .getter(LocationChunk::getUpdatedAt)
+                                        .setter(LocationChunk::setUpdatedAt))
+                        .addAttribute(Long.class, a -> a.name("expiresAt")
+                                        .getter(LocationChunk::getExpiresAt)
+                                        .setter(LocationChunk::setExpiresAt))
+                        .build();
+
+        public static final TableSchema<DriverTrajectory> TRAJECTORY_SCHEMA = TableSchema.builder(DriverTrajectory.class)
+                        .newItemSupplier(DriverTrajectory::new)
+                        .addAttribute(String.class, a -> a.name("driverId")
+                                        .getter(DriverTrajectory::getDriverId)
+                                        .setter(DriverTrajectory::setDriverId)
+                                        .tags(StaticAttributeTags.primaryPartitionKey()))
+                        .addAttribute(String.class, a -> a.name("day")
+                                        .getter(DriverTrajectory::getDay)
+                                        .setter(DriverTrajectory::setDay)
+                                        .tags(StaticAttributeTags.primarySortKey()))
+                        .addAttribute(SdkBytes.class, a -> a.name("points")
+                                        .getter(DriverTrajectory::getPoints)
+                                        .setter(DriverTrajectory::setPoints))
+                        .addAttribute(Integer.class, a -> a.name("pointCount")
+                                        .getter(DriverTrajectory::getPointCount)
+                                        .setter(DriverTrajectory::setPointCount))
+                        .addAttribute(Integer.class, a -> a.name("rawPointCount")
+                                        .getter(DriverTrajectory::getRawPointCount)
+                                        .setter(DriverTrajectory::setRawPointCount))
+                        .addAttribute(Double.class, a -> a.name("toleranceMeters")
+                                        .getter(DriverTrajectory::getToleranceMeters)
+                                        .setter(DriverTrajectory::setToleranceMeters))
+                        .addAttribute(Instant.class, a -> a.name("compactedAt")
+                                        .getter(DriverTrajectory::getCompactedAt)
+                                        .setter(DriverTrajectory::setCompactedAt))
+                        .build();
+
+        public static final TableSchema<OrderClaim> ORDER_CLAIM_SCHEMA = TableSchema.builder(OrderClaim.class)
+                        .newItemSupplier(OrderClaim::new)
+                        .addAttribute(String.class, a -> a.name("orderId")
+                                        .getter(OrderClaim::getOrderId)
+                                        .setter(OrderClaim::setOrderId)
+                                        .tags(StaticAttributeTags.primaryPartitionKey()))
+                        .addAttribute(String.class, a -> a.name("driverId")
+                                        .getter(OrderClaim::getDriverId)
+                                        .setter(OrderClaim::setDriverId))
+                        .addAttribute(String.class, a -> a.name("companyId")
+                                        .getter(OrderClaim::getCompanyId)
+                                        .setter(OrderClaim::setCompanyId))
+                        .addAttribute(Instant.class, a -> a.name("assignedAt")
+                                        .getter(OrderClaim::getAssignedAt)
+                                        .setter(OrderClaim::setAssignedAt))
                         .build();
 }
@@ -5,6 +5,7 @@ import java.util.Arrays;
 import com.fulfai.deliverypartner.assignment.DriverOrderAssignment;
 import com.fulfai.deliverypartner.driver.Driver;
 import com.fulfai.deliverypartner.location.DriverLocation;
+import com.fulfai.deliverypartner.location.DriverPosition;
 
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
@@ -24,6 +25,18 @@ public class TableCreator {
         return tables.tableNames().contains(tableName);
     }
 
+    /**
+     * Turn on DynamoDB TTL for a newly created table.
+     */
+    protected static void enableTimeToLive(DynamoDbClient dynamoDbClient, String tableName, String attributeName) {
+        dynamoDbClient.waiter().waitUntilTableExists(builder -> builder.tableName(tableName));
+        dynamoDbClient.updateTimeToLive(builder -> builder
+                .tableName(tableName)
+                .timeToLiveSpecification(spec -> spec
+                        .attributeName(attributeName)
+                        .enabled(true)));
+    }
+
     public static void createCompanyTable(DynamoDbClient dynamoDbClient, String tableName) {
         if (tableExists(dynamoDbClient, tableName)) {
             return;
@@ -70,6 +83,18 @@ public class TableCreator {
                         AttributeDefinition.builder()
                                 .attributeName("status")
                                 .attributeType(ScalarAttributeType.S)
+                                .build(),
+                        AttributeDefinition.builder()
+                                .attributeName("companyStatusShard")
+                                .attributeType(ScalarAttributeType.S)
+                                .build(),
+                        AttributeDefinition.builder()
+                                .attributeName("presenceShard")
+                                .attributeType(ScalarAttributeType.S)
+                                .build(),
+                        AttributeDefinition.builder()
+                                .attributeName("lastSeenAt")
+                                .attributeType(ScalarAttributeType.S)
                                 .build()))
                 .globalSecondaryIndexes(
                         GlobalSecondaryIndex.builder()
@@ -82,6 +107,36 @@ public class TableCreator {
                                 .projection(Projection.builder()
                                         .projectionType(ProjectionType.ALL)
                                         .build())
+                                .build(),
+                        GlobalSecondaryIndex.builder()
+                                .indexName(Driver.COMPANY_STATUS_GSI)
+                                .keySchema(
+                                        KeySchemaElement.builder()
+                                                .attributeName("companyStatusShard")
+                                                .keyType(KeyType.HASH)
+                                                .build(),
+                                        KeySchemaElement.builder()
+                                                .attributeName("driverId")
+                                                .keyType(KeyType.RANGE)
+                                                .build())
+                                .projection(Projection.builder()
+                                        .projectionType(ProjectionType.ALL)
+                                        .build())
+                                .build(),
+                        GlobalSecondaryIndex.builder()
+                                .indexName(Driver.PRESENCE_GSI)
+                                .keySchema(
+                                        KeySchemaElement.builder()
+                                                .attributeName("presenceShard")
+                                                .keyType(KeyType.HASH)
+                                                .build(),
+                                        KeySchemaElement.builder()
+                                                .attributeName("lastSeenAt")
+                                                .keyType(KeyType.RANGE)
+                                                .build())
+                                .projection(Projection.builder()
+                                        .projectionType(ProjectionType.KEYS_ONLY)
+                                        .build())
                                 .build())
                 .billingMode(BillingMode.PAY_PER_REQUEST));
     }
@@ -191,5 +246,145 @@ public class TableCreator {
                                         .build())
                                 .build())
                 .billingMode(BillingMode.PAY_PER_REQUEST));
+
+        enableTimeToLive(dynamoDbClient, tableName, "expiresAt");
+    }
+
+    public static void createPositionTable(DynamoDbClient dynamoDbClient, String tableName) {
+        if (tableExists(dynamoDbClient, tableName)) {
+            return;
+        }
+
+        dynamoDbClient.createTable(builder -> builder
+                .tableName(tableName)
+                .keySchema(KeySchemaElement.builder()
+                        .attributeName("driverId")
+                        .keyType(KeyType.HASH)
+                        .build())
+                .attributeDefinitions(Arrays.asList(
+                        AttributeDefinition.builder()
+                                .attributeName("driverId")
+                                .attributeType(ScalarAttributeType.S)
+                                .build(),
+                        AttributeDefinition.builder()
+                                .attributeName("companyGeohash4")
+                                .attributeType(ScalarAttributeType.S)
+                                .build(),
+                        AttributeDefinition.builder()
+                                .attributeName("companyGeohash5")
+                                .attributeType(ScalarAttributeType.S)
+                                .build(),
+                        AttributeDefinition.builder()
+                                .attributeName("companyGeohash6")
+                                .attributeType(ScalarAttributeType.S)
+                                .build(),
+                        AttributeDefinition.builder()
+                                .attributeName("companyGeohash7")
+                                .attributeType(ScalarAttributeType.S)
+                                .build(),
+                        AttributeDefinition.builder()
+                                .attributeName("timestamp")
+                                .attributeType(ScalarAttributeType.S)
+                                .build()))
+                .globalSecondaryIndexes(Arrays.asList(
+                        companyGeohashIndex(DriverPosition.COMPANY_GEOHASH4_GSI, "companyGeohash4"),
+                        companyGeohashIndex(DriverPosition.COMPANY_GEOHASH5_GSI, "companyGeohash5"),
+                        companyGeohashIndex(DriverPosition.COMPANY_GEOHASH6_GSI, "companyGeohash6"),
+                        companyGeohashIndex(DriverPosition.COMPANY_GEOHASH7_GSI, "companyGeohash7")))
+                .billingMode(BillingMode.PAY_PER_REQUEST));
+    }
+
+    private static GlobalSecondaryIndex companyGeohashIndex(String indexName, String partitionKey) {
+        return GlobalSecondaryIndex.builder()
+                .indexName(indexName)
+                .keySchema(
+                        KeySchemaElement.builder()
+                                .attributeName(partitionKey)
+                                .keyType(KeyType.HASH)
+                                .build(),
+                        KeySchemaElement.builder()
+                                .attributeName("timestamp")
+                                .keyType(KeyType.RANGE)
+                                .build())
+                .projection(Projection.builder()
+                        .projectionType(ProjectionType.ALL)
+                        .build())
+                .build();
+    }
+
+    public static void createLocationChunkTable(DynamoDbClient dynamoDbClient, String tableName) {
+        if (tableExists(dynamoDbClient, tableName)) {
+            return;
+        }
+
+        dynamoDbClient.createTable(builder -> builder
+                .tableName(tableName)
+                .keySchema(
+                        KeySchemaElement.builder()
+                                .attributeName("driverId")
+                                .keyType(KeyType.HASH)
+                                .build(),
+                        KeySchemaElement.builder()
+                                .attributeName("windowStart")
+                                .keyType(KeyType.RANGE)
+                                .build())
+                .attributeDefinitions(Arrays.asList(
+                        AttributeDefinition.builder()
+                                .attributeName("driverId")
+                                .attributeType(ScalarAttributeType.S)
+                                .build(),
+                        AttributeDefinition.builder()
+                                .attributeName("windowStart")
+                                .attributeType(ScalarAttributeType.S)
+                                .build()))
+                .billingMode(BillingMode.PAY_PER_REQUEST));
+
+        enableTimeToLive(dynamoDbClient, tableName, "expiresAt");
+    }
+
+    public static void createTrajectoryTable(DynamoDbClient dynamoDbClient, String tableName) {
+        if (tableExists(dynamoDbClient, tableName)) {
+            return;
+        }
+
+        dynamoDbClient.createTable(builder -> builder
+                .tableName(tableName)
+                .keySchema(
+                        KeySchemaElement.builder()
+                                .attributeName("driverId")
+                                .keyType(KeyType.HASH)
+                                .build(),
+                        KeySchemaElement.builder()
+                                .attributeName("day")
+                                .keyType(KeyType.RANGE)
+                                .build())
+                .attributeDefinitions(Arrays.asList(
+                        AttributeDefinition.builder()
+                                .attributeName("driverId")
+                                .attributeType(ScalarAttributeType.S)
+                                .build(),
+                        AttributeDefinition.builder()
+                                .attributeName("day")
+                                .attributeType(ScalarAttributeType.S)
+                                .build()))
+                .billingMode(BillingMode.PAY_PER_REQUEST));
+    }
+
+    public static void createOrderClaimTable(DynamoDbClient dynamoDbClient, String tableName) {
+        if (tableExists(dynamoDbClient, tableName)) {
+            return;
+        }
+
+        dynamoDbClient.createTable(builder -> builder
+                .tableName(tableName)
+                .keySchema(KeySchemaElement.builder()
+                        .attributeName("orderId")
+                        .keyType(KeyType.HASH)
+                        .build())
+                .attributeDefinitions(AttributeDefinition.builder()
+                        .attributeName("orderId")
+                        .attributeType(ScalarAttributeType.S)
+                        .build())
+                .billingMode(BillingMode.PAY_PER_REQUEST));
     }
 }
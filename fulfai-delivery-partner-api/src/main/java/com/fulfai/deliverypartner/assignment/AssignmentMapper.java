@@ -9,6 +9,7 @@ public interface AssignmentMapper {
 
     @Mapping(target = "driverId", ignore = true)
     @Mapping(target = "assignedAt", ignore = true)
+    @Mapping(target = "companyId", ignore = true)
     @Mapping(target = "status", ignore = true)
     @Mapping(target = "pickedUpAt", ignore = true)
     @Mapping(target = "deliveredAt", ignore = true)
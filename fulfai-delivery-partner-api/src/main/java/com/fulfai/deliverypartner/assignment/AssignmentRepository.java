@@ -1,5 +1,7 @@
 package com.fulfai.deliverypartner.assignment;
 
+import java.time.Instant;
+
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import com.fulfai.common.dto.PaginatedResponse;
@@ -16,17 +18,25 @@ import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 @ApplicationScoped
 public class AssignmentRepository {
 
+    private final DynamoDbEnhancedClient enhancedClient;
     private final DynamoDbTable<DriverOrderAssignment> assignmentTable;
     private final DynamoDbIndex<DriverOrderAssignment> orderIndex;
     private final DynamoDbIndex<DriverOrderAssignment> statusIndex;
+    private final DynamoDbTable<OrderClaim> orderClaimTable;
 
     @Inject
     public AssignmentRepository(ClientFactory clientFactory,
-            @ConfigProperty(name = "delivery.assignment.table.name") String tableName) {
-        DynamoDbEnhancedClient enhancedClient = clientFactory.getEnhancedDynamoClient();
+            @ConfigProperty(name = "delivery.assignment.table.name") String tableName,
+            @ConfigProperty(name = "delivery.order-claim.table.name") String orderClaimTableName) {
+        this.enhancedClient = clientFactory.getEnhancedDynamoClient();
         this.assignmentTable = enhancedClient.table(tableName, Schemas.ASSIGNMENT_SCHEMA);
         this.orderIndex = assignmentTable.index(DriverOrderAssignment.ORDER_GSI);
         this.statusIndex = assignmentTable.index(DriverOrderAssignment.STATUS_GSI);
+        this.orderClaimTable = enhancedClient.table(orderClaimTableName, Schemas.ORDER_CLAIM_SCHEMA);
+    }
+
+    public DriverOrderAssignment get(String driverId, Instant assignedAt) {
+        return DynamoDBUtils.getItem(assignmentTable, driverId, assignedAt.toString());
     }
 
     public PaginatedResponse<DriverOrderAssignment> getByDriver(String driverId, String nextToken, Integer limit) {
@@ -37,15 +47,69 @@ public class AssignmentRepository {
         return DynamoDBUtils.queryGsiByPartitionKey(orderIndex, orderId, nextToken, limit);
     }
 
+    /**
+     * The current assignment of an order: the one its claim points to, else (no
+     * claim, e.g. assignments made before claims existed) the newest assignment not
+     * CANCELLED, else the newest one. Null if the order was never assigned.
+     * order-index has no sort key, so getByOrder alone returns an arbitrary one of
+     * an order's assignments once it has been re-dispatched after a cancellation.
+     */
+    public DriverOrderAssignment getCurrentByOrder(String orderId) {
+        OrderClaim claim = getClaim(orderId);
+        if (claim != null) {
+            DriverOrderAssignment claimed = get(claim.getDriverId(), claim.getAssignedAt());
+            if (claimed != null) {
+                return claimed;
+            }
+        }
+
+        DriverOrderAssignment newest = null;
+        DriverOrderAssignment newestOpen = null;
+        String nextToken = null;
+        do {
+            PaginatedResponse<DriverOrderAssignment> page = getByOrder(orderId, nextToken, null);
+            for (DriverOrderAssignment assignment : page.getItems()) {
+                if (isNewer(assignment, newest)) {
+                    newest = assignment;
+                }
+                if (!AssignmentStatus.CANCELLED.name().equals(assignment.getStatus())
+                        && isNewer(assignment, newestOpen)) {
+                    newestOpen = assignment;
+                }
+            }
+            nextToken = page.isHasMore() ? page.getNextToken() : null;
+        } while (nextToken != null);
+        return newestOpen != null ? newestOpen : newest;
+    }
+
     public PaginatedResponse<DriverOrderAssignment> getByStatus(String status, String nextToken, Integer limit) {
         return DynamoDBUtils.queryGsiByPartitionKey(statusIndex, status, nextToken, limit);
     }
 
+    /**
+     * The claim of an order, or null if the order is not currently assigned.
+     */
+    public OrderClaim getClaim(String orderId) {
+        return DynamoDBUtils.getItem(orderClaimTable, orderId);
+    }
+
+    private static boolean isNewer(DriverOrderAssignment assignment, DriverOrderAssignment current) {
+        return current == null || assignment.getAssignedAt().isAfter(current.getAssignedAt());
+    }
+
     public void save(DriverOrderAssignment assignment) {
         DynamoDBUtils.putItem(assignmentTable, assignment);
     }
 
+    public DynamoDbEnhancedClient getEnhancedClient() {
+        return enhancedClient;
+    }
+
     public DynamoDbTable<DriverOrderAssignment> getAssignmentTable() {
         return assignmentTable;
     }
+
+    public DynamoDbTable<OrderClaim> getOrderClaimTable() {
+        return orderClaimTable;
+    }
 }
@@ -51,7 +51,8 @@ public class AssignmentResource {
             @PathParam("driverId") String driverId,
             @PathParam("orderId") String orderId,
             @QueryParam("status") String status) {
-        AssignmentResponseDTO assignment = assignmentService.updateAssignmentStatus(driverId, orderId, status);
+        AssignmentResponseDTO assignment = assignmentService.updateAssignmentStatus(companyId, driverId, orderId,
+                status);
         return Response.ok(assignment).build();
     }
 }
@@ -9,6 +9,7 @@ public class AssignmentResponseDTO {
 
     private String driverId;
     private Instant assignedAt;
+    private String companyId;
     private String orderId;
     private String sellingPartnerId;
     private String status;
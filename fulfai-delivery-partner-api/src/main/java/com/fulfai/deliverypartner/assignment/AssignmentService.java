@@ -1,13 +1,18 @@
 package com.fulfai.deliverypartner.assignment;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import com.fulfai.common.dto.PaginatedResponse;
+import com.fulfai.common.dynamodb.DynamoDBUtils;
 import com.fulfai.deliverypartner.driver.Driver;
 import com.fulfai.deliverypartner.driver.DriverRepository;
 import com.fulfai.deliverypartner.driver.DriverStatus;
+import com.fulfai.deliverypartner.location.DriverPositionRepository;
+import com.fulfai.deliverypartner.location.DriverSpatialIndex;
+import com.fulfai.deliverypartner.location.StationaryFilter;
 
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -15,6 +20,14 @@ import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.NotFoundException;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.IgnoreNullsMode;
+import software.amazon.awssdk.enhanced.dynamodb.model.TransactDeleteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.TransactPutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.TransactUpdateItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 
 @ApplicationScoped
 public class AssignmentService {
@@ -28,53 +41,115 @@ public class AssignmentService {
     @Inject
     AssignmentMapper assignmentMapper;
 
-    public AssignmentResponseDTO assignOrder(String companyId, String driverId,
-            @Valid AssignmentRequestDTO assignmentDTO) {
-        // Verify driver exists and is available
-        Driver driver = driverRepository.getById(companyId, driverId);
-        if (driver == null) {
-            throw new NotFoundException("Driver not found with id: " + driverId);
-        }
+    @Inject
+    DriverPositionRepository positionRepository;
 
-        if (!DriverStatus.AVAILABLE.name().equals(driver.getStatus())) {
-            throw new BadRequestException("Driver is not available. Current status: " + driver.getStatus());
-        }
+    @Inject
+    DriverSpatialIndex spatialIndex;
+
+    @Inject
+    StationaryFilter stationaryFilter;
 
+    /**
+     * Assign an order to an AVAILABLE driver.
+     * The assignment is created, the order claimed and the driver set to BUSY in one
+     * transaction that only commits while the driver is still AVAILABLE and the
+     * order is not claimed yet, so two dispatchers cannot book the same driver and
+     * a retried request cannot assign the same order twice.
+     */
+    public AssignmentResponseDTO assignOrder(String companyId, String driverId,
+            @Valid AssignmentRequestDTO assignmentDTO) {
         Instant now = Instant.now();
 
         // Create assignment
         DriverOrderAssignment assignment = assignmentMapper.toEntity(assignmentDTO);
         assignment.setDriverId(driverId);
+        assignment.setCompanyId(companyId);
         assignment.setAssignedAt(now);
         assignment.setStatus(AssignmentStatus.ASSIGNED.name());
         assignment.setCreatedAt(now);
         assignment.setUpdatedAt(now);
 
-        assignmentRepository.save(assignment);
-
-        // Update driver status to BUSY
-        driver.setStatus(DriverStatus.BUSY.name());
-        driver.setUpdatedAt(now);
-        driverRepository.save(driver);
+        // Write assignment + set driver BUSY, conditional on driver being AVAILABLE
+        try {
+            DynamoDBUtils.transactWriteItems(assignmentRepository.getEnhancedClient(), builder -> {
+                builder.addUpdateItem(driverRepository.getDriverTable(),
+                        TransactUpdateItemEnhancedRequest.builder(Driver.class)
+                                .item(driverStatusUpdate(companyId, driverId, DriverStatus.BUSY, now))
+                                .ignoreNullsMode(IgnoreNullsMode.SCALAR_ONLY)
+                                .conditionExpression(DynamoDBUtils.attributeEquals("status",
+                                        DriverStatus.AVAILABLE.name()))
+                                .build());
+                builder.addPutItem(assignmentRepository.getAssignmentTable(),
+                        TransactPutItemEnhancedRequest.builder(DriverOrderAssignment.class)
+                                .item(assignment)
+                                .build());
+                builder.addPutItem(assignmentRepository.getOrderClaimTable(),
+                        TransactPutItemEnhancedRequest.builder(OrderClaim.class)
+                                .item(toClaim(assignment))
+                                .conditionExpression(Expression.builder()
+                                        .expression("attribute_not_exists(#orderId)")
+                                        .putExpressionName("#orderId", "orderId")
+                                        .build())
+                                .build());
+            });
+        } catch (DynamoDBUtils.TransactionFailedException e) {
+            OrderClaim claim = assignmentRepository.getClaim(assignment.getOrderId());
+            if (claim != null) {
+                throw new BadRequestException("Order " + assignment.getOrderId() + " is already assigned to driver "
+                        + claim.getDriverId());
+            }
+            Driver driver = driverRepository.getById(companyId, driverId);
+            if (driver == null) {
+                throw new NotFoundException("Driver not found with id: " + driverId);
+            }
+            if (DriverStatus.AVAILABLE.name().equals(driver.getStatus())) {
+                // The condition held when re-read, so the transaction lost a race with a concurrent write
+                throw new BadRequestException("Assignment conflicted with a concurrent update of driver " + driverId
+                        + ", retry the assignment");
+            }
+            throw new BadRequestException("Driver is not available. Current status: " + driver.getStatus());
+        }
+        driverRepository.clearPresence(companyId, driverId);
+        mirrorDriverStatus(companyId, driverId, DriverStatus.BUSY);
 
         Log.debugf("Assigned order %s to driver %s", assignmentDTO.getOrderId(), driverId);
 
         return assignmentMapper.toResponseDTO(assignment);
     }
 
-    public AssignmentResponseDTO updateAssignmentStatus(String driverId, String orderId, String newStatus) {
+    /**
+     * The current assignment of an order, or null if it is not assigned (never, or
+     * its last assignment was cancelled).
+     */
+    public AssignmentResponseDTO getClaimedAssignment(String orderId) {
+        OrderClaim claim = assignmentRepository.getClaim(orderId);
+        if (claim == null) {
+            return null;
+        }
+        DriverOrderAssignment assignment = assignmentRepository.get(claim.getDriverId(), claim.getAssignedAt());
+        return assignment != null ? assignmentMapper.toResponseDTO(assignment) : null;
+    }
+
+    /**
+     * Move an assignment to a new status.
+     * The write is conditional on the assignment still being in a status the
+     * transition is allowed from. Delivering or cancelling also releases the driver
+     * (BUSY to AVAILABLE) in the same transaction; cancelling also releases the
+     * order's claim so it can be assigned again.
+     */
+    public AssignmentResponseDTO updateAssignmentStatus(String companyId, String driverId, String orderId,
+            String newStatus) {
         AssignmentStatus status = AssignmentStatus.fromString(newStatus);
         if (status == null) {
             throw new BadRequestException("Invalid status: " + newStatus);
         }
 
-        // Find the assignment by order
-        PaginatedResponse<DriverOrderAssignment> response = assignmentRepository.getByOrder(orderId, null, 1);
-        if (response.getItems().isEmpty()) {
+        // Find the order's current assignment (an order re-dispatched after a cancellation has several)
+        DriverOrderAssignment assignment = assignmentRepository.getCurrentByOrder(orderId);
+        if (assignment == null) {
             throw new NotFoundException("Assignment not found for order: " + orderId);
         }
-
-        DriverOrderAssignment assignment = response.getItems().get(0);
         if (!assignment.getDriverId().equals(driverId)) {
             throw new BadRequestException("Order is not assigned to this driver");
         }
@@ -84,42 +159,128 @@ public class AssignmentService {
         if (!allowedFrom.isEmpty() && !allowedFrom.contains(assignment.getStatus())) {
             throw new BadRequestException("Invalid status transition from " + assignment.getStatus() + " to " + newStatus);
         }
+        Expression transitionCondition = allowedFrom.isEmpty()
+                ? DynamoDBUtils.attributeExists("driverId")
+                : DynamoDBUtils.attributeIn("status", allowedFrom);
 
         Instant now = Instant.now();
         assignment.setStatus(status.name());
         assignment.setUpdatedAt(now);
+        if (assignment.getCompanyId() == null) {
+            assignment.setCompanyId(companyId);  // Backfill assignments created before companyId was stored
+        }
 
         // Set timestamps based on status
         if (status == AssignmentStatus.PICKED_UP) {
             assignment.setPickedUpAt(now);
         } else if (status == AssignmentStatus.DELIVERED) {
             assignment.setDeliveredAt(now);
-            // Set driver back to AVAILABLE
-            updateDriverStatusAfterDelivery(assignment.getDriverId());
-        } else if (status == AssignmentStatus.CANCELLED) {
-            // Set driver back to AVAILABLE
-            updateDriverStatusAfterDelivery(assignment.getDriverId());
         }
 
-        assignmentRepository.save(assignment);
+        if (status == AssignmentStatus.DELIVERED || status == AssignmentStatus.CANCELLED) {
+            releaseDriver(assignment, transitionCondition, now);
+        } else {
+            try {
+                DynamoDBUtils.putItemWithCondition(assignmentRepository.getAssignmentTable(), assignment,
+                        transitionCondition);
+            } catch (ConditionalCheckFailedException e) {
+                throw new BadRequestException("Assignment status changed concurrently, retry the update");
+            }
+        }
         Log.debugf("Updated assignment status for order %s to %s", orderId, newStatus);
 
         return assignmentMapper.toResponseDTO(assignment);
     }
 
-    private void updateDriverStatusAfterDelivery(String driverId) {
-        // Find driver by querying (we need companyId, but we can search by status)
-        PaginatedResponse<Driver> drivers = driverRepository.getByStatus(DriverStatus.BUSY.name(), null, 100);
-        for (Driver driver : drivers.getItems()) {
-            if (driver.getDriverId().equals(driverId)) {
-                driver.setStatus(DriverStatus.AVAILABLE.name());
-                driver.setUpdatedAt(Instant.now());
-                driverRepository.save(driver);
-                break;
-            }
+    /**
+     * Close an assignment and set its driver back to AVAILABLE in one transaction.
+     * The driver is addressed by key; if it is no longer BUSY (e.g. went OFFLINE
+     * meanwhile) only the assignment is written. A cancelled assignment also drops
+     * the order's claim, unless another driver holds it.
+     */
+    private void releaseDriver(DriverOrderAssignment assignment, Expression transitionCondition, Instant now) {
+        Driver driver = driverRepository.getById(assignment.getCompanyId(), assignment.getDriverId());
+        boolean release = driver != null && DriverStatus.BUSY.name().equals(driver.getStatus());
+
+        try {
+            DynamoDBUtils.transactWriteItems(assignmentRepository.getEnhancedClient(), builder -> {
+                builder.addPutItem(assignmentRepository.getAssignmentTable(),
+                        TransactPutItemEnhancedRequest.builder(DriverOrderAssignment.class)
+                                .item(assignment)
+                                .conditionExpression(transitionCondition)
+                                .build());
+                if (release) {
+                    builder.addUpdateItem(driverRepository.getDriverTable(),
+                            TransactUpdateItemEnhancedRequest.builder(Driver.class)
+                                    .item(driverStatusUpdate(assignment.getCompanyId(), assignment.getDriverId(),
+                                            DriverStatus.AVAILABLE, now))
+                                    .ignoreNullsMode(IgnoreNullsMode.SCALAR_ONLY)
+                                    .conditionExpression(DynamoDBUtils.attributeEquals("status",
+                                            DriverStatus.BUSY.name()))
+                                    .build());
+                }
+                if (AssignmentStatus.CANCELLED.name().equals(assignment.getStatus())) {
+                    builder.addDeleteItem(assignmentRepository.getOrderClaimTable(),
+                            TransactDeleteItemEnhancedRequest.builder()
+                                    .key(Key.builder().partitionValue(assignment.getOrderId()).build())
+                                    .conditionExpression(Expression.builder()
+                                            .expression("attribute_not_exists(#orderId) OR #driverId = :driverId")
+                                            .putExpressionName("#orderId", "orderId")
+                                            .putExpressionName("#driverId", "driverId")
+                                            .putExpressionValue(":driverId",
+                                                    AttributeValue.fromS(assignment.getDriverId()))
+                                            .build())
+                                    .build());
+                }
+            });
+        } catch (DynamoDBUtils.TransactionFailedException e) {
+            Log.errorf("Transaction failed for order %s: %s", assignment.getOrderId(), e.getMessage());
+            throw new BadRequestException(
+                    "Assignment or driver status changed concurrently, retry the update");
+        }
+        if (release) {
+            mirrorDriverStatus(assignment.getCompanyId(), assignment.getDriverId(), DriverStatus.AVAILABLE);
         }
     }
 
+    /**
+     * Reflect a committed driver status change in the position table and the
+     * in-memory index, so proximity searches (and dispatch) stop offering a BUSY
+     * driver before its next ping.
+     */
+    private void mirrorDriverStatus(String companyId, String driverId, DriverStatus status) {
+        positionRepository.updateStatus(driverId, status.name());
+        spatialIndex.updateStatus(companyId, driverId, status.name());
+        stationaryFilter.reset(driverId);
+    }
+
+    private static OrderClaim toClaim(DriverOrderAssignment assignment) {
+        OrderClaim claim = new OrderClaim();
+        claim.setOrderId(assignment.getOrderId());
+        claim.setDriverId(assignment.getDriverId());
+        claim.setCompanyId(assignment.getCompanyId());
+        claim.setAssignedAt(assignment.getAssignedAt());
+        return claim;
+    }
+
+    /**
+     * Partial driver item for a status-only update (other attributes are null and left untouched).
+     */
+    private Driver driverStatusUpdate(String companyId, String driverId, DriverStatus status, Instant now) {
+        Driver update = new Driver();
+        update.setCompanyId(companyId);
+        update.setDriverId(driverId);
+        update.setStatus(status.name());
+        update.setCompanyStatusShard(driverRepository.companyStatusShard(companyId, driverId, status.name()));
+        if (status == DriverStatus.AVAILABLE) {
+            // Partial updates cannot remove attributes; leaving AVAILABLE clears the key separately
+            update.setPresenceShard(driverRepository.presenceShard(driverId));
+            update.setLastSeenAt(now.truncatedTo(ChronoUnit.SECONDS));
+        }
+        update.setUpdatedAt(now);
+        return update;
+    }
+
     public PaginatedResponse<AssignmentResponseDTO> getDriverAssignments(String driverId, String nextToken, Integer limit) {
         PaginatedResponse<DriverOrderAssignment> response = assignmentRepository.getByDriver(driverId, nextToken, limit);
 
@@ -133,11 +294,11 @@ public class AssignmentService {
     }
 
     public AssignmentResponseDTO getAssignmentByOrder(String orderId) {
-        PaginatedResponse<DriverOrderAssignment> response = assignmentRepository.getByOrder(orderId, null, 1);
-        if (response.getItems().isEmpty()) {
+        DriverOrderAssignment assignment = assignmentRepository.getCurrentByOrder(orderId);
+        if (assignment == null) {
             throw new NotFoundException("Assignment not found for order: " + orderId);
         }
-        return assignmentMapper.toResponseDTO(response.getItems().get(0));
+        return assignmentMapper.toResponseDTO(assignment);
     }
 
     public PaginatedResponse<AssignmentResponseDTO> getAssignmentsByStatus(String status, String nextToken, Integer limit) {
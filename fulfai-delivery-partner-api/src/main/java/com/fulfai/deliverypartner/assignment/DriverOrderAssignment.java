@@ -26,6 +26,7 @@ public class DriverOrderAssignment {
 
     private String driverId;
     private Instant assignedAt;
+    private String companyId;        // Driver's company, to address the driver item directly
     private String orderId;
     private String sellingPartnerId; // Company that created the order
     private String status; // ASSIGNED, PICKED_UP, IN_TRANSIT, DELIVERED, CANCELLED
@@ -53,6 +54,11 @@ public class DriverOrderAssignment {
         return assignedAt;
     }
 
+    @DynamoDbAttribute("companyId")
+    public String getCompanyId() {
+        return companyId;
+    }
+
     @DynamoDbSecondaryPartitionKey(indexNames = ORDER_GSI)
     @DynamoDbAttribute("orderId")
     public String getOrderId() {
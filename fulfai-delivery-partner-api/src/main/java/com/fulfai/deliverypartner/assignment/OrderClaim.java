@@ -0,0 +1,49 @@
+package com.fulfai.deliverypartner.assignment;
+
+import java.time.Instant;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import lombok.Data;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+
+/**
+ * Marks an order as assigned, so it can be assigned to at most one driver.
+ * PK: orderId
+ *
+ * Written in the same transaction as the assignment, conditional on no claim
+ * existing, and deleted when the assignment is cancelled. Points at the
+ * assignment item (driverId, assignedAt).
+ */
+@Data
+@DynamoDbBean
+@RegisterForReflection
+public class OrderClaim {
+
+    private String orderId;
+    private String driverId;
+    private String companyId;
+    private Instant assignedAt;
+
+    @DynamoDbPartitionKey
+    @DynamoDbAttribute("orderId")
+    public String getOrderId() {
+        return orderId;
+    }
+
+    @DynamoDbAttribute("driverId")
+    public String getDriverId() {
+        return driverId;
+    }
+
+    @DynamoDbAttribute("companyId")
+    public String getCompanyId() {
+        return companyId;
+    }
+
+    @DynamoDbAttribute("assignedAt")
+    public Instant getAssignedAt() {
+        return assignedAt;
+    }
+}
@@ -25,6 +25,11 @@ public class Company {
     private String logo;
     private List<String> operatingCities;
     private Boolean isActive;
+    private Boolean stationaryFilterEnabled;
+    private Double stationaryRadiusMeters;
+    private Double stationaryHeadingDegrees;
+    private Double stationarySpeedKmh;
+    private Integer locationHeartbeatSeconds;
     private Instant createdAt;
     private Instant updatedAt;
 
@@ -84,6 +89,31 @@ public class Company {
         return isActive;
     }
 
+    @DynamoDbAttribute("stationaryFilterEnabled")
+    public Boolean getStationaryFilterEnabled() {
+        return stationaryFilterEnabled;
+    }
+
+    @DynamoDbAttribute("stationaryRadiusMeters")
+    public Double getStationaryRadiusMeters() {
+        return stationaryRadiusMeters;
+    }
+
+    @DynamoDbAttribute("stationaryHeadingDegrees")
+    public Double getStationaryHeadingDegrees() {
+        return stationaryHeadingDegrees;
+    }
+
+    @DynamoDbAttribute("stationarySpeedKmh")
+    public Double getStationarySpeedKmh() {
+        return stationarySpeedKmh;
+    }
+
+    @DynamoDbAttribute("locationHeartbeatSeconds")
+    public Integer getLocationHeartbeatSeconds() {
+        return locationHeartbeatSeconds;
+    }
+
     @DynamoDbAttribute("createdAt")
     public Instant getCreatedAt() {
         return createdAt;
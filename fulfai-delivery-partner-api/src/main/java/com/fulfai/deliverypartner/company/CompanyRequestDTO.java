@@ -24,4 +24,9 @@ public class CompanyRequestDTO {
     private String logo;
     private List<String> operatingCities;
     private Boolean isActive;
+    private Boolean stationaryFilterEnabled;     // Drop pings from drivers standing still (null = service default)
+    private Double stationaryRadiusMeters;       // Movement below this counts as standing still
+    private Double stationaryHeadingDegrees;     // Heading change below this counts as unchanged
+    private Double stationarySpeedKmh;           // Speed change below this counts as unchanged
+    private Integer locationHeartbeatSeconds;    // Persist at least one ping per driver this often
 }
@@ -19,6 +19,11 @@ public class CompanyResponseDTO {
     private String logo;
     private List<String> operatingCities;
     private Boolean isActive;
+    private Boolean stationaryFilterEnabled;
+    private Double stationaryRadiusMeters;
+    private Double stationaryHeadingDegrees;
+    private Double stationarySpeedKmh;
+    private Integer locationHeartbeatSeconds;
     private Instant createdAt;
     private Instant updatedAt;
 }
@@ -0,0 +1,24 @@
+package com.fulfai.deliverypartner.dispatch;
+
+import java.util.List;
+
+import com.fulfai.deliverypartner.assignment.AssignmentRequestDTO;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * Match several waiting orders to available drivers at once.
+ */
+@Data
+public class BatchDispatchRequestDTO {
+
+    @NotEmpty(message = "Orders are required")
+    @Size(max = 50, message = "At most 50 orders per batch")
+    private List<@Valid AssignmentRequestDTO> orders;
+
+    private Double radiusKm;        // Search radius around each pickup (default from config)
+    private String strategy;        // greedy or hungarian (default)
+}
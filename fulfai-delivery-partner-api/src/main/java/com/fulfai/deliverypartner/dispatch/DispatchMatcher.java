@@ -0,0 +1,144 @@
+package com.fulfai.deliverypartner.dispatch;
+
+import java.util.Arrays;
+
+/**
+ * One-to-one matching of orders (rows) to drivers (columns) on a cost matrix.
+ * Infeasible pairs carry Double.POSITIVE_INFINITY and are never matched.
+ * Results map each row to its column, or -1 when the row stays unmatched.
+ */
+public class DispatchMatcher {
+
+    // Stand-in for infinite cost inside the Hungarian algorithm, far above any real score
+    private static final double INFEASIBLE = 1e12;
+
+    private DispatchMatcher() {
+    }
+
+    /**
+     * Repeatedly take the cheapest remaining pair. O(nm log nm), not optimal in
+     * total cost but never worse than serial nearest-driver dispatch.
+     */
+    public static int[] greedy(double[][] cost) {
+        int rows = cost.length;
+        int cols = rows == 0 ? 0 : cost[0].length;
+        int[] match = new int[rows];
+        Arrays.fill(match, -1);
+
+        long[] pairs = new long[rows * cols];
+        int count = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                if (cost[r][c] < Double.POSITIVE_INFINITY) {
+                    pairs[count++] = (long) r * cols + c;
+                }
+            }
+        }
+        Long[] order = new Long[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = pairs[i];
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(cost[(int) (a / cols)][(int) (a % cols)],
+                cost[(int) (b / cols)][(int) (b % cols)]));
+
+        boolean[] taken = new boolean[cols];
+        for (Long pair : order) {
+            int r = (int) (pair / cols);
+            int c = (int) (pair % cols);
+            if (match[r] < 0 && !taken[c]) {
+                match[r] = c;
+                taken[c] = true;
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Minimum total cost matching (Hungarian algorithm with potentials),
+     * O(n^2 m) for n = min(rows, cols). Among matchings it maximises the number of
+     * feasible pairs first, then minimises their total cost.
+     */
+    public static int[] hungarian(double[][] cost) {
+        int rows = cost.length;
+        int cols = rows == 0 ? 0 : cost[0].length;
+        int[] match = new int[rows];
+        Arrays.fill(match, -1);
+        if (rows == 0 || cols == 0) {
+            return match;
+        }
+
+        // The algorithm needs rows <= cols; solve the transpose otherwise
+        boolean transposed = rows > cols;
+        int n = transposed ? cols : rows;
+        int m = transposed ? rows : cols;
+        double[][] a = new double[n][m];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                double c = transposed ? cost[j][i] : cost[i][j];
+                a[i][j] = c < Double.POSITIVE_INFINITY ? c : INFEASIBLE;
+            }
+        }
+
+        int[] assigned = solve(a, n, m);  // column (1-based) -> row (1-based), 0 = free
+        for (int j = 1; j <= m; j++) {
+            int i = assigned[j];
+            if (i == 0 || a[i - 1][j - 1] >= INFEASIBLE) {
+                continue;
+            }
+            if (transposed) {
+                match[j - 1] = i - 1;
+            } else {
+                match[i - 1] = j - 1;
+            }
+        }
+        return match;
+    }
+
+    private static int[] solve(double[][] a, int n, int m) {
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] p = new int[m + 1];
+        int[] way = new int[m + 1];
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            double[] minv = new double[m + 1];
+            boolean[] used = new boolean[m + 1];
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                int j1 = 0;
+                double delta = Double.POSITIVE_INFINITY;
+                for (int j = 1; j <= m; j++) {
+                    if (!used[j]) {
+                        double cur = a[i0 - 1][j - 1] - u[i0] - v[j];
+                        if (cur < minv[j]) {
+                            minv[j] = cur;
+                            way[j] = j0;
+                        }
+                        if (minv[j] < delta) {
+                            delta = minv[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+        return p;
+    }
+}
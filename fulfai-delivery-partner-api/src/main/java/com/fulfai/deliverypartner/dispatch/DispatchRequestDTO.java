@@ -0,0 +1,20 @@
+package com.fulfai.deliverypartner.dispatch;
+
+import com.fulfai.deliverypartner.assignment.AssignmentRequestDTO;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * Dispatch one order to the best available driver near its pickup.
+ */
+@Data
+public class DispatchRequestDTO {
+
+    @NotNull(message = "Order is required")
+    @Valid
+    private AssignmentRequestDTO order;     // Pickup latitude/longitude are required
+
+    private Double radiusKm;                // Search radius (default from config)
+}
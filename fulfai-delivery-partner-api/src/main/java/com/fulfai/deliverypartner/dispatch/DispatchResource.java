@@ -0,0 +1,44 @@
+package com.fulfai.deliverypartner.dispatch;
+
+import java.util.List;
+
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+@Path("/company/{companyId}/dispatch")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class DispatchResource {
+
+    @Inject
+    DispatchService dispatchService;
+
+    /**
+     * Assign an order to the best available driver near its pickup.
+     */
+    @POST
+    public Response dispatch(@PathParam("companyId") String companyId,
+            @Valid DispatchRequestDTO dispatchDTO) {
+        DispatchResultDTO result = dispatchService.dispatch(companyId, dispatchDTO);
+        return Response.status(Response.Status.CREATED).entity(result).build();
+    }
+
+    /**
+     * Match waiting orders to available drivers in one pass. Each result reports
+     * its assignment or why none could be made.
+     */
+    @POST
+    @Path("/batch")
+    public Response dispatchBatch(@PathParam("companyId") String companyId,
+            @Valid BatchDispatchRequestDTO batchDTO) {
+        List<DispatchResultDTO> results = dispatchService.dispatchBatch(companyId, batchDTO);
+        return Response.ok(results).build();
+    }
+}
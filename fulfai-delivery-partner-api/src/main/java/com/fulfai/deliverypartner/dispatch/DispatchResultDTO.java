@@ -0,0 +1,23 @@
+package com.fulfai.deliverypartner.dispatch;
+
+import com.fulfai.deliverypartner.assignment.AssignmentResponseDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of dispatching one order. assignment is null when no driver could be
+ * claimed, with the reason in error.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DispatchResultDTO {
+
+    private String orderId;
+    private AssignmentResponseDTO assignment;
+    private Double distanceKm;      // Driver to pickup at dispatch time
+    private int attempts;           // Claims tried, > 1 when other dispatchers won a driver first
+    private String error;
+}
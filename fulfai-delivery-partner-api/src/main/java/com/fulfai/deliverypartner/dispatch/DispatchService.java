@@ -0,0 +1,255 @@
+package com.fulfai.deliverypartner.dispatch;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fulfai.deliverypartner.assignment.AssignmentRequestDTO;
+import com.fulfai.deliverypartner.assignment.AssignmentResponseDTO;
+import com.fulfai.deliverypartner.assignment.AssignmentService;
+import com.fulfai.deliverypartner.driver.DriverStatus;
+import com.fulfai.deliverypartner.location.LocationService;
+import com.fulfai.deliverypartner.location.NearbyDriverDTO;
+import com.fulfai.deliverypartner.location.ProximitySearchDTO;
+
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.NotFoundException;
+
+/**
+ * Automatic dispatch of orders to AVAILABLE drivers.
+ *
+ * Candidates come from the nearby-driver search around the pickup and are scored
+ * by distance plus a penalty for how long ago they last reported a position
+ * (drivers silent for longer than maxPingAge are skipped). A driver is claimed
+ * with the transactional assignOrder, which fails if another dispatcher claimed
+ * the driver first; the next candidate is then tried, re-searching up to
+ * maxRounds times. The same transaction claims the order itself, so dispatching
+ * an order that is already assigned returns the existing assignment.
+ */
+@ApplicationScoped
+public class DispatchService {
+
+    private final LocationService locationService;
+    private final AssignmentService assignmentService;
+    private final double defaultRadiusKm;
+    private final int maxCandidates;
+    private final int maxRounds;
+    private final long maxPingAgeSeconds;
+    private final double stalenessPenaltyKmPerMinute;
+
+    @Inject
+    public DispatchService(LocationService locationService, AssignmentService assignmentService,
+            @ConfigProperty(name = "delivery.dispatch.radius-km", defaultValue = "5") double defaultRadiusKm,
+            @ConfigProperty(name = "delivery.dispatch.max-candidates", defaultValue = "10") int maxCandidates,
+            @ConfigProperty(name = "delivery.dispatch.max-rounds", defaultValue = "3") int maxRounds,
+            @ConfigProperty(name = "delivery.dispatch.max-ping-age-seconds", defaultValue = "300") long maxPingAgeSeconds,
+            @ConfigProperty(name = "delivery.dispatch.staleness-penalty-km-per-minute", defaultValue = "0.5") double stalenessPenaltyKmPerMinute) {
+        this.locationService = locationService;
+        this.assignmentService = assignmentService;
+        this.defaultRadiusKm = defaultRadiusKm;
+        this.maxCandidates = maxCandidates;
+        this.maxRounds = maxRounds;
+        this.maxPingAgeSeconds = maxPingAgeSeconds;
+        this.stalenessPenaltyKmPerMinute = stalenessPenaltyKmPerMinute;
+    }
+
+    /**
+     * Assign an order to the best-scoring available driver near its pickup.
+     */
+    public DispatchResultDTO dispatch(String companyId, @Valid DispatchRequestDTO dispatchDTO) {
+        AssignmentRequestDTO order = dispatchDTO.getOrder();
+        requirePickup(order);
+        double radiusKm = dispatchDTO.getRadiusKm() != null ? dispatchDTO.getRadiusKm() : defaultRadiusKm;
+
+        DispatchResultDTO result = dispatchOne(companyId, order, radiusKm, new HashSet<>(), 0);
+        if (result.getAssignment() == null) {
+            throw new NotFoundException(result.getError());
+        }
+        return result;
+    }
+
+    /**
+     * Match a batch of orders to drivers at once, then claim the matched drivers.
+     * Orders whose matched driver was claimed elsewhere meanwhile, or that were
+     * left unmatched, fall back to single-order dispatch among the drivers not
+     * taken by this batch.
+     */
+    public List<DispatchResultDTO> dispatchBatch(String companyId, @Valid BatchDispatchRequestDTO batchDTO) {
+        DispatchStrategy strategy = DispatchStrategy.HUNGARIAN;
+        if (batchDTO.getStrategy() != null) {
+            strategy = DispatchStrategy.fromString(batchDTO.getStrategy());
+            if (strategy == null) {
+                throw new BadRequestException("Invalid strategy: " + batchDTO.getStrategy());
+            }
+        }
+        List<AssignmentRequestDTO> orders = batchDTO.getOrders();
+        orders.forEach(this::requirePickup);
+        double radiusKm = batchDTO.getRadiusKm() != null ? batchDTO.getRadiusKm() : defaultRadiusKm;
+
+        // Candidate drivers per order, and the union of drivers as matrix columns
+        List<Map<String, Candidate>> candidatesByOrder = new ArrayList<>(orders.size());
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        for (AssignmentRequestDTO order : orders) {
+            Map<String, Candidate> candidates = new LinkedHashMap<>();
+            for (Candidate candidate : rank(companyId, order, radiusKm, Set.of())) {
+                candidates.put(candidate.driverId, candidate);
+                columns.putIfAbsent(candidate.driverId, columns.size());
+            }
+            candidatesByOrder.add(candidates);
+        }
+
+        List<String> driverIds = new ArrayList<>(columns.keySet());
+        double[][] cost = new double[orders.size()][driverIds.size()];
+        for (int i = 0; i < orders.size(); i++) {
+            for (int j = 0; j < driverIds.size(); j++) {
+                Candidate candidate = candidatesByOrder.get(i).get(driverIds.get(j));
+                cost[i][j] = candidate != null ? candidate.score : Double.POSITIVE_INFINITY;
+            }
+        }
+        int[] match = strategy == DispatchStrategy.GREEDY
+                ? DispatchMatcher.greedy(cost)
+                : DispatchMatcher.hungarian(cost);
+
+        // Claim matched pairs; collect the rest for fallback
+        DispatchResultDTO[] results = new DispatchResultDTO[orders.size()];
+        Set<String> taken = new HashSet<>();
+        List<Integer> unresolved = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            if (match[i] < 0) {
+                unresolved.add(i);
+                continue;
+            }
+            Candidate candidate = candidatesByOrder.get(i).get(driverIds.get(match[i]));
+            AssignmentResponseDTO assignment = tryClaim(companyId, candidate.driverId, orders.get(i));
+            taken.add(candidate.driverId);
+            if (assignment != null) {
+                results[i] = new DispatchResultDTO(orders.get(i).getOrderId(), assignment,
+                        round(candidate.distanceKm), 1, null);
+            } else {
+                unresolved.add(i);
+            }
+        }
+        for (int i : unresolved) {
+            int attempts = match[i] >= 0 ? 1 : 0;
+            results[i] = dispatchOne(companyId, orders.get(i), radiusKm, taken, attempts);
+        }
+
+        Log.debugf("Dispatched batch (%s) of %d orders, %d fell back to single dispatch", strategy, orders.size(),
+                unresolved.size());
+        return List.of(results);
+    }
+
+    /**
+     * Try candidates best-first until one is claimed. Every driver tried is added
+     * to exclude. An order that is already assigned returns its current assignment
+     * instead, so retried requests never claim a second driver.
+     */
+    private DispatchResultDTO dispatchOne(String companyId, AssignmentRequestDTO order, double radiusKm,
+            Set<String> exclude, int previousAttempts) {
+        int attempts = previousAttempts;
+        AssignmentResponseDTO existing = assignmentService.getClaimedAssignment(order.getOrderId());
+        if (existing != null) {
+            // A retried request: the order was already dispatched
+            return new DispatchResultDTO(order.getOrderId(), existing, null, attempts, null);
+        }
+        for (int round = 0; round < maxRounds; round++) {
+            List<Candidate> candidates = rank(companyId, order, radiusKm, exclude);
+            if (candidates.isEmpty()) {
+                break;
+            }
+            for (Candidate candidate : candidates) {
+                exclude.add(candidate.driverId);
+                attempts++;
+                AssignmentResponseDTO assignment = tryClaim(companyId, candidate.driverId, order);
+                if (assignment != null) {
+                    Log.debugf("Dispatched order %s to driver %s after %d attempts", order.getOrderId(),
+                            candidate.driverId, attempts);
+                    return new DispatchResultDTO(order.getOrderId(), assignment, round(candidate.distanceKm),
+                            attempts, null);
+                }
+                // The claim may have failed because a concurrent request dispatched the order
+                existing = assignmentService.getClaimedAssignment(order.getOrderId());
+                if (existing != null) {
+                    return new DispatchResultDTO(order.getOrderId(), existing, null, attempts, null);
+                }
+            }
+        }
+        return new DispatchResultDTO(order.getOrderId(), null, null, attempts,
+                "No available driver within " + radiusKm + " km of pickup for order " + order.getOrderId());
+    }
+
+    /**
+     * Available drivers around the pickup, best score first.
+     */
+    private List<Candidate> rank(String companyId, AssignmentRequestDTO order, double radiusKm, Set<String> exclude) {
+        ProximitySearchDTO search = new ProximitySearchDTO();
+        search.setCompanyId(companyId);
+        search.setLatitude(order.getPickupLatitude());
+        search.setLongitude(order.getPickupLongitude());
+        search.setRadiusKm(radiusKm);
+        search.setMaxResults(maxCandidates + exclude.size());
+        search.setStatus(DriverStatus.AVAILABLE.name());
+
+        long now = Instant.now().getEpochSecond();
+        List<Candidate> candidates = new ArrayList<>();
+        for (NearbyDriverDTO driver : locationService.findNearbyDrivers(search).getDrivers()) {
+            if (exclude.contains(driver.getDriverId()) || driver.getLastUpdate() == null) {
+                continue;
+            }
+            long ageSeconds = Math.max(now - driver.getLastUpdate().getEpochSecond(), 0);
+            if (ageSeconds > maxPingAgeSeconds) {
+                continue;
+            }
+            double score = driver.getDistanceKm() + stalenessPenaltyKmPerMinute * ageSeconds / 60.0;
+            candidates.add(new Candidate(driver.getDriverId(), driver.getDistanceKm(), score));
+        }
+        candidates.sort(Comparator.comparingDouble(candidate -> candidate.score));
+        return candidates.size() > maxCandidates ? candidates.subList(0, maxCandidates) : candidates;
+    }
+
+    /**
+     * Claim a driver for the order, or null if the driver was no longer available.
+     */
+    private AssignmentResponseDTO tryClaim(String companyId, String driverId, AssignmentRequestDTO order) {
+        try {
+            return assignmentService.assignOrder(companyId, driverId, order);
+        } catch (BadRequestException | NotFoundException e) {
+            Log.debugf("Lost claim on driver %s for order %s: %s", driverId, order.getOrderId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void requirePickup(AssignmentRequestDTO order) {
+        if (order.getPickupLatitude() == null || order.getPickupLongitude() == null) {
+            throw new BadRequestException("Pickup latitude and longitude are required for order "
+                    + order.getOrderId());
+        }
+    }
+
+    private static double round(double distanceKm) {
+        return Math.round(distanceKm * 100.0) / 100.0;
+    }
+
+    private static final class Candidate {
+        final String driverId;
+        final double distanceKm;
+        final double score;
+
+        Candidate(String driverId, double distanceKm, double score) {
+            this.driverId = driverId;
+            this.distanceKm = distanceKm;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.fulfai.deliverypartner.dispatch;
+
+public enum DispatchStrategy {
+    GREEDY,      // Cheapest pairs first, fast
+    HUNGARIAN;   // Minimum total distance over the whole batch
+
+    public static DispatchStrategy fromString(String strategy) {
+        if (strategy == null) {
+            return null;
+        }
+        try {
+            return DispatchStrategy.valueOf(strategy.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
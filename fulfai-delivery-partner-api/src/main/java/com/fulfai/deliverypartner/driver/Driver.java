@@ -8,12 +8,19 @@ import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttri
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
 
 /**
  * Driver/Rider entity representing delivery personnel.
  * PK: companyId, SK: driverId
- * GSI: status-index (status as PK) for finding available drivers
+ * GSI: status-index (status as PK), global across companies
+ * GSI: company-status-index (companyId#status#shard as PK, driverId as SK) for a
+ *      company's drivers in a status; write-sharded so a large fleet's AVAILABLE
+ *      drivers do not share one partition
+ * GSI: presence-index (presenceShard as PK, lastSeenAt as SK), sparse: only
+ *      AVAILABLE drivers carry presenceShard, so the OFFLINE sweeper reads just
+ *      the AVAILABLE drivers that went quiet
  */
 @Data
 @DynamoDbBean
@@ -21,6 +28,8 @@ import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortK
 public class Driver {
 
     public static final String STATUS_GSI = "status-index";
+    public static final String COMPANY_STATUS_GSI = "company-status-index";
+    public static final String PRESENCE_GSI = "presence-index";
 
     private String companyId;
     private String driverId;
@@ -31,14 +40,33 @@ public class Driver {
     private String vehicleNumber;
     private String licenseNumber;
     private String status;           // AVAILABLE, BUSY, OFFLINE
+    private String companyStatusShard;  // companyId#status#shard, maintained with status
     private String currentCity;
     private Double lastLatitude;
     private Double lastLongitude;
     private Instant lastLocationUpdate;
+    private Instant lastSeenAt;      // Last ping or switch to AVAILABLE, whole seconds (sorts as a string)
+    private String presenceShard;    // presence#shard while AVAILABLE, absent otherwise
     private Boolean isActive;
     private Instant createdAt;
     private Instant updatedAt;
 
+    public static String companyStatusShardKey(String companyId, String status, int shard) {
+        return companyId + "#" + status + "#" + shard;
+    }
+
+    /**
+     * Shard of a driver in the company status index. Stable per driver, so a
+     * status change moves the driver between partitions of the same shard number.
+     */
+    public static int statusShard(String driverId, int shardCount) {
+        return Math.floorMod(driverId.hashCode(), shardCount);
+    }
+
+    public static String presenceShardKey(int shard) {
+        return "presence#" + shard;
+    }
+
     @DynamoDbPartitionKey
     @DynamoDbAttribute("companyId")
     public String getCompanyId() {
@@ -46,6 +74,7 @@ public class Driver {
     }
 
     @DynamoDbSortKey
+    @DynamoDbSecondarySortKey(indexNames = COMPANY_STATUS_GSI)
     @DynamoDbAttribute("driverId")
     public String getDriverId() {
         return driverId;
@@ -87,6 +116,12 @@ public class Driver {
         return status;
     }
 
+    @DynamoDbSecondaryPartitionKey(indexNames = COMPANY_STATUS_GSI)
+    @DynamoDbAttribute("companyStatusShard")
+    public String getCompanyStatusShard() {
+        return companyStatusShard;
+    }
+
     @DynamoDbAttribute("currentCity")
     public String getCurrentCity() {
         return currentCity;
@@ -107,6 +142,18 @@ public class Driver {
         return lastLocationUpdate;
     }
 
+    @DynamoDbSecondarySortKey(indexNames = PRESENCE_GSI)
+    @DynamoDbAttribute("lastSeenAt")
+    public Instant getLastSeenAt() {
+        return lastSeenAt;
+    }
+
+    @DynamoDbSecondaryPartitionKey(indexNames = PRESENCE_GSI)
+    @DynamoDbAttribute("presenceShard")
+    public String getPresenceShard() {
+        return presenceShard;
+    }
+
     @DynamoDbAttribute("isActive")
     public Boolean getIsActive() {
         return isActive;
@@ -10,9 +10,12 @@ public interface DriverMapper {
     @Mapping(target = "companyId", ignore = true)
     @Mapping(target = "driverId", ignore = true)
     @Mapping(target = "status", ignore = true)
+    @Mapping(target = "companyStatusShard", ignore = true)
     @Mapping(target = "lastLatitude", ignore = true)
     @Mapping(target = "lastLongitude", ignore = true)
     @Mapping(target = "lastLocationUpdate", ignore = true)
+    @Mapping(target = "lastSeenAt", ignore = true)
+    @Mapping(target = "presenceShard", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     Driver toEntity(DriverRequestDTO dto);
@@ -1,30 +1,88 @@
 package com.fulfai.deliverypartner.driver;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import com.fulfai.common.concurrent.ScatterGather;
+import com.fulfai.common.concurrent.ScatterGatherResult;
 import com.fulfai.common.dto.PaginatedResponse;
+import com.fulfai.common.dynamodb.AsyncClientFactory;
+import com.fulfai.common.dynamodb.AsyncDynamoDBUtils;
 import com.fulfai.common.dynamodb.ClientFactory;
 import com.fulfai.common.dynamodb.DynamoDBUtils;
 import com.fulfai.deliverypartner.Schemas;
 
+import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.ServiceUnavailableException;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncIndex;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 
 @ApplicationScoped
 public class DriverRepository {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private static final Expression CLEAR_PRESENCE = Expression.builder()
+            .expression("REMOVE #presenceShard")
+            .putExpressionName("#presenceShard", "presenceShard")
+            .build();
+
+    private final String tableName;
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
     private final DynamoDbTable<Driver> driverTable;
     private final DynamoDbIndex<Driver> statusIndex;
+    private final DynamoDbIndex<Driver> presenceIndex;
+    private final DynamoDbAsyncIndex<Driver> asyncCompanyStatusIndex;
+    private final int statusShards;
+    private final Duration statusQueryDeadline;
+    private final int presenceShards;
 
     @Inject
-    public DriverRepository(ClientFactory clientFactory,
-            @ConfigProperty(name = "delivery.driver.table.name") String tableName) {
+    public DriverRepository(ClientFactory clientFactory, AsyncClientFactory asyncClientFactory,
+            @ConfigProperty(name = "delivery.driver.table.name") String tableName,
+            @ConfigProperty(name = "delivery.driver.status-index.shards", defaultValue = "4") int statusShards,
+            @ConfigProperty(name = "delivery.driver.status-index.deadline-ms", defaultValue = "2000") long deadlineMs,
+            @ConfigProperty(name = "delivery.presence.shards", defaultValue = "8") int presenceShards) {
         DynamoDbEnhancedClient enhancedClient = clientFactory.getEnhancedDynamoClient();
+        this.tableName = tableName;
+        this.dynamoDbClient = clientFactory.getDynamoClient();
+        this.dynamoDbAsyncClient = asyncClientFactory.getDynamoAsyncClient();
         this.driverTable = enhancedClient.table(tableName, Schemas.DRIVER_SCHEMA);
         this.statusIndex = driverTable.index(Driver.STATUS_GSI);
+        this.presenceIndex = driverTable.index(Driver.PRESENCE_GSI);
+        this.asyncCompanyStatusIndex = asyncClientFactory.getEnhancedDynamoAsyncClient()
+                .table(tableName, Schemas.DRIVER_SCHEMA)
+                .index(Driver.COMPANY_STATUS_GSI);
+        this.statusShards = Math.max(statusShards, 1);
+        this.statusQueryDeadline = Duration.ofMillis(deadlineMs);
+        this.presenceShards = Math.max(presenceShards, 1);
     }
 
     public Driver getById(String companyId, String driverId) {
@@ -35,14 +93,238 @@ public class DriverRepository {
         return DynamoDBUtils.queryByPartitionKey(driverTable, companyId, nextToken, limit);
     }
 
+    /**
+     * Drivers in a status across all companies (global status index).
+     */
     public PaginatedResponse<Driver> getByStatus(String status, String nextToken, Integer limit) {
         return DynamoDBUtils.queryGsiByPartitionKey(statusIndex, status, nextToken, limit);
     }
 
+    /**
+     * A company's drivers in a status. All shards of companyId#status are queried
+     * concurrently and their items sorted by driverId within the page; the page
+     * token carries each shard's own position, and a shard that is no longer listed
+     * is exhausted. Shards advance independently, so results are not in global
+     * driverId order across pages.
+     * Fails rather than returning a page with a shard missing, since that shard's
+     * drivers would be skipped for good.
+     */
+    public PaginatedResponse<Driver> getByCompanyAndStatus(String companyId, String status, String nextToken,
+            Integer limit) {
+        Map<Integer, String> shardTokens = decodeShardTokens(nextToken);
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        int perShard = Math.max((pageSize + shardTokens.size() - 1) / shardTokens.size(), 1);
+
+        ScatterGatherResult<Integer, PaginatedResponse<Driver>> pages = ScatterGather.execute(shardTokens.keySet(),
+                shard -> AsyncDynamoDBUtils.queryGsiByPartitionKey(asyncCompanyStatusIndex,
+                        Driver.companyStatusShardKey(companyId, status, shard), shardTokens.get(shard), perShard),
+                statusShards, statusQueryDeadline);
+        if (pages.isPartial()) {
+            Log.warnf("Status query %s/%s incomplete: %d shards timed out, %d failed", companyId, status,
+                    pages.getTimedOut().size(), pages.getFailed().size());
+            throw new ServiceUnavailableException("Driver status lookup could not be completed, retry later");
+        }
+
+        List<Driver> items = new ArrayList<>();
+        Map<Integer, String> remaining = new TreeMap<>();
+        pages.getResults().forEach((shard, page) -> {
+            items.addAll(page.getItems());
+            if (page.isHasMore() && page.getNextToken() != null) {
+                remaining.put(shard, page.getNextToken());
+            }
+        });
+        items.sort(Comparator.comparing(Driver::getDriverId));
+
+        String token = encodeShardTokens(remaining);
+        return PaginatedResponse.<Driver>builder()
+                .items(items)
+                .nextToken(token)
+                .hasMore(token != null)
+                .build();
+    }
+
+    /**
+     * Persist the driver, keeping its company status and presence index keys in
+     * step with status.
+     */
     public void save(Driver driver) {
+        if (driver.getStatus() != null) {
+            driver.setCompanyStatusShard(companyStatusShard(driver.getCompanyId(), driver.getDriverId(),
+                    driver.getStatus()));
+        }
+        boolean available = DriverStatus.AVAILABLE.name().equals(driver.getStatus());
+        driver.setPresenceShard(available ? presenceShard(driver.getDriverId()) : null);
+        if (driver.getLastSeenAt() != null) {
+            driver.setLastSeenAt(driver.getLastSeenAt().truncatedTo(ChronoUnit.SECONDS));
+        } else if (available) {
+            driver.setLastSeenAt(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+        }
         DynamoDBUtils.putItem(driverTable, driver);
     }
 
+    /**
+     * Company status index key for a driver in the given status. Every write of a
+     * driver's status must also write this attribute.
+     */
+    public String companyStatusShard(String companyId, String driverId, String status) {
+        return Driver.companyStatusShardKey(companyId, status, Driver.statusShard(driverId, statusShards));
+    }
+
+    /**
+     * Presence index key of a driver. Only AVAILABLE drivers carry it.
+     */
+    public String presenceShard(String driverId) {
+        return Driver.presenceShardKey(Driver.statusShard(driverId, presenceShards));
+    }
+
+    public int getPresenceShards() {
+        return presenceShards;
+    }
+
+    /**
+     * One page of AVAILABLE drivers in a presence shard last seen before the
+     * cutoff, oldest first. Items carry keys only.
+     */
+    public PaginatedResponse<Driver> getStaleAvailable(int shard, Instant cutoff, String nextToken, Integer limit) {
+        return DynamoDBUtils.queryGsiByPartitionKeyAndSortKeyBetween(presenceIndex, Driver.presenceShardKey(shard),
+                Instant.EPOCH, cutoff.truncatedTo(ChronoUnit.SECONDS).minusSeconds(1), nextToken, limit);
+    }
+
+    /**
+     * Flip stale AVAILABLE drivers to OFFLINE, issuing the conditional updates
+     * concurrently. A driver is only flipped while still AVAILABLE and not seen
+     * since the cutoff, so a ping racing the sweep wins. A driver whose status
+     * already changed (its presence key left behind by a partial update) only has
+     * the key removed.
+     *
+     * @return per driver, true if it was set OFFLINE
+     */
+    public ScatterGatherResult<Driver, Boolean> markOfflineIfStale(Collection<Driver> drivers, Instant cutoff,
+            int concurrency, Duration deadline) {
+        String now = Instant.now().toString();
+        Expression stale = Expression.builder()
+                .expression("#status = :available AND #lastSeenAt < :cutoff")
+                .putExpressionName("#status", "status")
+                .putExpressionName("#lastSeenAt", "lastSeenAt")
+                .putExpressionValue(":available", AttributeValue.fromS(DriverStatus.AVAILABLE.name()))
+                .putExpressionValue(":cutoff", AttributeValue.fromS(
+                        cutoff.truncatedTo(ChronoUnit.SECONDS).toString()))
+                .build();
+
+        return ScatterGather.execute(drivers, driver -> {
+            Expression offline = Expression.builder()
+                    .expression("SET #status = :offline, #companyStatusShard = :statusKey, #updatedAt = :now"
+                            + " REMOVE #presenceShard")
+                    .putExpressionName("#status", "status")
+                    .putExpressionName("#companyStatusShard", "companyStatusShard")
+                    .putExpressionName("#updatedAt", "updatedAt")
+                    .putExpressionName("#presenceShard", "presenceShard")
+                    .putExpressionValue(":offline", AttributeValue.fromS(DriverStatus.OFFLINE.name()))
+                    .putExpressionValue(":statusKey", AttributeValue.fromS(companyStatusShard(driver.getCompanyId(),
+                            driver.getDriverId(), DriverStatus.OFFLINE.name())))
+                    .putExpressionValue(":now", AttributeValue.fromS(now))
+                    .build();
+            return AsyncDynamoDBUtils.updateItemWithExpression(dynamoDbAsyncClient, tableName, key(driver),
+                    offline, stale)
+                    .thenApply(ignored -> true)
+                    .exceptionallyCompose(throwable -> {
+                        if (!isConditionFailure(throwable)) {
+                            return CompletableFuture.failedFuture(throwable);
+                        }
+                        return AsyncDynamoDBUtils.updateItemWithExpression(dynamoDbAsyncClient, tableName,
+                                key(driver), CLEAR_PRESENCE, notAvailable())
+                                .handle((ignored, error) -> {
+                                    if (error != null && !isConditionFailure(error)) {
+                                        throw new CompletionException(error);
+                                    }
+                                    return false;
+                                });
+                    });
+        }, concurrency, deadline);
+    }
+
+    /**
+     * Drop the presence key of a driver that is no longer AVAILABLE. Needed after
+     * partial status updates, which can set attributes but not remove them.
+     */
+    public void clearPresence(String companyId, String driverId) {
+        Driver driver = new Driver();
+        driver.setCompanyId(companyId);
+        driver.setDriverId(driverId);
+        try {
+            DynamoDBUtils.updateItemWithExpression(dynamoDbClient, tableName, key(driver), CLEAR_PRESENCE,
+                    notAvailable());
+        } catch (ConditionalCheckFailedException e) {
+            // AVAILABLE again already, or the driver is gone
+        }
+    }
+
+    /**
+     * Set the company status and presence index keys on drivers written before the
+     * indexes existed (or under a different shard count). Only the key attributes
+     * are written, and only while the status they were derived from is unchanged.
+     *
+     * @return number of drivers updated
+     */
+    public int backfillCompanyStatusShards() {
+        int updated = 0;
+        for (Page<Driver> page : driverTable.scan(ScanEnhancedRequest.builder().build())) {
+            for (Driver driver : page.items()) {
+                if (driver.getStatus() == null) {
+                    continue;
+                }
+                String key = companyStatusShard(driver.getCompanyId(), driver.getDriverId(), driver.getStatus());
+                boolean missingPresence = DriverStatus.AVAILABLE.name().equals(driver.getStatus())
+                        && !presenceShard(driver.getDriverId()).equals(driver.getPresenceShard());
+                if (key.equals(driver.getCompanyStatusShard()) && !missingPresence) {
+                    continue;
+                }
+                Driver update = new Driver();
+                update.setCompanyId(driver.getCompanyId());
+                update.setDriverId(driver.getDriverId());
+                update.setCompanyStatusShard(key);
+                if (missingPresence) {
+                    update.setPresenceShard(presenceShard(driver.getDriverId()));
+                    Instant lastSeen = driver.getLastSeenAt() != null ? driver.getLastSeenAt()
+                            : driver.getLastLocationUpdate() != null ? driver.getLastLocationUpdate() : Instant.now();
+                    update.setLastSeenAt(lastSeen.truncatedTo(ChronoUnit.SECONDS));
+                }
+                try {
+                    DynamoDBUtils.updateNonNullAttributes(driverTable, update,
+                            DynamoDBUtils.attributeEquals("status", driver.getStatus()));
+                    updated++;
+                } catch (ConditionalCheckFailedException e) {
+                    // Status changed meanwhile; that write set the key already
+                }
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Set the driver's last known location with a single conditional UpdateItem
+     * (no read, no full-item rewrite).
+     *
+     * @return The driver after the update, or null if the driver does not exist
+     */
+    public Driver updateLastLocation(String companyId, String driverId, Double latitude, Double longitude,
+            Instant timestamp) {
+        Driver update = new Driver();
+        update.setCompanyId(companyId);
+        update.setDriverId(driverId);
+        update.setLastLatitude(latitude);
+        update.setLastLongitude(longitude);
+        update.setLastLocationUpdate(timestamp);
+        update.setLastSeenAt(timestamp.truncatedTo(ChronoUnit.SECONDS));
+        update.setUpdatedAt(timestamp);
+        try {
+            return DynamoDBUtils.updateNonNullAttributes(driverTable, update,
+                    DynamoDBUtils.attributeExists("driverId"));
+        } catch (ConditionalCheckFailedException e) {
+            return null;
+        }
+    }
+
     public void delete(String companyId, String driverId) {
         DynamoDBUtils.deleteItem(driverTable, companyId, driverId);
     }
@@ -50,4 +332,63 @@ public class DriverRepository {
     public DynamoDbTable<Driver> getDriverTable() {
         return driverTable;
     }
+
+    private static Map<String, AttributeValue> key(Driver driver) {
+        return Map.of("companyId", AttributeValue.fromS(driver.getCompanyId()),
+                "driverId", AttributeValue.fromS(driver.getDriverId()));
+    }
+
+    private static Expression notAvailable() {
+        return Expression.builder()
+                .expression("attribute_exists(#presenceShard) AND #status <> :available")
+                .putExpressionName("#presenceShard", "presenceShard")
+                .putExpressionName("#status", "status")
+                .putExpressionValue(":available", AttributeValue.fromS(DriverStatus.AVAILABLE.name()))
+                .build();
+    }
+
+    private static boolean isConditionFailure(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+        return cause instanceof ConditionalCheckFailedException;
+    }
+
+    private Map<Integer, String> decodeShardTokens(String nextToken) {
+        Map<Integer, String> tokens = new LinkedHashMap<>();
+        if (nextToken == null || nextToken.isEmpty()) {
+            for (int shard = 0; shard < statusShards; shard++) {
+                tokens.put(shard, null);
+            }
+            return tokens;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(nextToken), StandardCharsets.UTF_8);
+            for (String entry : decoded.split(",")) {
+                String[] parts = entry.split(":", 2);
+                int shard = Integer.parseInt(parts[0]);
+                if (parts.length != 2 || shard < 0 || shard >= statusShards) {
+                    throw new IllegalArgumentException("Unexpected shard token: " + entry);
+                }
+                tokens.put(shard, parts[1]);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid nextToken");
+        }
+        return tokens;
+    }
+
+    private static String encodeShardTokens(Map<Integer, String> tokens) {
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        tokens.forEach((shard, token) -> {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(shard).append(':').append(token);
+        });
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
 }
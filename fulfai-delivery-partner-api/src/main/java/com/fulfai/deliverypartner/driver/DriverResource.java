@@ -52,6 +52,18 @@ public class DriverResource {
         return Response.ok(drivers).build();
     }
 
+    @POST
+    @Path("/status/{status}/search")
+    public Response getDriversByStatus(@PathParam("companyId") String companyId,
+            @PathParam("status") String status,
+            PaginationDTO request) {
+        Integer limit = request != null && request.getLimit() != null ? request.getLimit() : DEFAULT_LIMIT;
+        String nextToken = request != null ? request.getNextToken() : null;
+        PaginatedResponse<DriverResponseDTO> drivers = driverService.getDriversByStatus(companyId, status,
+                nextToken, limit);
+        return Response.ok(drivers).build();
+    }
+
     @PUT
     @Path("/{driverId}")
     public Response updateDriver(@PathParam("companyId") String companyId,
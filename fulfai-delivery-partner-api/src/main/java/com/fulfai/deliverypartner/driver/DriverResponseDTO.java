@@ -20,6 +20,7 @@ public class DriverResponseDTO {
     private Double lastLatitude;
     private Double lastLongitude;
     private Instant lastLocationUpdate;
+    private Instant lastSeenAt;
     private Boolean isActive;
     private Instant createdAt;
     private Instant updatedAt;
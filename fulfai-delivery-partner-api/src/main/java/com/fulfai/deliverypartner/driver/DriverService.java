@@ -5,6 +5,9 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 import com.fulfai.common.dto.PaginatedResponse;
+import com.fulfai.deliverypartner.location.DriverPositionRepository;
+import com.fulfai.deliverypartner.location.DriverSpatialIndex;
+import com.fulfai.deliverypartner.location.StationaryFilter;
 
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -19,6 +22,15 @@ public class DriverService {
     @Inject
     DriverRepository driverRepository;
 
+    @Inject
+    DriverPositionRepository positionRepository;
+
+    @Inject
+    DriverSpatialIndex spatialIndex;
+
+    @Inject
+    StationaryFilter stationaryFilter;
+
     @Inject
     DriverMapper driverMapper;
 
@@ -62,12 +74,15 @@ public class DriverService {
                 .build();
     }
 
-    public PaginatedResponse<DriverResponseDTO> getDriversByStatus(String status, String nextToken, Integer limit) {
-        if (DriverStatus.fromString(status) == null) {
+    public PaginatedResponse<DriverResponseDTO> getDriversByStatus(String companyId, String status, String nextToken,
+            Integer limit) {
+        DriverStatus driverStatus = DriverStatus.fromString(status);
+        if (driverStatus == null) {
             throw new BadRequestException("Invalid status: " + status);
         }
 
-        PaginatedResponse<Driver> response = driverRepository.getByStatus(status, nextToken, limit);
+        PaginatedResponse<Driver> response = driverRepository.getByCompanyAndStatus(companyId, driverStatus.name(),
+                nextToken, limit);
 
         return PaginatedResponse.<DriverResponseDTO>builder()
                 .items(response.getItems().stream()
@@ -91,6 +106,7 @@ public class DriverService {
         driver.setLastLatitude(existingDriver.getLastLatitude());
         driver.setLastLongitude(existingDriver.getLastLongitude());
         driver.setLastLocationUpdate(existingDriver.getLastLocationUpdate());
+        driver.setLastSeenAt(existingDriver.getLastSeenAt());
         driver.setCreatedAt(existingDriver.getCreatedAt());
         driver.setUpdatedAt(Instant.now());
 
@@ -111,10 +127,17 @@ public class DriverService {
             throw new NotFoundException("Driver not found with id: " + driverId);
         }
 
+        Instant now = Instant.now();
         driver.setStatus(status.name());
-        driver.setUpdatedAt(Instant.now());
+        driver.setUpdatedAt(now);
+        if (status == DriverStatus.AVAILABLE) {
+            driver.setLastSeenAt(now);  // going AVAILABLE counts as being seen
+        }
 
         driverRepository.save(driver);
+        positionRepository.updateStatus(driverId, status.name());
+        spatialIndex.updateStatus(companyId, driverId, status.name());
+        stationaryFilter.reset(driverId);  // record the new status with the next ping
         Log.debugf("Updated driver %s status to: %s", driverId, newStatus);
 
         return driverMapper.toResponseDTO(driver);
@@ -127,6 +150,9 @@ public class DriverService {
         }
 
         driverRepository.delete(companyId, driverId);
+        positionRepository.delete(driverId);
+        spatialIndex.remove(companyId, driverId);
+        stationaryFilter.reset(driverId);
         Log.debugf("Deleted driver with id: %s", driverId);
     }
 }
@@ -0,0 +1,45 @@
+package com.fulfai.deliverypartner.driver;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.Startup;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * One-off backfill of the company status and presence index keys for drivers
+ * written before those indexes existed, or after changing their shard counts.
+ *
+ * Disabled by default: it scans the whole driver table, so enable it for a
+ * single deployment (or run it from a container) rather than on every Lambda
+ * cold start. Drivers also pick up the key on their next status change.
+ */
+@Startup
+@ApplicationScoped
+public class DriverStatusIndexBackfill {
+
+    private final DriverRepository driverRepository;
+    private final boolean enabled;
+
+    @Inject
+    public DriverStatusIndexBackfill(DriverRepository driverRepository,
+            @ConfigProperty(name = "delivery.driver.status-index.backfill-on-startup", defaultValue = "false") boolean enabled) {
+        this.driverRepository = driverRepository;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    void run() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int updated = driverRepository.backfillCompanyStatusShards();
+            Log.infof("Backfilled status and presence index keys for %d drivers", updated);
+        } catch (RuntimeException e) {
+            Log.errorf(e, "Status and presence index backfill failed");
+        }
+    }
+}
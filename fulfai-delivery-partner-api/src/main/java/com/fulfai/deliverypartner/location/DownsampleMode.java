@@ -0,0 +1,17 @@
+package com.fulfai.deliverypartner.location;
+
+public enum DownsampleMode {
+    UNIFORM,     // Evenly spaced by point index (roughly even in time)
+    DISTANCE;    // Evenly spaced along the travelled path
+
+    public static DownsampleMode fromString(String mode) {
+        if (mode == null) {
+            return null;
+        }
+        try {
+            return DownsampleMode.valueOf(mode.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
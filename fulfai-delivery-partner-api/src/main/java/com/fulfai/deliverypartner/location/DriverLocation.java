@@ -18,6 +18,9 @@ import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortK
  *
  * Geohash is used for efficient geo-proximity queries.
  * A 6-character geohash provides ~1.2km precision.
+ *
+ * Raw points expire through DynamoDB TTL on expiresAt (epoch seconds) when raw
+ * retention is configured; older days survive as simplified DriverTrajectory items.
  */
 @Data
 @DynamoDbBean
@@ -35,6 +38,7 @@ public class DriverLocation {
     private Double speed;           // Speed in km/h
     private Double heading;         // Direction in degrees (0-360)
     private String status;          // Driver status at this point
+    private Long expiresAt;         // TTL, epoch seconds
 
     @DynamoDbPartitionKey
     @DynamoDbAttribute("driverId")
@@ -84,4 +88,9 @@ public class DriverLocation {
     public String getStatus() {
         return status;
     }
+
+    @DynamoDbAttribute("expiresAt")
+    public Long getExpiresAt() {
+        return expiresAt;
+    }
 }
@@ -0,0 +1,158 @@
+package com.fulfai.deliverypartner.location;
+
+import java.time.Instant;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import lombok.Data;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
+
+/**
+ * Latest known position of a driver, overwritten on every location update.
+ * PK: driverId
+ * GSI: company-geohash{4,5,6,7}-index (companyId#geohash prefix as PK, timestamp as SK)
+ *
+ * Unlike DriverLocation (the history table) there is exactly one row per driver,
+ * so a geohash cell query never returns stale pings. The geohash is stored at
+ * precision 7 and every prefix from 4 to 7 is indexed, so any cell of a
+ * mixed-precision covering (see GeoHashUtil.cover) is a single indexed query.
+ */
+@Data
+@DynamoDbBean
+@RegisterForReflection
+public class DriverPosition {
+
+    public static final String COMPANY_GEOHASH4_GSI = "company-geohash4-index";
+    public static final String COMPANY_GEOHASH5_GSI = "company-geohash5-index";
+    public static final String COMPANY_GEOHASH6_GSI = "company-geohash6-index";
+    public static final String COMPANY_GEOHASH7_GSI = "company-geohash7-index";
+
+    private String driverId;
+    private String companyId;
+    private String companyGeohash4;  // companyId#geohash[0..4] (~39km cell)
+    private String companyGeohash5;  // companyId#geohash[0..5] (~4.9km cell)
+    private String companyGeohash6;  // companyId#geohash[0..6] (~1.2km cell)
+    private String companyGeohash7;  // companyId#geohash (~153m cell)
+    private Instant timestamp;
+    private Long timestampMillis;    // timestamp as epoch millis, so conditions compare it numerically
+    private Double latitude;
+    private Double longitude;
+    private String geohash;          // Precision 7
+    private Double accuracy;
+    private Double speed;
+    private Double heading;
+    private String status;
+    private Long sequence;          // Highest driver-supplied sequence applied (null for unsequenced pings)
+
+    public static String companyGeohashKey(String companyId, String geohash) {
+        return companyId + "#" + geohash;
+    }
+
+    /**
+     * GSI holding cells of the given geohash precision.
+     */
+    public static String indexForPrecision(int precision) {
+        switch (precision) {
+            case 4:
+                return COMPANY_GEOHASH4_GSI;
+            case 5:
+                return COMPANY_GEOHASH5_GSI;
+            case 6:
+                return COMPANY_GEOHASH6_GSI;
+            case 7:
+                return COMPANY_GEOHASH7_GSI;
+            default:
+                throw new IllegalArgumentException("No geohash index for precision: " + precision);
+        }
+    }
+
+    @DynamoDbPartitionKey
+    @DynamoDbAttribute("driverId")
+    public String getDriverId() {
+        return driverId;
+    }
+
+    @DynamoDbAttribute("companyId")
+    public String getCompanyId() {
+        return companyId;
+    }
+
+    @DynamoDbSecondaryPartitionKey(indexNames = COMPANY_GEOHASH4_GSI)
+    @DynamoDbAttribute("companyGeohash4")
+    public String getCompanyGeohash4() {
+        return companyGeohash4;
+    }
+
+    @DynamoDbSecondaryPartitionKey(indexNames = COMPANY_GEOHASH5_GSI)
+    @DynamoDbAttribute("companyGeohash5")
+    public String getCompanyGeohash5() {
+        return companyGeohash5;
+    }
+
+    @DynamoDbSecondaryPartitionKey(indexNames = COMPANY_GEOHASH6_GSI)
+    @DynamoDbAttribute("companyGeohash6")
+    public String getCompanyGeohash6() {
+        return companyGeohash6;
+    }
+
+    @DynamoDbSecondaryPartitionKey(indexNames = COMPANY_GEOHASH7_GSI)
+    @DynamoDbAttribute("companyGeohash7")
+    public String getCompanyGeohash7() {
+        return companyGeohash7;
+    }
+
+    @DynamoDbSecondarySortKey(indexNames = {COMPANY_GEOHASH4_GSI, COMPANY_GEOHASH5_GSI, COMPANY_GEOHASH6_GSI,
+            COMPANY_GEOHASH7_GSI})
+    @DynamoDbAttribute("timestamp")
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    @DynamoDbAttribute("timestampMillis")
+    public Long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    @DynamoDbAttribute("latitude")
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    @DynamoDbAttribute("longitude")
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    @DynamoDbAttribute("geohash")
+    public String getGeohash() {
+        return geohash;
+    }
+
+    @DynamoDbAttribute("accuracy")
+    public Double getAccuracy() {
+        return accuracy;
+    }
+
+    @DynamoDbAttribute("speed")
+    public Double getSpeed() {
+        return speed;
+    }
+
+    @DynamoDbAttribute("heading")
+    public Double getHeading() {
+        return heading;
+    }
+
+    @DynamoDbAttribute("status")
+    public String getStatus() {
+        return status;
+    }
+
+    @DynamoDbAttribute("sequence")
+    public Long getSequence() {
+        return sequence;
+    }
+}
@@ -0,0 +1,218 @@
+package com.fulfai.deliverypartner.location;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fulfai.common.concurrent.ScatterGather;
+import com.fulfai.common.concurrent.ScatterGatherResult;
+import com.fulfai.common.dynamodb.AsyncClientFactory;
+import com.fulfai.common.dynamodb.AsyncDynamoDBUtils;
+import com.fulfai.common.dynamodb.ClientFactory;
+import com.fulfai.common.dynamodb.DynamoDBUtils;
+import com.fulfai.deliverypartner.Schemas;
+
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncIndex;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+
+@ApplicationScoped
+public class DriverPositionRepository {
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbTable<DriverPosition> positionTable;
+    private final String tableName;
+    private final Map<Integer, DynamoDbAsyncIndex<DriverPosition>> asyncCompanyGeohashIndexes = new HashMap<>();
+    private final int searchConcurrency;
+    private final Duration searchDeadline;
+
+    @Inject
+    public DriverPositionRepository(ClientFactory clientFactory, AsyncClientFactory asyncClientFactory,
+            @ConfigProperty(name = "delivery.position.table.name") String tableName,
+            @ConfigProperty(name = "delivery.proximity.search.concurrency", defaultValue = "9") int searchConcurrency,
+            @ConfigProperty(name = "delivery.proximity.search.deadline-ms", defaultValue = "1500") long deadlineMs) {
+        DynamoDbEnhancedClient enhancedClient = clientFactory.getEnhancedDynamoClient();
+        this.dynamoDbClient = clientFactory.getDynamoClient();
+        this.positionTable = enhancedClient.table(tableName, Schemas.POSITION_SCHEMA);
+        this.tableName = tableName;
+        DynamoDbAsyncTable<DriverPosition> asyncPositionTable = asyncClientFactory.getEnhancedDynamoAsyncClient()
+                .table(tableName, Schemas.POSITION_SCHEMA);
+        for (int precision = GeoHashUtil.MIN_COVER_PRECISION; precision <= GeoHashUtil.MAX_COVER_PRECISION;
+                precision++) {
+            asyncCompanyGeohashIndexes.put(precision,
+                    asyncPositionTable.index(DriverPosition.indexForPrecision(precision)));
+        }
+        this.searchConcurrency = searchConcurrency;
+        this.searchDeadline = Duration.ofMillis(deadlineMs);
+    }
+
+    public DriverPosition getByDriver(String driverId) {
+        return DynamoDBUtils.getItem(positionTable, driverId);
+    }
+
+    /**
+     * Read every current position (used to warm the in-memory spatial index).
+     */
+    public List<DriverPosition> getAll() {
+        Log.debugf("DYNAMODB_SCAN: table=%s", positionTable.tableName());
+        List<DriverPosition> items = new ArrayList<>();
+        for (Page<DriverPosition> page : positionTable.scan(ScanEnhancedRequest.builder().build())) {
+            items.addAll(page.items());
+        }
+        Log.debugf("DYNAMODB_SCAN_RESULT: table=%s, count=%d", positionTable.tableName(), items.size());
+        return items;
+    }
+
+    /**
+     * Overwrite the driver's current position in place, keeping the stored sequence.
+     * Used for unsequenced pings: one UpdateItem sets every non-null attribute and
+     * removes the null ones except sequence, so a later batch of older points still
+     * sees the driver's applied sequence.
+     */
+    public void save(DriverPosition position) {
+        Map<String, AttributeValue> attributes = Schemas.POSITION_SCHEMA.itemToMap(position, true);
+        List<String> set = new ArrayList<>();
+        List<String> remove = new ArrayList<>();
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        for (String name : Schemas.POSITION_SCHEMA.attributeNames()) {
+            if (name.equals("driverId") || name.equals("sequence")) {
+                continue;
+            }
+            names.put("#" + name, name);
+            if (attributes.containsKey(name)) {
+                set.add("#" + name + " = :" + name);
+                values.put(":" + name, attributes.get(name));
+            } else {
+                remove.add("#" + name);
+            }
+        }
+
+        DynamoDBUtils.updateItemWithExpression(dynamoDbClient, tableName,
+                Map.of("driverId", AttributeValue.fromS(position.getDriverId())),
+                Expression.builder()
+                        .expression("SET " + String.join(", ", set)
+                                + (remove.isEmpty() ? "" : " REMOVE " + String.join(", ", remove)))
+                        .expressionNames(names)
+                        .expressionValues(values)
+                        .build());
+    }
+
+    /**
+     * Overwrite the driver's current position only if both its sequence and its
+     * timestamp are higher than the stored ones (or none are stored), so replays,
+     * out-of-order batches and offline points older than a live ping never move a
+     * driver back.
+     *
+     * @return true if the position was written
+     */
+    public boolean saveIfNewer(DriverPosition position) {
+        Expression newer = Expression.builder()
+                .expression("(attribute_not_exists(#seq) OR #seq < :seq) "
+                        + "AND (attribute_not_exists(#timestampMillis) OR #timestampMillis < :timestampMillis)")
+                .putExpressionName("#seq", "sequence")
+                .putExpressionName("#timestampMillis", "timestampMillis")
+                .putExpressionValue(":seq", AttributeValue.builder().n(position.getSequence().toString()).build())
+                .putExpressionValue(":timestampMillis",
+                        AttributeValue.builder().n(position.getTimestampMillis().toString()).build())
+                .build();
+        try {
+            DynamoDBUtils.putItemWithCondition(positionTable, position, newer);
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Raise the stored sequence without moving the position, for a batch whose
+     * newest point is older than the driver's current position. Does nothing if no
+     * position exists or a higher sequence is already stored.
+     */
+    public void advanceSequence(String driverId, long sequence) {
+        DriverPosition update = new DriverPosition();
+        update.setDriverId(driverId);
+        update.setSequence(sequence);
+        Expression lower = Expression.builder()
+                .expression("attribute_exists(#driverId) AND (attribute_not_exists(#seq) OR #seq < :seq)")
+                .putExpressionName("#driverId", "driverId")
+                .putExpressionName("#seq", "sequence")
+                .putExpressionValue(":seq", AttributeValue.builder().n(Long.toString(sequence)).build())
+                .build();
+        try {
+            DynamoDBUtils.updateNonNullAttributes(positionTable, update, lower);
+        } catch (ConditionalCheckFailedException e) {
+            // No position yet, or a higher sequence is already applied
+        }
+    }
+
+    /**
+     * Mirror a driver status change onto the current position, if one exists,
+     * so proximity searches filtering by status see it before the next ping.
+     * Only the status attribute is written, so a concurrent ping is not overwritten.
+     */
+    public void updateStatus(String driverId, String status) {
+        DriverPosition update = new DriverPosition();
+        update.setDriverId(driverId);
+        update.setStatus(status);
+        try {
+            DynamoDBUtils.updateNonNullAttributes(positionTable, update, DynamoDBUtils.attributeExists("driverId"));
+        } catch (ConditionalCheckFailedException e) {
+            // No position reported yet; the first ping carries the status
+        }
+    }
+
+    public void delete(String driverId) {
+        DynamoDBUtils.deleteItem(positionTable, driverId);
+    }
+
+    /**
+     * Query a company's drivers in multiple geohash cells (for proximity search).
+     * Cells may mix precisions; each is queried on the index matching its length
+     * and paged to the end, pageSize items per request, so a crowded cell is never
+     * silently truncated. All cells are queried concurrently on the async client
+     * under a per-search deadline; cells that time out or fail are reported in the
+     * result instead of failing the search.
+     */
+    public ScatterGatherResult<String, List<DriverPosition>> getByGeohashes(String companyId, List<String> geohashes,
+            Integer pageSize) {
+        return ScatterGather.execute(geohashes,
+                hash -> queryCell(indexForCell(hash), DriverPosition.companyGeohashKey(companyId, hash), null,
+                        pageSize, new ArrayList<>()),
+                searchConcurrency, searchDeadline);
+    }
+
+    private CompletableFuture<List<DriverPosition>> queryCell(DynamoDbAsyncIndex<DriverPosition> index,
+            String partitionKey, String nextToken, Integer pageSize, List<DriverPosition> collected) {
+        return AsyncDynamoDBUtils.queryGsiByPartitionKey(index, partitionKey, nextToken, pageSize)
+                .thenCompose(page -> {
+                    collected.addAll(page.getItems());
+                    return page.isHasMore() && page.getNextToken() != null
+                            ? queryCell(index, partitionKey, page.getNextToken(), pageSize, collected)
+                            : CompletableFuture.completedFuture(collected);
+                });
+    }
+
+    private DynamoDbAsyncIndex<DriverPosition> indexForCell(String geohash) {
+        DynamoDbAsyncIndex<DriverPosition> index = asyncCompanyGeohashIndexes.get(geohash.length());
+        if (index == null) {
+            throw new IllegalArgumentException("No geohash index for cell: " + geohash);
+        }
+        return index;
+    }
+}
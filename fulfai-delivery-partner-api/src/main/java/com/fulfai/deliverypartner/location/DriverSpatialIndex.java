@@ -0,0 +1,350 @@
+package com.fulfai.deliverypartner.location;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.Startup;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Optional in-process spatial index of current driver positions, for long-running
+ * (container) deployments where proximity search should not touch DynamoDB.
+ *
+ * Each company has its own uniform lat/lon grid whose entries live in parallel
+ * primitive arrays; grid cells hold slot numbers into those arrays. Positions older
+ * than the staleness window are skipped by queries and evicted on the write path.
+ * When enabled the index is warmed from the position table on startup and then fed
+ * by every location update and driver status change.
+ *
+ * Disabled by default: in Lambda each instance would only see its own pings.
+ */
+@Startup
+@ApplicationScoped
+public class DriverSpatialIndex {
+
+    private static final double CELL_SIZE_DEG = 0.01;  // ~1.1km
+    private static final int LON_CELLS = (int) Math.round(360.0 / CELL_SIZE_DEG);
+    private static final int MAX_VISITED_CELLS = 4096;
+    private static final double KM_PER_DEGREE = 6371 * Math.PI / 180;
+
+    private final boolean enabled;
+    private final long staleAfterMillis;
+    private final DriverPositionRepository positionRepository;
+    private final Map<String, CompanyGrid> grids = new ConcurrentHashMap<>();
+
+    @Inject
+    public DriverSpatialIndex(DriverPositionRepository positionRepository,
+            @ConfigProperty(name = "delivery.proximity.in-memory-index.enabled", defaultValue = "false") boolean enabled,
+            @ConfigProperty(name = "delivery.proximity.in-memory-index.stale-after-seconds", defaultValue = "300") long staleAfterSeconds) {
+        this.positionRepository = positionRepository;
+        this.enabled = enabled;
+        this.staleAfterMillis = staleAfterSeconds * 1000;
+    }
+
+    @PostConstruct
+    void warmStart() {
+        if (!enabled) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - staleAfterMillis;
+        int loaded = 0;
+        for (DriverPosition position : positionRepository.getAll()) {
+            if (position.getTimestamp() != null && position.getTimestamp().toEpochMilli() >= cutoff) {
+                update(position);
+                loaded++;
+            }
+        }
+        Log.infof("Warmed driver spatial index with %d current positions", loaded);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Insert or move a driver's position.
+     */
+    public void update(DriverPosition position) {
+        if (!enabled || position.getCompanyId() == null || position.getLatitude() == null
+                || position.getLongitude() == null) {
+            return;
+        }
+        long timestamp = position.getTimestamp() != null ? position.getTimestamp().toEpochMilli()
+                : System.currentTimeMillis();
+        grids.computeIfAbsent(position.getCompanyId(), id -> new CompanyGrid())
+                .upsert(position.getDriverId(), position.getLatitude(), position.getLongitude(),
+                        position.getStatus(), timestamp, staleAfterMillis);
+    }
+
+    /**
+     * Change a driver's status without moving it.
+     */
+    public void updateStatus(String companyId, String driverId, String status) {
+        CompanyGrid grid = enabled ? grids.get(companyId) : null;
+        if (grid != null) {
+            grid.updateStatus(driverId, status);
+        }
+    }
+
+    public void remove(String companyId, String driverId) {
+        CompanyGrid grid = enabled ? grids.get(companyId) : null;
+        if (grid != null) {
+            grid.remove(driverId);
+        }
+    }
+
+    /**
+     * Fresh positions of a company's drivers inside the bounding box of the search
+     * circle, optionally restricted to one status. Ranking and the exact radius
+     * test are left to ProximityKernel.
+     */
+    public List<DriverPosition> candidates(String companyId, double latitude, double longitude, double radiusKm,
+            String status) {
+        CompanyGrid grid = enabled ? grids.get(companyId) : null;
+        if (grid == null) {
+            return new ArrayList<>();
+        }
+        return grid.query(companyId, latitude, longitude, radiusKm, status,
+                System.currentTimeMillis() - staleAfterMillis);
+    }
+
+    private static long cellKey(int row, int col) {
+        return ((long) row << 32) | (Math.floorMod(col, LON_CELLS) & 0xffffffffL);
+    }
+
+    private static int row(double latitude) {
+        return (int) Math.floor(latitude / CELL_SIZE_DEG);
+    }
+
+    private static int col(double longitude) {
+        return (int) Math.floor(longitude / CELL_SIZE_DEG);
+    }
+
+    /**
+     * One company's drivers. Slots [0, size) are live and kept dense: removing a
+     * slot moves the last one into its place.
+     */
+    private static final class CompanyGrid {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String, Integer> slotByDriver = new HashMap<>();
+        private final Map<Long, int[]> cells = new HashMap<>();  // cell -> {count, slot...}
+
+        private String[] driverIds = new String[16];
+        private String[] statuses = new String[16];
+        private double[] latitudes = new double[16];
+        private double[] longitudes = new double[16];
+        private long[] updatedAt = new long[16];
+        private long[] cellOf = new long[16];
+        private int size;
+        private long lastEviction;
+
+        void upsert(String driverId, double latitude, double longitude, String status, long timestamp,
+                long staleAfterMillis) {
+            lock.writeLock().lock();
+            try {
+                long cell = cellKey(row(latitude), col(longitude));
+                Integer slot = slotByDriver.get(driverId);
+                if (slot == null) {
+                    ensureCapacity(size + 1);
+                    slot = size++;
+                    slotByDriver.put(driverId, slot);
+                    driverIds[slot] = driverId;
+                    addToCell(cell, slot);
+                } else if (cellOf[slot] != cell) {
+                    removeFromCell(cellOf[slot], slot);
+                    addToCell(cell, slot);
+                }
+                latitudes[slot] = latitude;
+                longitudes[slot] = longitude;
+                statuses[slot] = status;
+                updatedAt[slot] = timestamp;
+                cellOf[slot] = cell;
+
+                if (timestamp - lastEviction > staleAfterMillis) {
+                    evictOlderThan(timestamp - staleAfterMillis);
+                    lastEviction = timestamp;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void updateStatus(String driverId, String status) {
+            lock.writeLock().lock();
+            try {
+                Integer slot = slotByDriver.get(driverId);
+                if (slot != null) {
+                    statuses[slot] = status;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(String driverId) {
+            lock.writeLock().lock();
+            try {
+                Integer slot = slotByDriver.get(driverId);
+                if (slot != null) {
+                    removeSlot(slot);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<DriverPosition> query(String companyId, double latitude, double longitude, double radiusKm,
+                String status, long freshAfter) {
+            double latDelta = radiusKm / KM_PER_DEGREE;
+            double cosLat = Math.cos(Math.toRadians(latitude));
+            boolean filterLongitude = Math.abs(latitude) + latDelta < 90.0 && cosLat > 0;
+            double lonDelta = filterLongitude ? latDelta / cosLat : 180.0;
+
+            int firstRow = row(latitude - latDelta);
+            int lastRow = row(latitude + latDelta);
+            int firstCol = col(longitude - lonDelta);
+            int lastCol = col(longitude + lonDelta);
+            long visited = (long) (lastRow - firstRow + 1) * Math.min(lastCol - firstCol + 1, LON_CELLS);
+
+            List<DriverPosition> results = new ArrayList<>();
+            lock.readLock().lock();
+            try {
+                if (visited > MAX_VISITED_CELLS || visited > cells.size()) {
+                    for (int slot = 0; slot < size; slot++) {
+                        collect(slot, companyId, latitude, longitude, latDelta, lonDelta, filterLongitude,
+                                status, freshAfter, results);
+                    }
+                } else {
+                    for (int r = firstRow; r <= lastRow; r++) {
+                        for (int c = firstCol; c <= lastCol && c - firstCol < LON_CELLS; c++) {
+                            int[] bag = cells.get(cellKey(r, c));
+                            if (bag == null) {
+                                continue;
+                            }
+                            for (int i = 1; i <= bag[0]; i++) {
+                                collect(bag[i], companyId, latitude, longitude, latDelta, lonDelta,
+                                        filterLongitude, status, freshAfter, results);
+                            }
+                        }
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            return results;
+        }
+
+        private void collect(int slot, String companyId, double latitude, double longitude, double latDelta,
+                double lonDelta, boolean filterLongitude, String status, long freshAfter,
+                List<DriverPosition> results) {
+            if (updatedAt[slot] < freshAfter || (status != null && !status.equals(statuses[slot]))) {
+                return;
+            }
+            double dLat = latitudes[slot] - latitude;
+            if (dLat > latDelta || dLat < -latDelta) {
+                return;
+            }
+            double dLon = Math.abs(longitudes[slot] - longitude);
+            if (filterLongitude && Math.min(dLon, 360.0 - dLon) > lonDelta) {
+                return;
+            }
+
+            DriverPosition position = new DriverPosition();
+            position.setCompanyId(companyId);
+            position.setDriverId(driverIds[slot]);
+            position.setLatitude(latitudes[slot]);
+            position.setLongitude(longitudes[slot]);
+            position.setStatus(statuses[slot]);
+            position.setTimestamp(Instant.ofEpochMilli(updatedAt[slot]));
+            results.add(position);
+        }
+
+        private void evictOlderThan(long cutoff) {
+            for (int slot = size - 1; slot >= 0; slot--) {
+                if (updatedAt[slot] < cutoff) {
+                    removeSlot(slot);
+                }
+            }
+        }
+
+        private void removeSlot(int slot) {
+            removeFromCell(cellOf[slot], slot);
+            slotByDriver.remove(driverIds[slot]);
+            int last = --size;
+            if (slot != last) {
+                replaceInCell(cellOf[last], last, slot);
+                driverIds[slot] = driverIds[last];
+                statuses[slot] = statuses[last];
+                latitudes[slot] = latitudes[last];
+                longitudes[slot] = longitudes[last];
+                updatedAt[slot] = updatedAt[last];
+                cellOf[slot] = cellOf[last];
+                slotByDriver.put(driverIds[slot], slot);
+            }
+            driverIds[last] = null;
+            statuses[last] = null;
+        }
+
+        private void addToCell(long cell, int slot) {
+            int[] bag = cells.get(cell);
+            if (bag == null) {
+                bag = new int[4];
+            } else if (bag[0] + 1 == bag.length) {
+                bag = Arrays.copyOf(bag, bag.length * 2);
+            }
+            bag[++bag[0]] = slot;
+            cells.put(cell, bag);
+        }
+
+        private void removeFromCell(long cell, int slot) {
+            int[] bag = cells.get(cell);
+            if (bag == null) {
+                return;
+            }
+            for (int i = 1; i <= bag[0]; i++) {
+                if (bag[i] == slot) {
+                    bag[i] = bag[bag[0]--];
+                    break;
+                }
+            }
+            if (bag[0] == 0) {
+                cells.remove(cell);
+            }
+        }
+
+        private void replaceInCell(long cell, int oldSlot, int newSlot) {
+            int[] bag = cells.get(cell);
+            for (int i = 1; i <= bag[0]; i++) {
+                if (bag[i] == oldSlot) {
+                    bag[i] = newSlot;
+                    return;
+                }
+            }
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= driverIds.length) {
+                return;
+            }
+            int newLength = Math.max(capacity, driverIds.length * 2);
+            driverIds = Arrays.copyOf(driverIds, newLength);
+            statuses = Arrays.copyOf(statuses, newLength);
+            latitudes = Arrays.copyOf(latitudes, newLength);
+            longitudes = Arrays.copyOf(longitudes, newLength);
+            updatedAt = Arrays.copyOf(updatedAt, newLength);
+            cellOf = Arrays.copyOf(cellOf, newLength);
+        }
+    }
+}
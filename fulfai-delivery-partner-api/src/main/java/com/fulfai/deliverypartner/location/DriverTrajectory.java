@@ -0,0 +1,69 @@
+package com.fulfai.deliverypartner.location;
+
+import java.time.Instant;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import lombok.Data;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+/**
+ * A driver's route for one UTC day, simplified with Douglas-Peucker and kept
+ * after the raw points expire.
+ * PK: driverId, SK: day (yyyy-MM-dd)
+ *
+ * Points are stored as a single LocationChunkCodec segment.
+ */
+@Data
+@DynamoDbBean
+@RegisterForReflection
+public class DriverTrajectory {
+
+    private String driverId;
+    private String day;
+    private SdkBytes points;
+    private Integer pointCount;
+    private Integer rawPointCount;
+    private Double toleranceMeters;
+    private Instant compactedAt;
+
+    @DynamoDbPartitionKey
+    @DynamoDbAttribute("driverId")
+    public String getDriverId() {
+        return driverId;
+    }
+
+    @DynamoDbSortKey
+    @DynamoDbAttribute("day")
+    public String getDay() {
+        return day;
+    }
+
+    @DynamoDbAttribute("points")
+    public SdkBytes getPoints() {
+        return points;
+    }
+
+    @DynamoDbAttribute("pointCount")
+    public Integer getPointCount() {
+        return pointCount;
+    }
+
+    @DynamoDbAttribute("rawPointCount")
+    public Integer getRawPointCount() {
+        return rawPointCount;
+    }
+
+    @DynamoDbAttribute("toleranceMeters")
+    public Double getToleranceMeters() {
+        return toleranceMeters;
+    }
+
+    @DynamoDbAttribute("compactedAt")
+    public Instant getCompactedAt() {
+        return compactedAt;
+    }
+}
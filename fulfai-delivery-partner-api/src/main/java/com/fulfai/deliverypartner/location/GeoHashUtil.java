@@ -1,13 +1,23 @@
 package com.fulfai.deliverypartner.location;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 
 /**
  * Utility class for geohash encoding/decoding.
  * Geohash divides the world into a grid of cells, each identified by a string.
  * Longer strings = smaller cells = more precision.
  *
+ * Internally a geohash of precision p is a long holding 5*p interleaved bits
+ * (longitude first, most significant bit first). Encoding, decoding and
+ * neighbour lookups work on those bits without allocating; base32 strings are
+ * only produced or parsed at the edges (toBase32 / fromBase32).
+ *
  * Precision levels:
  * - 4 chars: ~39km x 19.5km
  * - 5 chars: ~4.9km x 4.9km
@@ -17,8 +27,31 @@ import java.util.List;
  */
 public class GeoHashUtil {
 
-    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final int[] BASE32_INDEX = new int[128];
     private static final int DEFAULT_PRECISION = 6;  // ~1.2km precision
+    private static final double EARTH_RADIUS_KM = 6371;
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+    private static final int DEFAULT_MAX_COVER_CELLS = 24;
+
+    /** Longest geohash that fits in a long (60 bits). */
+    public static final int MAX_PRECISION = 12;
+
+    /** Coarsest geohash precision a covering may return (~39km cells). */
+    public static final int MIN_COVER_PRECISION = 4;
+
+    /** Finest geohash precision a covering may return (~153m cells). */
+    public static final int MAX_COVER_PRECISION = 7;
+
+    /** Largest search radius a covering accepts; bounds the cells queried per search. */
+    public static final double MAX_COVER_RADIUS_KM = 50.0;
+
+    static {
+        Arrays.fill(BASE32_INDEX, -1);
+        for (int i = 0; i < BASE32.length; i++) {
+            BASE32_INDEX[BASE32[i]] = i;
+        }
+    }
 
     /**
      * Encode latitude/longitude to geohash with default precision (6 chars).
@@ -31,44 +64,126 @@ public class GeoHashUtil {
      * Encode latitude/longitude to geohash with specified precision.
      */
     public static String encode(double latitude, double longitude, int precision) {
-        double[] latRange = {-90.0, 90.0};
-        double[] lonRange = {-180.0, 180.0};
+        return toBase32(encodeBits(latitude, longitude, precision), precision);
+    }
 
-        StringBuilder geohash = new StringBuilder();
-        boolean isEven = true;
-        int bit = 0;
-        int ch = 0;
+    /**
+     * Encode latitude/longitude to a geohash of the given precision as 5*precision
+     * interleaved bits. Uses the same bisection as the string form, so
+     * toBase32(encodeBits(...)) is identical to the historical encode output.
+     */
+    public static long encodeBits(double latitude, double longitude, int precision) {
+        checkPrecision(precision);
+        double latMin = -90.0;
+        double latMax = 90.0;
+        double lonMin = -180.0;
+        double lonMax = 180.0;
+        long bits = 0;
 
-        while (geohash.length() < precision) {
-            if (isEven) {
-                double mid = (lonRange[0] + lonRange[1]) / 2;
+        for (int i = 0, total = 5 * precision; i < total; i++) {
+            bits <<= 1;
+            if ((i & 1) == 0) {
+                double mid = (lonMin + lonMax) / 2;
                 if (longitude >= mid) {
-                    ch |= (1 << (4 - bit));
-                    lonRange[0] = mid;
+                    bits |= 1;
+                    lonMin = mid;
                 } else {
-                    lonRange[1] = mid;
+                    lonMax = mid;
                 }
             } else {
-                double mid = (latRange[0] + latRange[1]) / 2;
+                double mid = (latMin + latMax) / 2;
                 if (latitude >= mid) {
-                    ch |= (1 << (4 - bit));
-                    latRange[0] = mid;
+                    bits |= 1;
+                    latMin = mid;
                 } else {
-                    latRange[1] = mid;
+                    latMax = mid;
                 }
             }
+        }
 
-            isEven = !isEven;
-            if (bit < 4) {
-                bit++;
-            } else {
-                geohash.append(BASE32.charAt(ch));
-                bit = 0;
-                ch = 0;
+        return bits;
+    }
+
+    /**
+     * Convert geohash bits to their base32 string.
+     */
+    public static String toBase32(long bits, int precision) {
+        checkPrecision(precision);
+        char[] chars = new char[precision];
+        for (int i = precision - 1; i >= 0; i--) {
+            chars[i] = BASE32[(int) (bits & 31)];
+            bits >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Parse a base32 geohash string into its bits (precision = string length).
+     */
+    public static long fromBase32(String geohash) {
+        checkPrecision(geohash.length());
+        long bits = 0;
+        for (int i = 0; i < geohash.length(); i++) {
+            char c = geohash.charAt(i);
+            int value = c < 128 ? BASE32_INDEX[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid geohash character '" + c + "' in: " + geohash);
             }
+            bits = (bits << 5) | value;
         }
+        return bits;
+    }
+
+    /**
+     * Decode a geohash to its cell bounds: {minLat, minLon, maxLat, maxLon}.
+     */
+    public static double[] decodeBounds(String geohash) {
+        return decodeBounds(fromBase32(geohash), geohash.length());
+    }
+
+    /**
+     * Decode geohash bits to their cell bounds: {minLat, minLon, maxLat, maxLon}.
+     */
+    public static double[] decodeBounds(long bits, int precision) {
+        checkPrecision(precision);
+        int latBits = latBits(precision);
+        int lonBits = lonBits(precision);
+        long latIndex = latIndex(bits, precision);
+        long lonIndex = lonIndex(bits, precision);
+        double height = 180.0 / (1L << latBits);
+        double width = 360.0 / (1L << lonBits);
+        return new double[] {
+                latIndex * height - 90.0,
+                lonIndex * width - 180.0,
+                (latIndex + 1) * height - 90.0,
+                (lonIndex + 1) * width - 180.0};
+    }
+
+    /**
+     * Decode geohash bits to the latitude of their cell centre.
+     */
+    public static double decodeLatitude(long bits, int precision) {
+        return (latIndex(bits, precision) + 0.5) * (180.0 / (1L << latBits(precision))) - 90.0;
+    }
 
-        return geohash.toString();
+    /**
+     * Decode geohash bits to the longitude of their cell centre.
+     */
+    public static double decodeLongitude(long bits, int precision) {
+        return (lonIndex(bits, precision) + 0.5) * (360.0 / (1L << lonBits(precision))) - 180.0;
+    }
+
+    /**
+     * Get the cell offset by (latSteps, lonSteps) cells from the given one, computed
+     * on the de-interleaved row/column indices. Both axes wrap around.
+     */
+    public static long adjacent(long bits, int precision, int latSteps, int lonSteps) {
+        checkPrecision(precision);
+        long latMask = (1L << latBits(precision)) - 1;
+        long lonMask = (1L << lonBits(precision)) - 1;
+        long latIndex = (latIndex(bits, precision) + latSteps) & latMask;
+        long lonIndex = (lonIndex(bits, precision) + lonSteps) & lonMask;
+        return interleave(latIndex, lonIndex, precision);
     }
 
     /**
@@ -76,59 +191,191 @@ public class GeoHashUtil {
      * Useful for searching nearby drivers.
      */
     public static List<String> getNeighbors(String geohash) {
-        List<String> neighbors = new ArrayList<>();
-        neighbors.add(geohash);  // Center
+        int precision = geohash.length();
+        long bits = fromBase32(geohash);
 
-        // Get 8 surrounding cells
-        neighbors.add(getAdjacent(geohash, "n"));   // North
-        neighbors.add(getAdjacent(geohash, "s"));   // South
-        neighbors.add(getAdjacent(geohash, "e"));   // East
-        neighbors.add(getAdjacent(geohash, "w"));   // West
-        neighbors.add(getAdjacent(getAdjacent(geohash, "n"), "e"));  // NE
-        neighbors.add(getAdjacent(getAdjacent(geohash, "n"), "w"));  // NW
-        neighbors.add(getAdjacent(getAdjacent(geohash, "s"), "e"));  // SE
-        neighbors.add(getAdjacent(getAdjacent(geohash, "s"), "w"));  // SW
+        List<String> neighbors = new ArrayList<>(9);
+        neighbors.add(geohash);  // Center
+        neighbors.add(toBase32(adjacent(bits, precision, 1, 0), precision));    // North
+        neighbors.add(toBase32(adjacent(bits, precision, -1, 0), precision));   // South
+        neighbors.add(toBase32(adjacent(bits, precision, 0, 1), precision));    // East
+        neighbors.add(toBase32(adjacent(bits, precision, 0, -1), precision));   // West
+        neighbors.add(toBase32(adjacent(bits, precision, 1, 1), precision));    // NE
+        neighbors.add(toBase32(adjacent(bits, precision, 1, -1), precision));   // NW
+        neighbors.add(toBase32(adjacent(bits, precision, -1, 1), precision));   // SE
+        neighbors.add(toBase32(adjacent(bits, precision, -1, -1), precision));  // SW
 
         return neighbors;
     }
 
     /**
-     * Get adjacent geohash in specified direction.
+     * Cover a search circle with geohash cells, using at most the default cell budget.
+     */
+    public static List<String> cover(double latitude, double longitude, double radiusKm) {
+        return cover(latitude, longitude, radiusKm, DEFAULT_MAX_COVER_CELLS);
+    }
+
+    /**
+     * Cover a search circle with the minimal set of geohash cells.
+     *
+     * Picks the finest precision (between MIN_COVER_PRECISION and MAX_COVER_PRECISION)
+     * whose cells spanning the circle's bounding box fit in maxCells, drops cells that
+     * do not intersect the circle, then replaces every complete set of 32 siblings by
+     * their parent. The result may therefore mix precisions; each cell is meant to be
+     * one indexed query. Radii too large for maxCells at MIN_COVER_PRECISION return
+     * more cells rather than a coarser (unindexed) precision, so radiusKm must be
+     * positive and at most MAX_COVER_RADIUS_KM.
      */
-    private static String getAdjacent(String geohash, String direction) {
-        if (geohash == null || geohash.isEmpty()) {
-            return "";
+    public static List<String> cover(double latitude, double longitude, double radiusKm, int maxCells) {
+        if (!(radiusKm > 0) || radiusKm > MAX_COVER_RADIUS_KM) {
+            throw new IllegalArgumentException("Cover radius must be greater than 0 and at most "
+                    + MAX_COVER_RADIUS_KM + " km: " + radiusKm);
+        }
+        double latDelta = radiusKm / KM_PER_DEGREE_LAT;
+        double cosLat = Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        double lonDelta = Math.min(radiusKm / (KM_PER_DEGREE_LAT * cosLat), 180.0);
+
+        double minLat = Math.max(latitude - latDelta, -90.0);
+        double maxLat = Math.min(latitude + latDelta, 90.0);
+        double minLon = longitude - lonDelta;
+        double maxLon = longitude + lonDelta;
+
+        int precision = MIN_COVER_PRECISION;
+        for (int p = MAX_COVER_PRECISION; p >= MIN_COVER_PRECISION; p--) {
+            if (countSpan(minLat, maxLat, cellHeight(p)) * countSpan(minLon, maxLon, cellWidth(p)) <= maxCells) {
+                precision = p;
+                break;
+            }
+        }
+
+        double height = cellHeight(precision);
+        double width = cellWidth(precision);
+        long latMask = (1L << latBits(precision)) - 1;
+        long lonMask = (1L << lonBits(precision)) - 1;
+        long firstRow = (long) Math.floor((minLat + 90.0) / height);
+        long firstCol = (long) Math.floor((minLon + 180.0) / width);
+        int rows = countSpan(minLat, maxLat, height);
+        int cols = countSpan(minLon, maxLon, width);
+
+        TreeSet<String> cells = new TreeSet<>();
+        for (int r = 0; r < rows; r++) {
+            long row = Math.min(firstRow + r, latMask);
+            double cellMinLat = row * height - 90.0;
+            for (int c = 0; c < cols; c++) {
+                long col = Math.floorMod(firstCol + c, lonMask + 1);
+                double cellMinLon = col * width - 180.0;
+                if (distanceToCell(latitude, longitude, cellMinLat, cellMinLon,
+                        cellMinLat + height, cellMinLon + width) <= radiusKm) {
+                    cells.add(toBase32(interleave(row, col, precision), precision));
+                }
+            }
         }
 
-        String[][] neighbors = {
-            {"p0r21436x8zb9dcf5h7kjnmqesgutwvy", "bc01fg45teletionstuvwxyz2367kmqr"},  // n, s
-            {"bc01fg45238967deuvhjyznpkmstqrwx", "p0r21436x8zb9dcf5h7kjnmqesgutwvy"}   // e, w
-        };
+        return mergeCompleteSiblings(cells);
+    }
+
+    /**
+     * Replace every complete set of 32 sibling cells by their parent, repeatedly,
+     * without going coarser than MIN_COVER_PRECISION.
+     */
+    private static List<String> mergeCompleteSiblings(TreeSet<String> cells) {
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            Map<String, Integer> siblingCounts = new HashMap<>();
+            for (String cell : cells) {
+                if (cell.length() > MIN_COVER_PRECISION) {
+                    siblingCounts.merge(cell.substring(0, cell.length() - 1), 1, Integer::sum);
+                }
+            }
+            for (Map.Entry<String, Integer> entry : siblingCounts.entrySet()) {
+                if (entry.getValue() == BASE32.length) {
+                    String parent = entry.getKey();
+                    cells.removeIf(cell -> cell.length() == parent.length() + 1 && cell.startsWith(parent));
+                    cells.add(parent);
+                    merged = true;
+                }
+            }
+        }
+        return Collections.unmodifiableList(new ArrayList<>(cells));
+    }
 
-        String[][] borders = {
-            {"prxz", "bcfguvyz"},  // n, s
-            {"bcfguvyz", "prxz"}   // e, w
-        };
+    /**
+     * Shortest distance in km from a point to a cell's bounds (0 if inside).
+     */
+    private static double distanceToCell(double latitude, double longitude,
+            double minLat, double minLon, double maxLat, double maxLon) {
+        double nearestLat = Math.max(minLat, Math.min(latitude, maxLat));
+        if (longitude >= minLon && longitude <= maxLon) {
+            return calculateDistance(latitude, longitude, nearestLat, longitude);
+        }
+        return Math.min(calculateDistance(latitude, longitude, nearestLat, minLon),
+                calculateDistance(latitude, longitude, nearestLat, maxLon));
+    }
 
-        int dirIndex = direction.equals("n") || direction.equals("s") ? 0 : 1;
-        int typeIndex = direction.equals("n") || direction.equals("e") ? 0 : 1;
+    private static long interleave(long latIndex, long lonIndex, int precision) {
+        long bits = 0;
+        int latShift = latBits(precision) - 1;
+        int lonShift = lonBits(precision) - 1;
+        for (int i = 0, total = 5 * precision; i < total; i++) {
+            bits <<= 1;
+            if ((i & 1) == 0) {
+                bits |= (lonIndex >>> lonShift--) & 1;
+            } else {
+                bits |= (latIndex >>> latShift--) & 1;
+            }
+        }
+        return bits;
+    }
 
-        char lastChar = geohash.charAt(geohash.length() - 1);
-        String parent = geohash.substring(0, geohash.length() - 1);
+    private static long latIndex(long bits, int precision) {
+        long index = 0;
+        for (int i = 1, total = 5 * precision; i < total; i += 2) {
+            index = (index << 1) | ((bits >>> (total - 1 - i)) & 1);
+        }
+        return index;
+    }
 
-        if (borders[dirIndex][typeIndex].indexOf(lastChar) != -1 && !parent.isEmpty()) {
-            parent = getAdjacent(parent, direction);
+    private static long lonIndex(long bits, int precision) {
+        long index = 0;
+        for (int i = 0, total = 5 * precision; i < total; i += 2) {
+            index = (index << 1) | ((bits >>> (total - 1 - i)) & 1);
         }
+        return index;
+    }
 
-        int charIndex = neighbors[dirIndex][typeIndex].indexOf(lastChar);
-        return parent + BASE32.charAt(charIndex);
+    private static int latBits(int precision) {
+        return 5 * precision / 2;
+    }
+
+    private static int lonBits(int precision) {
+        return (5 * precision + 1) / 2;
+    }
+
+    private static int countSpan(double min, double max, double cellSize) {
+        return (int) (Math.floor(max / cellSize) - Math.floor(min / cellSize)) + 1;
+    }
+
+    private static double cellHeight(int precision) {
+        return 180.0 / (1L << latBits(precision));
+    }
+
+    private static double cellWidth(int precision) {
+        return 360.0 / (1L << lonBits(precision));
+    }
+
+    private static void checkPrecision(int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Geohash precision must be between 1 and " + MAX_PRECISION
+                    + ": " + precision);
+        }
     }
 
     /**
      * Calculate distance between two points in kilometers using Haversine formula.
      */
     public static double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final double R = 6371;  // Earth's radius in km
+        final double R = EARTH_RADIUS_KM;
 
         double latDistance = Math.toRadians(lat2 - lat1);
         double lonDistance = Math.toRadians(lon2 - lon1);
@@ -0,0 +1,17 @@
+package com.fulfai.deliverypartner.location;
+
+public enum HistoryResolution {
+    RAW,         // Every recorded point, paged newest first
+    SIMPLIFIED;  // One day's Douglas-Peucker simplified route
+
+    public static HistoryResolution fromString(String resolution) {
+        if (resolution == null) {
+            return null;
+        }
+        try {
+            return HistoryResolution.valueOf(resolution.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.fulfai.deliverypartner.location;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class LocationBatchDTO {
+
+    @NotEmpty(message = "Points are required")
+    @Size(max = 500, message = "At most 500 points per batch")
+    private List<@Valid LocationPointDTO> points;
+}
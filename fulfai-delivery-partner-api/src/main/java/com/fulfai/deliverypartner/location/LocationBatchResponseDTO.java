@@ -0,0 +1,20 @@
+package com.fulfai.deliverypartner.location;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Outcome of a batch upload. Points at or below the driver's last applied sequence
+ * are counted as duplicates and not stored again, so a retried upload is harmless.
+ * Points dropped because the driver was standing still are counted as stationary.
+ */
+@Data
+@AllArgsConstructor
+public class LocationBatchResponseDTO {
+
+    private int accepted;
+    private int duplicates;
+    private int stationary;
+    private int failed;
+    private Long lastSequence;
+}
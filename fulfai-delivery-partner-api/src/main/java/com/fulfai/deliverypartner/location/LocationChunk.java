@@ -0,0 +1,77 @@
+package com.fulfai.deliverypartner.location;
+
+import java.time.Instant;
+import java.util.List;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import lombok.Data;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+/**
+ * Part of a driver's location history for one fixed time window, packed into
+ * binary segments (see LocationChunkCodec) instead of one item per ping.
+ * PK: driverId, SK: windowStart plus the part number in milliseconds, stored with
+ * a fixed millisecond fraction (e.g. 2026-01-01T14:00:00.001Z) so parts sort in order
+ *
+ * Each history flush appends one segment with list_append, so writing never reads
+ * the chunk back. An UpdateItem is billed on the larger of the item's size before
+ * and after the write, so appending to an ever-growing chunk would cost more WCU
+ * with every flush. Once a chunk holds the configured segment bytes (~1KB item)
+ * the window rolls over to the next part, keeping each append at about 1 WCU in
+ * exchange for a few more items to read per window. Segments and parts of one
+ * window may overlap in time and are merged when read.
+ */
+@Data
+@DynamoDbBean
+@RegisterForReflection
+public class LocationChunk {
+
+    private String driverId;
+    private Instant windowStart;
+    private List<SdkBytes> segments;
+    private Integer pointCount;
+    private Integer byteCount;      // Total encoded segment bytes, bounds the chunk size
+    private Instant updatedAt;
+    private Long expiresAt;         // TTL, epoch seconds
+
+    @DynamoDbPartitionKey
+    @DynamoDbAttribute("driverId")
+    public String getDriverId() {
+        return driverId;
+    }
+
+    @DynamoDbSortKey
+    @DynamoDbAttribute("windowStart")
+    public Instant getWindowStart() {
+        return windowStart;
+    }
+
+    @DynamoDbAttribute("segments")
+    public List<SdkBytes> getSegments() {
+        return segments;
+    }
+
+    @DynamoDbAttribute("pointCount")
+    public Integer getPointCount() {
+        return pointCount;
+    }
+
+    @DynamoDbAttribute("byteCount")
+    public Integer getByteCount() {
+        return byteCount;
+    }
+
+    @DynamoDbAttribute("updatedAt")
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @DynamoDbAttribute("expiresAt")
+    public Long getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,148 @@
+package com.fulfai.deliverypartner.location;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fulfai.deliverypartner.driver.DriverStatus;
+
+/**
+ * Binary encoding of a run of location points for LocationChunk segments.
+ *
+ * Layout: varint point count, then per point (in timestamp order)
+ * - timestamp: zigzag varint delta in milliseconds from the previous point
+ * - latitude, longitude: zigzag varint deltas in micro-degrees (~0.1m)
+ * - accuracy, speed, heading: varint of round(value * 10) + 1, 0 for null
+ * - status: varint status code (1 AVAILABLE, 2 BUSY, 3 OFFLINE), 0 for null or unknown;
+ *   codes are part of the stored format, so never renumber or reuse them
+ * The first point's deltas are relative to zero. A typical moving-vehicle point
+ * takes 8-12 bytes instead of a ~200 byte item.
+ */
+public class LocationChunkCodec {
+
+    private static final double COORDINATE_SCALE = 1_000_000.0;
+    private static final double ATTRIBUTE_SCALE = 10.0;
+
+    private LocationChunkCodec() {
+    }
+
+    /**
+     * Encode points, which must already be sorted by timestamp.
+     */
+    public static byte[] encode(List<DriverLocation> points) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(points.size() * 12 + 5);
+        writeVarint(out, points.size());
+
+        long previousTime = 0;
+        long previousLat = 0;
+        long previousLon = 0;
+        for (DriverLocation point : points) {
+            long time = point.getTimestamp().toEpochMilli();
+            long lat = Math.round(point.getLatitude() * COORDINATE_SCALE);
+            long lon = Math.round(point.getLongitude() * COORDINATE_SCALE);
+            writeVarint(out, zigzag(time - previousTime));
+            writeVarint(out, zigzag(lat - previousLat));
+            writeVarint(out, zigzag(lon - previousLon));
+            writeOptional(out, point.getAccuracy());
+            writeOptional(out, point.getSpeed());
+            writeOptional(out, point.getHeading());
+            writeVarint(out, statusCode(DriverStatus.fromString(point.getStatus())));
+            previousTime = time;
+            previousLat = lat;
+            previousLon = lon;
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode a segment back into history points for the given driver.
+     */
+    public static List<DriverLocation> decode(String driverId, byte[] data) {
+        int[] position = {0};
+        int count = (int) readVarint(data, position);
+        List<DriverLocation> points = new ArrayList<>(count);
+
+        long time = 0;
+        long lat = 0;
+        long lon = 0;
+        for (int i = 0; i < count; i++) {
+            time += unzigzag(readVarint(data, position));
+            lat += unzigzag(readVarint(data, position));
+            lon += unzigzag(readVarint(data, position));
+
+            DriverLocation point = new DriverLocation();
+            point.setDriverId(driverId);
+            point.setTimestamp(Instant.ofEpochMilli(time));
+            point.setLatitude(lat / COORDINATE_SCALE);
+            point.setLongitude(lon / COORDINATE_SCALE);
+            point.setGeohash(GeoHashUtil.encode(point.getLatitude(), point.getLongitude()));
+            point.setAccuracy(readOptional(data, position));
+            point.setSpeed(readOptional(data, position));
+            point.setHeading(readOptional(data, position));
+            DriverStatus status = statusForCode((int) readVarint(data, position));
+            point.setStatus(status != null ? status.name() : null);
+            points.add(point);
+        }
+
+        return points;
+    }
+
+    private static int statusCode(DriverStatus status) {
+        if (status == null) {
+            return 0;
+        }
+        return switch (status) {
+            case AVAILABLE -> 1;
+            case BUSY -> 2;
+            case OFFLINE -> 3;
+        };
+    }
+
+    private static DriverStatus statusForCode(int code) {
+        return switch (code) {
+            case 1 -> DriverStatus.AVAILABLE;
+            case 2 -> DriverStatus.BUSY;
+            case 3 -> DriverStatus.OFFLINE;
+            default -> null;
+        };
+    }
+
+    private static void writeOptional(ByteArrayOutputStream out, Double value) {
+        writeVarint(out, value == null ? 0 : Math.max(Math.round(value * ATTRIBUTE_SCALE), 0) + 1);
+    }
+
+    private static Double readOptional(byte[] data, int[] position) {
+        long raw = readVarint(data, position);
+        return raw == 0 ? null : (raw - 1) / ATTRIBUTE_SCALE;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] data, int[] position) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = data[position[0]++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in location chunk");
+    }
+}
@@ -0,0 +1,137 @@
+package com.fulfai.deliverypartner.location;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fulfai.common.dynamodb.ClientFactory;
+import com.fulfai.common.dynamodb.DynamoDBUtils;
+import com.fulfai.deliverypartner.Schemas;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.core.pagination.sync.SdkIterable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+
+@ApplicationScoped
+public class LocationChunkRepository {
+
+    private static final String APPEND_SEGMENT = "SET #segments = list_append(if_not_exists(#segments, :empty), :segment), "
+            + "#updatedAt = :now ADD #pointCount :count, #byteCount :bytes";
+    private static final String APPEND_SEGMENT_WITH_TTL = "SET #segments = list_append(if_not_exists(#segments, :empty), :segment), "
+            + "#updatedAt = :now, #expiresAt = :expiresAt ADD #pointCount :count, #byteCount :bytes";
+    private static final String HAS_ROOM = "attribute_not_exists(#byteCount) OR #byteCount < :maxBytes";
+    // Sort keys carry a fixed three-digit fraction. Instant.toString drops the fraction
+    // on whole seconds, so a window's first part "10:00:00Z" would sort after its
+    // overflow parts "10:00:00.001Z"; "10:00:00.000Z" sorts before them.
+    private static final DateTimeFormatter SORT_KEY = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSS'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbTable<LocationChunk> chunkTable;
+    private final String tableName;
+
+    @Inject
+    public LocationChunkRepository(ClientFactory clientFactory,
+            @ConfigProperty(name = "delivery.location-chunk.table.name") String tableName) {
+        this.dynamoDbClient = clientFactory.getDynamoClient();
+        this.chunkTable = clientFactory.getEnhancedDynamoClient().table(tableName, Schemas.LOCATION_CHUNK_SCHEMA);
+        this.tableName = tableName;
+    }
+
+    /**
+     * Append an encoded segment to a chunk, creating the chunk if needed, unless the
+     * chunk already holds maxBytes of segments. One conditional UpdateItem, no read
+     * of the existing chunk. expiresAt (epoch seconds) is the chunk's TTL; null
+     * leaves the chunk without one.
+     *
+     * @return false if the chunk is full and nothing was written
+     */
+    public boolean append(String driverId, Instant chunkStart, byte[] segment, int pointCount, Long expiresAt,
+            int maxBytes) {
+        Map<String, AttributeValue> key = new HashMap<>();
+        key.put("driverId", AttributeValue.fromS(driverId));
+        key.put("windowStart", AttributeValue.fromS(sortKey(chunkStart)));
+
+        Map<String, String> names = new HashMap<>();
+        names.put("#segments", "segments");
+        names.put("#updatedAt", "updatedAt");
+        names.put("#pointCount", "pointCount");
+        names.put("#byteCount", "byteCount");
+
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":empty", AttributeValue.fromL(Collections.emptyList()));
+        values.put(":segment", AttributeValue.fromL(Collections.singletonList(
+                AttributeValue.fromB(SdkBytes.fromByteArray(segment)))));
+        values.put(":now", AttributeValue.fromS(Instant.now().toString()));
+        values.put(":count", AttributeValue.fromN(Integer.toString(pointCount)));
+        values.put(":bytes", AttributeValue.fromN(Integer.toString(segment.length)));
+        if (expiresAt != null) {
+            names.put("#expiresAt", "expiresAt");
+            values.put(":expiresAt", AttributeValue.fromN(Long.toString(expiresAt)));
+        }
+
+        try {
+            DynamoDBUtils.updateItemWithExpression(dynamoDbClient, tableName, key, Expression.builder()
+                    .expression(expiresAt != null ? APPEND_SEGMENT_WITH_TTL : APPEND_SEGMENT)
+                    .expressionNames(names)
+                    .expressionValues(values)
+                    .build(),
+                    Expression.builder()
+                            .expression(HAS_ROOM)
+                            .putExpressionName("#byteCount", "byteCount")
+                            .putExpressionValue(":maxBytes", AttributeValue.fromN(Integer.toString(maxBytes)))
+                            .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * A driver's chunks starting at or before the given instant, newest first (so a
+     * window's parts come last part first). Pages are fetched lazily as the result
+     * is iterated.
+     */
+    public SdkIterable<LocationChunk> getByDriverDescending(String driverId, Instant fromChunk) {
+        return chunkTable.query(QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.sortLessThanOrEqualTo(Key.builder()
+                        .partitionValue(driverId)
+                        .sortValue(sortKey(fromChunk))
+                        .build()))
+                .scanIndexForward(false)
+                .build())
+                .items();
+    }
+
+    /**
+     * A driver's chunks whose start lies between the two bounds (inclusive),
+     * oldest first (so a window's parts come in append order). Pages are fetched
+     * lazily as the result is iterated.
+     */
+    public SdkIterable<LocationChunk> getByDriverBetween(String driverId, Instant fromChunk, Instant toChunk) {
+        return chunkTable.query(QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.sortBetween(
+                        Key.builder().partitionValue(driverId).sortValue(sortKey(fromChunk)).build(),
+                        Key.builder().partitionValue(driverId).sortValue(sortKey(toChunk)).build()))
+                .build())
+                .items();
+    }
+
+    private static String sortKey(Instant chunkStart) {
+        return SORT_KEY.format(chunkStart);
+    }
+}
@@ -0,0 +1,112 @@
+package com.fulfai.deliverypartner.location;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fulfai.common.dynamodb.BatchWriteOutcome;
+
+import io.quarkus.logging.Log;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Coalesces location history writes.
+ * Points are buffered and flushed to the history store in one batch once maxSize
+ * points are pending or the oldest pending point is maxDelay old, whichever comes
+ * first, and on shutdown. A maxSize of 1 (the default) writes every point through
+ * before the request returns.
+ *
+ * Buffering is only safe on long-running containers: on Lambda the background
+ * flush may never run before the environment is frozen or recycled. Even there,
+ * points still buffered when an instance is killed without shutdown are lost.
+ * Current position writes do not go through here.
+ */
+@ApplicationScoped
+public class LocationHistoryBuffer {
+
+    private final LocationHistoryStore historyStore;
+    private final int maxSize;
+    private final long maxDelayMs;
+    private final Map<String, DriverLocation> pending = new LinkedHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    @Inject
+    public LocationHistoryBuffer(LocationHistoryStore historyStore,
+            @ConfigProperty(name = "delivery.location.history.buffer.max-size", defaultValue = "1") int maxSize,
+            @ConfigProperty(name = "delivery.location.history.buffer.max-delay-ms", defaultValue = "1000") long maxDelayMs) {
+        this.historyStore = historyStore;
+        this.maxSize = Math.max(maxSize, 1);
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    @PostConstruct
+    void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "location-history-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        flusher.shutdown();
+        flush();
+    }
+
+    /**
+     * Queue a history point. Triggers a flush on the background thread when the
+     * buffer is full, and schedules one after maxDelay for the first point of a batch.
+     */
+    public void add(DriverLocation location) {
+        if (maxSize == 1) {
+            historyStore.save(location);
+            return;
+        }
+
+        int size;
+        synchronized (pending) {
+            // Same driver and timestamp is the same item; BatchWriteItem rejects duplicate keys
+            pending.put(location.getDriverId() + "#" + location.getTimestamp(), location);
+            size = pending.size();
+        }
+        if (size >= maxSize) {
+            flusher.execute(this::flush);
+        } else if (size == 1) {
+            flusher.schedule(this::flush, maxDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Write everything currently buffered.
+     */
+    public void flush() {
+        List<DriverLocation> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+
+        try {
+            BatchWriteOutcome<DriverLocation> outcome = historyStore.saveAll(batch);
+            if (!outcome.isAllWritten()) {
+                Log.warnf("Dropped %d of %d location history points: %s", outcome.getFailed().size(),
+                        batch.size(), outcome.getFailed().get(0).getReason());
+            }
+        } catch (RuntimeException e) {
+            Log.errorf(e, "Failed to flush %d location history points", batch.size());
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.fulfai.deliverypartner.location;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fulfai.common.concurrent.ScatterGatherResult;
+import com.fulfai.common.dto.PaginatedResponse;
+import com.fulfai.common.dynamodb.BatchWriteOutcome;
+
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.ServiceUnavailableException;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+
+/**
+ * Location history persistence, in one of two layouts selected by
+ * delivery.location.history.storage:
+ * - points (default): one DriverLocation item per ping
+ * - chunks: LocationChunk items per driver per time window, holding
+ *   delta-encoded segments; each flush appends one segment, and a window rolls
+ *   over to a new part once its chunk reaches chunk-max-bytes (see LocationChunk)
+ *
+ * History reads page newest-first in both layouts. In chunk mode timestamps are
+ * kept to the millisecond and the geohash index of the point table is not
+ * maintained.
+ *
+ * Raw history in either layout expires through DynamoDB TTL after
+ * delivery.location.history.raw-retention-days, if set. Retention is off by
+ * default: only enable it once compaction runs daily (TrajectoryCompactionJob or
+ * POST /internal/jobs/trajectory-compaction), or expired days are lost for good.
+ */
+@ApplicationScoped
+public class LocationHistoryStore {
+
+    static final String STORAGE_POINTS = "points";
+    static final String STORAGE_CHUNKS = "chunks";
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    // Newest possible window start; ISO-8601 sort keys only order correctly up to year 9999
+    private static final Instant LATEST_WINDOW = Instant.parse("9999-12-31T00:00:00Z");
+
+    private final LocationRepository locationRepository;
+    private final LocationChunkRepository chunkRepository;
+    private final boolean chunked;
+    private final long windowMillis;
+    private final int maxChunkBytes;
+    private final long retentionSeconds;
+    // Per driver, the start of the chunk last appended to, so a flush skips parts already full
+    private final Map<String, Long> openChunks = new ConcurrentHashMap<>();
+
+    @Inject
+    public LocationHistoryStore(LocationRepository locationRepository, LocationChunkRepository chunkRepository,
+            @ConfigProperty(name = "delivery.location.history.storage", defaultValue = STORAGE_POINTS) String storage,
+            @ConfigProperty(name = "delivery.location.history.chunk-window-minutes", defaultValue = "15") int windowMinutes,
+            @ConfigProperty(name = "delivery.location.history.chunk-max-bytes", defaultValue = "900") int maxChunkBytes,
+            @ConfigProperty(name = "delivery.location.history.raw-retention-days", defaultValue = "0") int retentionDays) {
+        this.locationRepository = locationRepository;
+        this.chunkRepository = chunkRepository;
+        this.chunked = STORAGE_CHUNKS.equalsIgnoreCase(storage);
+        this.windowMillis = Math.max(windowMinutes, 1) * 60_000L;
+        this.maxChunkBytes = Math.max(maxChunkBytes, 1);
+        this.retentionSeconds = Math.max(retentionDays, 0) * 86_400L;
+    }
+
+    public boolean isChunked() {
+        return chunked;
+    }
+
+    public void save(DriverLocation location) {
+        if (!chunked) {
+            location.setExpiresAt(expiresAt(location.getTimestamp().toEpochMilli()));
+            locationRepository.save(location);
+            return;
+        }
+        BatchWriteOutcome<DriverLocation> outcome = saveAll(List.of(location));
+        if (!outcome.isAllWritten()) {
+            throw new IllegalStateException(outcome.getFailed().get(0).getReason());
+        }
+    }
+
+    /**
+     * Persist history points. In chunk mode the points are grouped by driver and
+     * window and each group is appended as one segment, so a group is written or
+     * failed as a whole.
+     */
+    public BatchWriteOutcome<DriverLocation> saveAll(List<DriverLocation> locations) {
+        if (!chunked) {
+            locations.forEach(location -> location.setExpiresAt(expiresAt(location.getTimestamp().toEpochMilli())));
+            return locationRepository.saveAll(locations);
+        }
+
+        Map<String, List<DriverLocation>> groups = new LinkedHashMap<>();
+        for (DriverLocation location : locations) {
+            groups.computeIfAbsent(location.getDriverId() + "#" + windowStart(location.getTimestamp()),
+                    key -> new ArrayList<>()).add(location);
+        }
+
+        BatchWriteOutcome<DriverLocation> outcome = new BatchWriteOutcome<>();
+        for (List<DriverLocation> group : groups.values()) {
+            group.sort(Comparator.comparing(DriverLocation::getTimestamp));
+            DriverLocation first = group.get(0);
+            try {
+                appendSegment(first.getDriverId(), windowStart(first.getTimestamp()), LocationChunkCodec.encode(group),
+                        group.size());
+                group.forEach(outcome::addWritten);
+            } catch (DynamoDbException | IllegalStateException e) {
+                Log.warnf("Failed to append %d location points for driver %s: %s", group.size(),
+                        first.getDriverId(), e.getMessage());
+                group.forEach(location -> outcome.addFailed(location, e.getMessage()));
+            }
+        }
+        return outcome;
+    }
+
+    /**
+     * Append a segment to the window's first part with room, starting from the part
+     * this instance last wrote for the driver. A part's sort key is the window start
+     * plus the part number in milliseconds, written with a fixed millisecond fraction
+     * so parts sort in part order within their window.
+     */
+    private void appendSegment(String driverId, long windowStart, byte[] segment, int pointCount) {
+        Long open = openChunks.get(driverId);
+        long chunkStart = open != null && windowStart(open) == windowStart ? open : windowStart;
+        Long expiresAt = expiresAt(windowStart + windowMillis);
+        while (!chunkRepository.append(driverId, Instant.ofEpochMilli(chunkStart), segment, pointCount, expiresAt,
+                maxChunkBytes)) {
+            chunkStart++;
+            if (chunkStart - windowStart >= windowMillis) {
+                throw new IllegalStateException("No room left in location chunk window " + windowStart
+                        + " for driver " + driverId);
+            }
+        }
+        openChunks.put(driverId, chunkStart);
+    }
+
+    /**
+     * A driver's history, newest first.
+     */
+    public PaginatedResponse<DriverLocation> getByDriver(String driverId, String nextToken, Integer limit) {
+        if (!chunked) {
+            return locationRepository.getByDriver(driverId, nextToken, limit);
+        }
+
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        long before = nextToken != null && !nextToken.isEmpty() ? decodeToken(nextToken) : Long.MAX_VALUE;
+        Instant fromChunk = before == Long.MAX_VALUE ? LATEST_WINDOW
+                : Instant.ofEpochMilli(windowStart(before) + windowMillis - 1);
+
+        // Windows do not overlap, so walking windows newest-first yields points newest-first.
+        // Chunks come last part first and later parts hold later appends, so the first copy
+        // of a point wins; a window's parts are merged before any of its points are taken.
+        List<DriverLocation> items = new ArrayList<>(pageSize + 1);
+        Long window = null;
+        NavigableMap<Long, DriverLocation> windowPoints = new TreeMap<>();
+        for (LocationChunk chunk : chunkRepository.getByDriverDescending(driverId, fromChunk)) {
+            long chunkWindow = windowStart(chunk.getWindowStart());
+            if (window != null && chunkWindow != window) {
+                addNewestFirst(windowPoints, before, items, pageSize);
+                if (items.size() > pageSize) {
+                    break;
+                }
+                windowPoints = new TreeMap<>();
+            }
+            window = chunkWindow;
+            decodeChunk(chunk).forEach(windowPoints::putIfAbsent);
+        }
+        if (items.size() <= pageSize) {
+            addNewestFirst(windowPoints, before, items, pageSize);
+        }
+
+        boolean hasMore = items.size() > pageSize;
+        if (hasMore) {
+            items = items.subList(0, pageSize);
+        }
+        return PaginatedResponse.<DriverLocation>builder()
+                .items(items)
+                .nextToken(hasMore ? encodeToken(items.get(items.size() - 1).getTimestamp().toEpochMilli()) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Every raw point of a driver between two instants (inclusive), oldest first,
+     * reading as many pages as needed. Fails rather than returning a range with
+     * gaps, since callers (compaction, route playback) cannot tell a gap from a
+     * driver standing still.
+     */
+    public List<DriverLocation> getRange(String driverId, Instant from, Instant to) {
+        List<DriverLocation> points = new ArrayList<>();
+        if (!chunked) {
+            ScatterGatherResult<Instant, List<DriverLocation>> slices = locationRepository.getByDriverBetween(
+                    driverId, from, to);
+            if (slices.isPartial()) {
+                Log.warnf("Location history range for driver %s incomplete: %d slices timed out, %d failed",
+                        driverId, slices.getTimedOut().size(), slices.getFailed().size());
+                throw new ServiceUnavailableException("Location history could not be read completely, retry later");
+            }
+            for (Instant slice : new TreeSet<>(slices.getResults().keySet())) {
+                for (DriverLocation point : slices.getResults().get(slice)) {
+                    if (!point.getTimestamp().isBefore(from) && !point.getTimestamp().isAfter(to)) {
+                        points.add(point);
+                    }
+                }
+            }
+            points.sort(Comparator.comparing(DriverLocation::getTimestamp));
+            return points;
+        }
+
+        // Chunks come oldest first with a window's parts in part (append) order, so later copies win
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        NavigableMap<Long, DriverLocation> merged = new TreeMap<>();
+        for (LocationChunk chunk : chunkRepository.getByDriverBetween(driverId,
+                Instant.ofEpochMilli(windowStart(fromMillis)),
+                Instant.ofEpochMilli(windowStart(toMillis) + windowMillis - 1))) {
+            merged.putAll(decodeChunk(chunk));
+        }
+        points.addAll(merged.subMap(fromMillis, true, toMillis, true).values());
+        return points;
+    }
+
+    private static void addNewestFirst(NavigableMap<Long, DriverLocation> points, long before,
+            List<DriverLocation> items, int pageSize) {
+        for (DriverLocation point : points.headMap(before, false).descendingMap().values()) {
+            items.add(point);
+            if (items.size() > pageSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * All points of a chunk keyed by epoch millis. Segments are applied in append
+     * order, so a re-sent point replaces the earlier copy as it would in the point table.
+     */
+    private NavigableMap<Long, DriverLocation> decodeChunk(LocationChunk chunk) {
+        NavigableMap<Long, DriverLocation> points = new TreeMap<>();
+        if (chunk.getSegments() == null) {
+            return points;
+        }
+        for (SdkBytes segment : chunk.getSegments()) {
+            for (DriverLocation point : LocationChunkCodec.decode(chunk.getDriverId(), segment.asByteArray())) {
+                points.put(point.getTimestamp().toEpochMilli(), point);
+            }
+        }
+        return points;
+    }
+
+    /**
+     * TTL for raw history recorded at the given time, or null to keep it.
+     */
+    private Long expiresAt(long epochMillis) {
+        return retentionSeconds > 0 ? epochMillis / 1000 + retentionSeconds : null;
+    }
+
+    private long windowStart(Instant timestamp) {
+        return windowStart(timestamp.toEpochMilli());
+    }
+
+    private long windowStart(long epochMillis) {
+        return Math.floorDiv(epochMillis, windowMillis) * windowMillis;
+    }
+
+    private static String encodeToken(long epochMillis) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(ByteBuffer.allocate(Long.BYTES).putLong(epochMillis).array());
+    }
+
+    private static long decodeToken(String token) {
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(token);
+            if (bytes.length != Long.BYTES) {
+                throw new IllegalArgumentException("Unexpected token length");
+            }
+            return ByteBuffer.wrap(bytes).getLong();
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid nextToken");
+        }
+    }
+}
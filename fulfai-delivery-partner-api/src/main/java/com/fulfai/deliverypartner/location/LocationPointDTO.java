@@ -0,0 +1,29 @@
+package com.fulfai.deliverypartner.location;
+
+import java.time.Instant;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * One driver-recorded point in a batch upload.
+ */
+@Data
+public class LocationPointDTO {
+
+    @NotNull(message = "Sequence is required")
+    private Long sequence;          // Driver-assigned, strictly increasing per driver
+
+    @NotNull(message = "Timestamp is required")
+    private Instant timestamp;      // When the point was recorded on the device
+
+    @NotNull(message = "Latitude is required")
+    private Double latitude;
+
+    @NotNull(message = "Longitude is required")
+    private Double longitude;
+
+    private Double accuracy;    // GPS accuracy in meters
+    private Double speed;       // Speed in km/h
+    private Double heading;     // Direction in degrees (0-360)
+}
@@ -0,0 +1,27 @@
+package com.fulfai.deliverypartner.location;
+
+import java.time.Instant;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * Time-range history query. Without maxPoints every point in the range is returned.
+ */
+@Data
+public class LocationRangeQueryDTO {
+
+    @NotNull(message = "From is required")
+    private Instant from;
+
+    @NotNull(message = "To is required")
+    private Instant to;
+
+    @Min(value = 2, message = "maxPoints must be at least 2")
+    @Max(value = 10000, message = "maxPoints must be at most 10000")
+    private Integer maxPoints;
+
+    private String downsample;      // uniform (default) or distance
+}
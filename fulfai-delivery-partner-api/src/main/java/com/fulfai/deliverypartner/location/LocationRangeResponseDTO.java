@@ -0,0 +1,19 @@
+package com.fulfai.deliverypartner.location;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Points of a time range, oldest first. rawPointCount is the number of points
+ * stored in the range before downsampling.
+ */
+@Data
+@AllArgsConstructor
+public class LocationRangeResponseDTO {
+
+    private List<LocationResponseDTO> points;
+    private int rawPointCount;
+    private boolean downsampled;
+}
@@ -1,16 +1,27 @@
 package com.fulfai.deliverypartner.location;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import com.fulfai.common.concurrent.ScatterGather;
+import com.fulfai.common.concurrent.ScatterGatherResult;
 import com.fulfai.common.dto.PaginatedResponse;
+import com.fulfai.common.dynamodb.AsyncClientFactory;
+import com.fulfai.common.dynamodb.AsyncDynamoDBUtils;
+import com.fulfai.common.dynamodb.BatchWriteOutcome;
 import com.fulfai.common.dynamodb.ClientFactory;
 import com.fulfai.common.dynamodb.DynamoDBUtils;
 import com.fulfai.deliverypartner.Schemas;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
@@ -18,39 +29,97 @@ import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 @ApplicationScoped
 public class LocationRepository {
 
+    private static final int RANGE_PAGE_SIZE = 1000;
+
+    private final DynamoDbEnhancedClient enhancedClient;
     private final DynamoDbTable<DriverLocation> locationTable;
     private final DynamoDbIndex<DriverLocation> geohashIndex;
+    private final DynamoDbAsyncTable<DriverLocation> asyncLocationTable;
+    private final Duration rangeSlice;
+    private final int rangeConcurrency;
+    private final Duration rangeDeadline;
 
     @Inject
-    public LocationRepository(ClientFactory clientFactory,
-            @ConfigProperty(name = "delivery.location.table.name") String tableName) {
-        DynamoDbEnhancedClient enhancedClient = clientFactory.getEnhancedDynamoClient();
+    public LocationRepository(ClientFactory clientFactory, AsyncClientFactory asyncClientFactory,
+            @ConfigProperty(name = "delivery.location.table.name") String tableName,
+            @ConfigProperty(name = "delivery.location.history.range.slice-minutes", defaultValue = "60") int sliceMinutes,
+            @ConfigProperty(name = "delivery.location.history.range.concurrency", defaultValue = "8") int rangeConcurrency,
+            @ConfigProperty(name = "delivery.location.history.range.deadline-ms", defaultValue = "5000") long deadlineMs) {
+        this.enhancedClient = clientFactory.getEnhancedDynamoClient();
         this.locationTable = enhancedClient.table(tableName, Schemas.LOCATION_SCHEMA);
         this.geohashIndex = locationTable.index(DriverLocation.GEOHASH_GSI);
+        this.asyncLocationTable = asyncClientFactory.getEnhancedDynamoAsyncClient()
+                .table(tableName, Schemas.LOCATION_SCHEMA);
+        this.rangeSlice = Duration.ofMinutes(Math.max(sliceMinutes, 1));
+        this.rangeConcurrency = rangeConcurrency;
+        this.rangeDeadline = Duration.ofMillis(deadlineMs);
     }
 
     public void save(DriverLocation location) {
         DynamoDBUtils.putItem(locationTable, location);
     }
 
+    /**
+     * Persist many history points with BatchWriteItem.
+     */
+    public BatchWriteOutcome<DriverLocation> saveAll(List<DriverLocation> locations) {
+        return DynamoDBUtils.batchWrite(enhancedClient, locationTable, locations);
+    }
+
     public PaginatedResponse<DriverLocation> getByDriver(String driverId, String nextToken, Integer limit) {
         return DynamoDBUtils.queryByPartitionKeyDescending(locationTable, driverId, nextToken, limit);
     }
 
+    /**
+     * Every point of a driver in [from, to], read as concurrent time slices that
+     * each page until exhausted. Results are keyed by slice start; slices that
+     * fail or miss the deadline are reported rather than silently dropped. Points
+     * are returned in whole-second resolution of the bounds, callers filter exactly.
+     */
+    public ScatterGatherResult<Instant, List<DriverLocation>> getByDriverBetween(String driverId, Instant from,
+            Instant to) {
+        Instant first = from.truncatedTo(ChronoUnit.SECONDS);
+        Instant last = to.truncatedTo(ChronoUnit.SECONDS);
+        List<Instant> slices = new ArrayList<>();
+        for (Instant start = first; !start.isAfter(last); start = start.plus(rangeSlice)) {
+            slices.add(start);
+        }
+        return ScatterGather.execute(slices, start -> {
+            Instant end = start.plus(rangeSlice).minusSeconds(1);
+            return readSlice(driverId, lowerBound(start), upperBound(end.isBefore(last) ? end : last), null,
+                    new ArrayList<>());
+        }, rangeConcurrency, rangeDeadline);
+    }
+
     public PaginatedResponse<DriverLocation> getByGeohash(String geohash, String nextToken, Integer limit) {
         return DynamoDBUtils.queryGsiByPartitionKey(geohashIndex, geohash, nextToken, limit);
     }
 
-    /**
-     * Query multiple geohashes (for proximity search).
-     * Returns combined results from all geohash queries.
-     */
-    public List<DriverLocation> getByGeohashes(List<String> geohashes, Integer limitPerHash) {
-        return geohashes.stream()
-                .flatMap(hash -> {
-                    PaginatedResponse<DriverLocation> response = getByGeohash(hash, null, limitPerHash);
-                    return response.getItems().stream();
-                })
-                .toList();
+    private CompletableFuture<List<DriverLocation>> readSlice(String driverId, String lowerBound, String upperBound,
+            String nextToken, List<DriverLocation> items) {
+        return AsyncDynamoDBUtils.queryByPartitionKeyAndSortKeyBetween(asyncLocationTable, driverId, lowerBound,
+                upperBound, nextToken, RANGE_PAGE_SIZE)
+                .thenCompose(page -> {
+                    items.addAll(page.getItems());
+                    return page.isHasMore() && page.getNextToken() != null
+                            ? readSlice(driverId, lowerBound, upperBound, page.getNextToken(), items)
+                            : CompletableFuture.completedFuture(items);
+                });
+    }
+
+    // Timestamps are stored as ISO-8601 strings that omit the fraction on whole
+    // seconds, so "10:00:00Z" sorts after "10:00:00.5Z". "<second>." is below every
+    // value within that second and "<second>Z" above.
+    private static String lowerBound(Instant second) {
+        return secondPrefix(second) + ".";
+    }
+
+    private static String upperBound(Instant second) {
+        return secondPrefix(second) + "Z";
+    }
+
+    private static String secondPrefix(Instant second) {
+        String iso = second.truncatedTo(ChronoUnit.SECONDS).toString();
+        return iso.substring(0, iso.length() - 1);
     }
 }
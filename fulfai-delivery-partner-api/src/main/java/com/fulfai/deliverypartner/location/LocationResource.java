@@ -1,15 +1,22 @@
 package com.fulfai.deliverypartner.location;
 
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
 import com.fulfai.common.dto.PaginatedResponse;
 import com.fulfai.common.dto.PaginationDTO;
 
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
@@ -31,15 +38,62 @@ public class LocationResource {
         return Response.status(Response.Status.CREATED).entity(location).build();
     }
 
+    @POST
+    @Path("/batch")
+    public Response ingestBatch(@PathParam("companyId") String companyId,
+            @PathParam("driverId") String driverId,
+            @Valid LocationBatchDTO batchDTO) {
+        LocationBatchResponseDTO result = locationService.ingestBatch(companyId, driverId, batchDTO);
+        return Response.ok(result).build();
+    }
+
+    /**
+     * Raw history pages newest first; resolution=simplified returns the
+     * simplified route of one UTC day (date=yyyy-MM-dd, default today) unpaged.
+     */
     @POST
     @Path("/history")
     public Response getLocationHistory(@PathParam("companyId") String companyId,
             @PathParam("driverId") String driverId,
+            @QueryParam("resolution") @DefaultValue("raw") String resolution,
+            @QueryParam("date") String date,
             PaginationDTO request) {
+        HistoryResolution historyResolution = HistoryResolution.fromString(resolution);
+        if (historyResolution == null) {
+            throw new BadRequestException("Invalid resolution: " + resolution);
+        }
+        if (historyResolution == HistoryResolution.SIMPLIFIED) {
+            return Response.ok(locationService.getSimplifiedLocationHistory(driverId, parseDay(date))).build();
+        }
+
         Integer limit = request != null && request.getLimit() != null ? request.getLimit() : DEFAULT_LIMIT;
         String nextToken = request != null ? request.getNextToken() : null;
         PaginatedResponse<LocationResponseDTO> history = locationService.getDriverLocationHistory(driverId, nextToken,
                 limit);
         return Response.ok(history).build();
     }
+
+    /**
+     * Points between two instants (at most 24 hours) in one response, optionally
+     * downsampled to maxPoints.
+     */
+    @POST
+    @Path("/history/range")
+    public Response getLocationHistoryRange(@PathParam("companyId") String companyId,
+            @PathParam("driverId") String driverId,
+            @Valid LocationRangeQueryDTO queryDTO) {
+        LocationRangeResponseDTO range = locationService.getLocationHistoryRange(driverId, queryDTO);
+        return Response.ok(range).build();
+    }
+
+    private static LocalDate parseDay(String date) {
+        if (date == null || date.isBlank()) {
+            return LocalDate.now(ZoneOffset.UTC);
+        }
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid date: " + date);
+        }
+    }
 }
@@ -1,11 +1,18 @@
 package com.fulfai.deliverypartner.location;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Comparator;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
+import com.fulfai.common.concurrent.ScatterGatherResult;
 import com.fulfai.common.dto.PaginatedResponse;
+import com.fulfai.common.dynamodb.BatchWriteOutcome;
 import com.fulfai.deliverypartner.driver.Driver;
 import com.fulfai.deliverypartner.driver.DriverRepository;
 
@@ -13,6 +20,7 @@ import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.NotFoundException;
 
 @ApplicationScoped
@@ -20,9 +28,26 @@ public class LocationService {
 
     private static final double DEFAULT_RADIUS_KM = 5.0;
     private static final int DEFAULT_MAX_RESULTS = 10;
+    private static final int CELL_PAGE_SIZE = 100;
+    private static final Duration MAX_HISTORY_RANGE = Duration.ofDays(1);
 
     @Inject
-    LocationRepository locationRepository;
+    LocationHistoryStore historyStore;
+
+    @Inject
+    DriverPositionRepository positionRepository;
+
+    @Inject
+    DriverSpatialIndex spatialIndex;
+
+    @Inject
+    LocationHistoryBuffer historyBuffer;
+
+    @Inject
+    TrajectoryService trajectoryService;
+
+    @Inject
+    StationaryFilter stationaryFilter;
 
     @Inject
     DriverRepository driverRepository;
@@ -32,42 +57,183 @@ public class LocationService {
 
     /**
      * Record driver location update.
+     * Pings from a driver standing still are dropped before any write, apart from
+     * a periodic heartbeat (see StationaryFilter). Otherwise the driver's last
+     * location is set, the current position is overwritten, and the history point
+     * is buffered for a batched write. Without a sequence, the driver is updated
+     * with one conditional UpdateItem (which also proves it exists and returns its
+     * status) and the position is rewritten without touching its stored sequence.
+     * With a sequence, the driver is read and the sequence is claimed on
+     * the current position before any other write; a replay at or below the
+     * applied sequence then writes nothing, so retries are idempotent.
      */
     public LocationResponseDTO updateLocation(String companyId, String driverId,
             @Valid LocationUpdateDTO locationDTO) {
-        // Verify driver exists
+        Instant now = Instant.now();
+
+        // Encode once at the finest indexed precision; coarser geohashes are its prefixes
+        String positionGeohash = GeoHashUtil.encode(locationDTO.getLatitude(), locationDTO.getLongitude(),
+                GeoHashUtil.MAX_COVER_PRECISION);
+
+        DriverLocation location = toLocation(driverId, now, locationDTO.getLatitude(), locationDTO.getLongitude(),
+                positionGeohash, locationDTO.getAccuracy(), locationDTO.getSpeed(), locationDTO.getHeading(), null);
+        if (stationaryFilter.isStationary(companyId, location)) {
+            location.setStatus(stationaryFilter.lastStatus(driverId));
+            Log.debugf("Suppressed stationary location for driver %s", driverId);
+            return locationMapper.toResponseDTO(location);
+        }
+
+        DriverPosition position;
+        if (locationDTO.getSequence() == null) {
+            // Update driver's last known location (also proves the driver exists and returns its status)
+            Driver driver = driverRepository.updateLastLocation(companyId, driverId,
+                    locationDTO.getLatitude(), locationDTO.getLongitude(), now);
+            if (driver == null) {
+                throw new NotFoundException("Driver not found with id: " + driverId);
+            }
+            location.setStatus(driver.getStatus());
+            position = toPosition(companyId, location, positionGeohash, null);
+            positionRepository.save(position);
+        } else {
+            // Claim the sequence before any other write, so a replayed ping changes nothing
+            Driver driver = driverRepository.getById(companyId, driverId);
+            if (driver == null) {
+                throw new NotFoundException("Driver not found with id: " + driverId);
+            }
+            location.setStatus(driver.getStatus());
+            position = toPosition(companyId, location, positionGeohash, locationDTO.getSequence());
+            if (!positionRepository.saveIfNewer(position)) {
+                Log.debugf("Skipped replayed location for driver %s at sequence %d", driverId,
+                        locationDTO.getSequence());
+                return locationMapper.toResponseDTO(location);
+            }
+            driverRepository.updateLastLocation(companyId, driverId,
+                    locationDTO.getLatitude(), locationDTO.getLongitude(), now);
+        }
+        historyBuffer.add(location);
+        spatialIndex.update(position);
+        stationaryFilter.markPersisted(location);
+
+        Log.debugf("Updated location for driver %s: %s", driverId, location.getGeohash());
+
+        return locationMapper.toResponseDTO(location);
+    }
+
+    /**
+     * Record a batch of driver-recorded points, e.g. replayed after a connectivity gap.
+     * Points are applied in sequence order; those at or below the driver's last applied
+     * sequence are skipped so retries are idempotent. Stationary points are dropped,
+     * the rest of the history is written in one batch, and only the newest point moves
+     * the driver's last position, and only if it is newer than the current one (a live
+     * ping may have landed since the points were recorded). If some history writes fail, the applied sequence
+     * stops below the first failed point so a retry of the same batch fills the gap.
+     */
+    public LocationBatchResponseDTO ingestBatch(String companyId, String driverId, @Valid LocationBatchDTO batchDTO) {
         Driver driver = driverRepository.getById(companyId, driverId);
         if (driver == null) {
             throw new NotFoundException("Driver not found with id: " + driverId);
         }
 
-        Instant now = Instant.now();
-        String geohash = GeoHashUtil.encode(locationDTO.getLatitude(), locationDTO.getLongitude());
+        DriverPosition current = positionRepository.getByDriver(driverId);
+        long lastApplied = current != null && current.getSequence() != null ? current.getSequence() : Long.MIN_VALUE;
+
+        // Order by sequence, keeping one point per sequence and per timestamp (the history key)
+        TreeMap<Long, LocationPointDTO> bySequence = new TreeMap<>();
+        for (LocationPointDTO point : batchDTO.getPoints()) {
+            if (point.getSequence() > lastApplied) {
+                bySequence.putIfAbsent(point.getSequence(), point);
+            }
+        }
+        Set<Instant> timestamps = new HashSet<>();
+        List<LocationPointDTO> fresh = bySequence.values().stream()
+                .filter(point -> timestamps.add(point.getTimestamp()))
+                .collect(Collectors.toList());
+        int duplicates = batchDTO.getPoints().size() - fresh.size();
+        if (fresh.isEmpty()) {
+            return new LocationBatchResponseDTO(0, duplicates, 0, 0, current != null ? current.getSequence() : null);
+        }
+
+        List<DriverLocation> locations = new ArrayList<>(fresh.size());
+        for (LocationPointDTO point : fresh) {
+            String geohash = GeoHashUtil.encode(point.getLatitude(), point.getLongitude(),
+                    GeoHashUtil.MAX_COVER_PRECISION);
+            locations.add(toLocation(driverId, point.getTimestamp(), point.getLatitude(), point.getLongitude(),
+                    geohash, point.getAccuracy(), point.getSpeed(), point.getHeading(), driver.getStatus()));
+        }
+        List<DriverLocation> moving = stationaryFilter.filter(companyId, locations);
+        int suppressed = locations.size() - moving.size();
+        BatchWriteOutcome<DriverLocation> outcome = historyStore.saveAll(moving);
+
+        // Advance only through the points before the first failed write, so the failed
+        // ones stay above the applied sequence and are accepted when the driver retries
+        Set<Instant> failedTimestamps = outcome.getFailed().stream()
+                .map(failed -> failed.getItem().getTimestamp())
+                .collect(Collectors.toSet());
+        int applied = 0;
+        while (applied < fresh.size() && !failedTimestamps.contains(fresh.get(applied).getTimestamp())) {
+            applied++;
+        }
+        Long lastSequence = current != null ? current.getSequence() : null;
+        if (applied > 0) {
+            // Only the newest applied point updates the driver's last position, and only if nothing newer landed meanwhile
+            LocationPointDTO newest = fresh.get(applied - 1);
+            DriverLocation newestLocation = locations.get(applied - 1);
+            DriverPosition position = toPosition(companyId, newestLocation,
+                    GeoHashUtil.encode(newest.getLatitude(), newest.getLongitude(), GeoHashUtil.MAX_COVER_PRECISION),
+                    newest.getSequence());
+            if (positionRepository.saveIfNewer(position)) {
+                driverRepository.updateLastLocation(companyId, driverId, newest.getLatitude(), newest.getLongitude(),
+                        newest.getTimestamp());
+                spatialIndex.update(position);
+            } else {
+                // Older than the live position: keep the position but record the applied sequence
+                positionRepository.advanceSequence(driverId, newest.getSequence());
+            }
+            lastSequence = newest.getSequence();
+        }
+
+        Log.debugf("Ingested %d location points for driver %s (%d duplicates, %d stationary, %d failed)",
+                outcome.getWritten().size(), driverId, duplicates, suppressed, outcome.getFailed().size());
+
+        return new LocationBatchResponseDTO(outcome.getWritten().size(), duplicates, suppressed,
+                outcome.getFailed().size(), lastSequence);
+    }
 
-        // Create location record
+    private DriverLocation toLocation(String driverId, Instant timestamp, Double latitude, Double longitude,
+            String positionGeohash, Double accuracy, Double speed, Double heading, String status) {
         DriverLocation location = new DriverLocation();
         location.setDriverId(driverId);
-        location.setTimestamp(now);
-        location.setLatitude(locationDTO.getLatitude());
-        location.setLongitude(locationDTO.getLongitude());
-        location.setGeohash(geohash);
-        location.setAccuracy(locationDTO.getAccuracy());
-        location.setSpeed(locationDTO.getSpeed());
-        location.setHeading(locationDTO.getHeading());
-        location.setStatus(driver.getStatus());
-
-        locationRepository.save(location);
-
-        // Update driver's last known location
-        driver.setLastLatitude(locationDTO.getLatitude());
-        driver.setLastLongitude(locationDTO.getLongitude());
-        driver.setLastLocationUpdate(now);
-        driver.setUpdatedAt(now);
-        driverRepository.save(driver);
-
-        Log.debugf("Updated location for driver %s: %s", driverId, geohash);
+        location.setTimestamp(timestamp);
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        location.setGeohash(positionGeohash.substring(0, 6));
+        location.setAccuracy(accuracy);
+        location.setSpeed(speed);
+        location.setHeading(heading);
+        location.setStatus(status);
+        return location;
+    }
 
-        return locationMapper.toResponseDTO(location);
+    private DriverPosition toPosition(String companyId, DriverLocation location, String positionGeohash,
+            Long sequence) {
+        DriverPosition position = new DriverPosition();
+        position.setDriverId(location.getDriverId());
+        position.setCompanyId(companyId);
+        position.setCompanyGeohash4(DriverPosition.companyGeohashKey(companyId, positionGeohash.substring(0, 4)));
+        position.setCompanyGeohash5(DriverPosition.companyGeohashKey(companyId, positionGeohash.substring(0, 5)));
+        position.setCompanyGeohash6(DriverPosition.companyGeohashKey(companyId, positionGeohash.substring(0, 6)));
+        position.setCompanyGeohash7(DriverPosition.companyGeohashKey(companyId, positionGeohash));
+        position.setTimestamp(location.getTimestamp());
+        position.setTimestampMillis(location.getTimestamp().toEpochMilli());
+        position.setLatitude(location.getLatitude());
+        position.setLongitude(location.getLongitude());
+        position.setGeohash(positionGeohash);
+        position.setAccuracy(location.getAccuracy());
+        position.setSpeed(location.getSpeed());
+        position.setHeading(location.getHeading());
+        position.setStatus(location.getStatus());
+        position.setSequence(sequence);
+        return position;
     }
 
     /**
@@ -75,7 +241,7 @@ public class LocationService {
      */
     public PaginatedResponse<LocationResponseDTO> getDriverLocationHistory(String driverId,
             String nextToken, Integer limit) {
-        PaginatedResponse<DriverLocation> response = locationRepository.getByDriver(driverId, nextToken, limit);
+        PaginatedResponse<DriverLocation> response = historyStore.getByDriver(driverId, nextToken, limit);
 
         return PaginatedResponse.<LocationResponseDTO>builder()
                 .items(response.getItems().stream()
@@ -87,51 +253,105 @@ public class LocationService {
     }
 
     /**
-     * Find nearby drivers using geohash-based proximity search.
+     * Get a driver's history between two instants, oldest first, in a single
+     * response, optionally downsampled to maxPoints.
+     */
+    public LocationRangeResponseDTO getLocationHistoryRange(String driverId, @Valid LocationRangeQueryDTO queryDTO) {
+        if (queryDTO.getTo().isBefore(queryDTO.getFrom())) {
+            throw new BadRequestException("'to' must not be before 'from'");
+        }
+        if (Duration.between(queryDTO.getFrom(), queryDTO.getTo()).compareTo(MAX_HISTORY_RANGE) > 0) {
+            throw new BadRequestException("History range must not exceed " + MAX_HISTORY_RANGE.toHours() + " hours");
+        }
+        DownsampleMode mode = DownsampleMode.UNIFORM;
+        if (queryDTO.getDownsample() != null) {
+            mode = DownsampleMode.fromString(queryDTO.getDownsample());
+            if (mode == null) {
+                throw new BadRequestException("Invalid downsample mode: " + queryDTO.getDownsample());
+            }
+        }
+
+        List<DriverLocation> points = historyStore.getRange(driverId, queryDTO.getFrom(), queryDTO.getTo());
+        List<DriverLocation> sampled = queryDTO.getMaxPoints() != null
+                ? TrajectorySampler.downsample(points, queryDTO.getMaxPoints(), mode)
+                : points;
+
+        return new LocationRangeResponseDTO(
+                sampled.stream().map(locationMapper::toResponseDTO).collect(Collectors.toList()),
+                points.size(), sampled.size() < points.size());
+    }
+
+    /**
+     * Get a driver's simplified route for one UTC day, oldest point first, in a
+     * single response.
+     */
+    public PaginatedResponse<LocationResponseDTO> getSimplifiedLocationHistory(String driverId, LocalDate day) {
+        List<DriverLocation> points = trajectoryService.getSimplifiedDay(driverId, day);
+
+        return PaginatedResponse.<LocationResponseDTO>builder()
+                .items(points.stream()
+                        .map(locationMapper::toResponseDTO)
+                        .collect(Collectors.toList()))
+                .hasMore(false)
+                .build();
+    }
+
+    /**
+     * Find nearby drivers of a company.
+     * Served from the in-memory spatial index when it is enabled, otherwise by a
+     * geohash-based search of the current-position store (each driver appears at
+     * most once). Cells that cannot be queried before the search deadline are
+     * skipped and reported in the result rather than failing the search.
      */
-    public List<NearbyDriverDTO> findNearbyDrivers(@Valid ProximitySearchDTO searchDTO) {
+    public NearbyDriverSearchResult findNearbyDrivers(@Valid ProximitySearchDTO searchDTO) {
         double radiusKm = searchDTO.getRadiusKm() != null ? searchDTO.getRadiusKm() : DEFAULT_RADIUS_KM;
         int maxResults = searchDTO.getMaxResults() != null ? searchDTO.getMaxResults() : DEFAULT_MAX_RESULTS;
 
-        // Get geohash for search point
-        String centerGeohash = GeoHashUtil.encode(searchDTO.getLatitude(), searchDTO.getLongitude());
-
-        // Get neighboring geohashes to search (covers ~3x3 grid around center)
-        List<String> geohashes = GeoHashUtil.getNeighbors(centerGeohash);
-
-        // Query all neighboring geohashes
-        List<DriverLocation> locations = locationRepository.getByGeohashes(geohashes, 50);
-
-        // Calculate distances and filter
-        return locations.stream()
-                // Group by driver and get latest location
-                .collect(Collectors.toMap(
-                        DriverLocation::getDriverId,
-                        loc -> loc,
-                        (loc1, loc2) -> loc1.getTimestamp().isAfter(loc2.getTimestamp()) ? loc1 : loc2))
-                .values().stream()
-                // Filter by status if specified
-                .filter(loc -> searchDTO.getStatus() == null || searchDTO.getStatus().equals(loc.getStatus()))
-                // Calculate distance and filter by radius
-                .map(loc -> {
-                    double distance = GeoHashUtil.calculateDistance(
-                            searchDTO.getLatitude(), searchDTO.getLongitude(),
-                            loc.getLatitude(), loc.getLongitude());
-
-                    NearbyDriverDTO dto = new NearbyDriverDTO();
-                    dto.setDriverId(loc.getDriverId());
-                    dto.setLatitude(loc.getLatitude());
-                    dto.setLongitude(loc.getLongitude());
-                    dto.setDistanceKm(Math.round(distance * 100.0) / 100.0);  // Round to 2 decimal places
-                    dto.setStatus(loc.getStatus());
-                    dto.setLastUpdate(loc.getTimestamp());
-                    return dto;
-                })
-                .filter(dto -> dto.getDistanceKm() <= radiusKm)
-                // Sort by distance
-                .sorted(Comparator.comparingDouble(NearbyDriverDTO::getDistanceKm))
-                // Limit results
-                .limit(maxResults)
-                .collect(Collectors.toList());
+        List<DriverPosition> candidates;
+        List<String> skippedCells;
+        if (spatialIndex.isEnabled()) {
+            candidates = spatialIndex.candidates(searchDTO.getCompanyId(), searchDTO.getLatitude(),
+                    searchDTO.getLongitude(), radiusKm, searchDTO.getStatus());
+            skippedCells = new ArrayList<>();
+        } else {
+            // Cover the search circle with the fewest geohash cells (precision picked from the radius)
+            List<String> geohashes = GeoHashUtil.cover(searchDTO.getLatitude(), searchDTO.getLongitude(), radiusKm);
+
+            // Query all covering cells concurrently, each paged to the end
+            ScatterGatherResult<String, List<DriverPosition>> cells = positionRepository.getByGeohashes(
+                    searchDTO.getCompanyId(), geohashes, CELL_PAGE_SIZE);
+            skippedCells = new ArrayList<>(cells.getTimedOut());
+            skippedCells.addAll(cells.getFailed().keySet());
+            if (cells.isPartial()) {
+                Log.warnf("Proximity search returned partial results, skipped cells: %s", skippedCells);
+            }
+            List<DriverPosition> positions = ScatterGatherResult.flatten(cells);
+
+            // Filter by status if specified
+            candidates = searchDTO.getStatus() == null ? positions
+                    : positions.stream()
+                            .filter(pos -> searchDTO.getStatus().equals(pos.getStatus()))
+                            .collect(Collectors.toList());
+        }
+
+        // Bounding-box prefilter, approximate top-k, exact distance for the selected drivers only
+        List<ProximityKernel.Ranked<DriverPosition>> nearest = ProximityKernel.nearest(
+                searchDTO.getLatitude(), searchDTO.getLongitude(), radiusKm, maxResults,
+                candidates, DriverPosition::getLatitude, DriverPosition::getLongitude);
+
+        List<NearbyDriverDTO> drivers = new ArrayList<>(nearest.size());
+        for (ProximityKernel.Ranked<DriverPosition> ranked : nearest) {
+            DriverPosition pos = ranked.getItem();
+            NearbyDriverDTO dto = new NearbyDriverDTO();
+            dto.setDriverId(pos.getDriverId());
+            dto.setLatitude(pos.getLatitude());
+            dto.setLongitude(pos.getLongitude());
+            dto.setDistanceKm(Math.round(ranked.getDistanceKm() * 100.0) / 100.0);  // Round to 2 decimal places
+            dto.setStatus(pos.getStatus());
+            dto.setLastUpdate(pos.getTimestamp());
+            drivers.add(dto);
+        }
+
+        return new NearbyDriverSearchResult(drivers, skippedCells);
     }
 }
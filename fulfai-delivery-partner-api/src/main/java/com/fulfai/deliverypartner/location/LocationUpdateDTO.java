@@ -15,4 +15,5 @@ public class LocationUpdateDTO {
     private Double accuracy;    // GPS accuracy in meters
     private Double speed;       // Speed in km/h
     private Double heading;     // Direction in degrees (0-360)
+    private Long sequence;      // Optional driver-assigned sequence (shared with batch uploads)
 }
@@ -0,0 +1,22 @@
+package com.fulfai.deliverypartner.location;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Nearby drivers plus the geohash cells that could not be searched in time.
+ * A non-empty skippedCells list means the driver list may be incomplete.
+ */
+@Data
+@AllArgsConstructor
+public class NearbyDriverSearchResult {
+
+    private List<NearbyDriverDTO> drivers;
+    private List<String> skippedCells;
+
+    public boolean isPartial() {
+        return !skippedCells.isEmpty();
+    }
+}
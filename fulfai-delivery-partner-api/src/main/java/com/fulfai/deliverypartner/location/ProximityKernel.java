@@ -0,0 +1,112 @@
+package com.fulfai.deliverypartner.location;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToDoubleFunction;
+
+import lombok.Getter;
+
+/**
+ * Geometry kernel for ranking candidates around a search point.
+ *
+ * Candidates are first rejected by a lat/lon bounding box of the search circle,
+ * then ranked by an equirectangular approximation (no trigonometry per candidate)
+ * while keeping only the k nearest in a bounded max-heap. Exact haversine is
+ * computed only for the survivors, which are filtered by the exact radius and
+ * returned nearest first.
+ */
+public class ProximityKernel {
+
+    private static final double KM_PER_DEGREE = 6371 * Math.PI / 180;
+
+    // Over-admit slightly on the approximate radius test; the exact test runs last.
+    private static final double APPROXIMATION_SLACK = 1.01;
+
+    private ProximityKernel() {
+    }
+
+    /**
+     * Select the k candidates nearest to (latitude, longitude) within radiusKm.
+     */
+    public static <T> List<Ranked<T>> nearest(double latitude, double longitude, double radiusKm, int k,
+            Collection<T> candidates, ToDoubleFunction<T> latitudeOf, ToDoubleFunction<T> longitudeOf) {
+        if (k <= 0 || candidates.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        // Near the poles the longitude span of the circle is unbounded
+        boolean filterLongitude = Math.abs(latitude) + latDelta < 90.0 && cosLat > 0;
+        double lonDelta = filterLongitude ? latDelta / cosLat : 180.0;
+        double maxApproxDistSq = latDelta * latDelta * APPROXIMATION_SLACK * APPROXIMATION_SLACK;
+
+        // Max-heap on approximate distance: the root is the farthest of the current top k
+        PriorityQueue<Ranked<T>> heap = new PriorityQueue<>(k + 1,
+                Comparator.comparingDouble((Ranked<T> r) -> r.approxDistSq).reversed());
+
+        for (T candidate : candidates) {
+            double dLat = latitudeOf.applyAsDouble(candidate) - latitude;
+            if (dLat > latDelta || dLat < -latDelta) {
+                continue;
+            }
+            double dLon = wrapLongitude(longitudeOf.applyAsDouble(candidate) - longitude);
+            if (filterLongitude && (dLon > lonDelta || dLon < -lonDelta)) {
+                continue;
+            }
+
+            double x = dLon * cosLat;
+            double approxDistSq = x * x + dLat * dLat;
+            if (approxDistSq > maxApproxDistSq) {
+                continue;
+            }
+            if (heap.size() < k) {
+                heap.add(new Ranked<>(candidate, approxDistSq));
+            } else if (approxDistSq < heap.peek().approxDistSq) {
+                heap.poll();
+                heap.add(new Ranked<>(candidate, approxDistSq));
+            }
+        }
+
+        List<Ranked<T>> results = new ArrayList<>(heap.size());
+        for (Ranked<T> ranked : heap) {
+            ranked.distanceKm = GeoHashUtil.calculateDistance(latitude, longitude,
+                    latitudeOf.applyAsDouble(ranked.item), longitudeOf.applyAsDouble(ranked.item));
+            if (ranked.distanceKm <= radiusKm) {
+                results.add(ranked);
+            }
+        }
+        results.sort(Comparator.comparingDouble(Ranked::getDistanceKm));
+        return results;
+    }
+
+    private static double wrapLongitude(double dLon) {
+        if (dLon > 180.0) {
+            return dLon - 360.0;
+        }
+        if (dLon < -180.0) {
+            return dLon + 360.0;
+        }
+        return dLon;
+    }
+
+    /**
+     * A selected candidate with its exact haversine distance.
+     */
+    public static class Ranked<T> {
+
+        @Getter
+        private final T item;
+        private final double approxDistSq;
+        @Getter
+        private double distanceKm;
+
+        Ranked(T item, double approxDistSq) {
+            this.item = item;
+            this.approxDistSq = approxDistSq;
+        }
+    }
+}
@@ -1,17 +1,25 @@
 package com.fulfai.deliverypartner.location;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.Data;
 
 @Data
 public class ProximitySearchDTO {
 
+    @NotBlank(message = "Company ID is required")
+    private String companyId;
+
     @NotNull(message = "Latitude is required")
     private Double latitude;
 
     @NotNull(message = "Longitude is required")
     private Double longitude;
 
+    @Positive(message = "radiusKm must be positive")
+    @DecimalMax(value = "50.0", message = "radiusKm must be at most 50")
     private Double radiusKm;        // Search radius in km (default 5km)
     private Integer maxResults;     // Max drivers to return (default 10)
     private String status;          // Filter by driver status (optional)
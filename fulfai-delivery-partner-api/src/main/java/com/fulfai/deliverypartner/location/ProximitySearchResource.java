@@ -1,7 +1,5 @@
 package com.fulfai.deliverypartner.location;
 
-import java.util.List;
-
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.Consumes;
@@ -21,11 +19,16 @@ public class ProximitySearchResource {
 
     /**
      * Find nearby drivers based on lat/lng coordinates.
-     * Uses geohash-based proximity search.
+     * Uses geohash-based proximity search. When some cells could not be searched
+     * in time the response carries an X-Partial-Results header with their count.
      */
     @POST
     public Response findNearbyDrivers(@Valid ProximitySearchDTO searchDTO) {
-        List<NearbyDriverDTO> nearbyDrivers = locationService.findNearbyDrivers(searchDTO);
-        return Response.ok(nearbyDrivers).build();
+        NearbyDriverSearchResult result = locationService.findNearbyDrivers(searchDTO);
+        Response.ResponseBuilder response = Response.ok(result.getDrivers());
+        if (result.isPartial()) {
+            response.header("X-Partial-Results", result.getSkippedCells().size());
+        }
+        return response.build();
     }
 }
@@ -0,0 +1,190 @@
+package com.fulfai.deliverypartner.location;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fulfai.deliverypartner.company.Company;
+import com.fulfai.deliverypartner.company.CompanyRepository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Suppresses location pings from drivers standing still.
+ * A ping is dropped when, compared to the driver's last persisted ping, it moved
+ * less than the company's radius and its heading and speed changed less than
+ * their thresholds, unless the heartbeat interval has passed since that ping.
+ *
+ * Thresholds come from the company (stationary* fields, locationHeartbeatSeconds)
+ * and fall back to the delivery.location.stationary.* defaults; company settings
+ * are cached for a short time. The last persisted ping is tracked per instance,
+ * so a driver's first ping on an instance is always persisted.
+ */
+@ApplicationScoped
+public class StationaryFilter {
+
+    private final CompanyRepository companyRepository;
+    private final boolean defaultEnabled;
+    private final double defaultRadiusMeters;
+    private final double defaultHeadingDegrees;
+    private final double defaultSpeedKmh;
+    private final int defaultHeartbeatSeconds;
+    private final long settingsTtlMillis;
+    private final Map<String, Settings> settingsByCompany = new ConcurrentHashMap<>();
+    private final Map<String, Sample> lastPersisted = new ConcurrentHashMap<>();
+
+    @Inject
+    public StationaryFilter(CompanyRepository companyRepository,
+            @ConfigProperty(name = "delivery.location.stationary.enabled", defaultValue = "false") boolean enabled,
+            @ConfigProperty(name = "delivery.location.stationary.radius-meters", defaultValue = "15") double radiusMeters,
+            @ConfigProperty(name = "delivery.location.stationary.heading-degrees", defaultValue = "20") double headingDegrees,
+            @ConfigProperty(name = "delivery.location.stationary.speed-kmh", defaultValue = "3") double speedKmh,
+            @ConfigProperty(name = "delivery.location.stationary.heartbeat-seconds", defaultValue = "60") int heartbeatSeconds,
+            @ConfigProperty(name = "delivery.location.stationary.settings-cache-seconds", defaultValue = "60") int cacheSeconds) {
+        this.companyRepository = companyRepository;
+        this.defaultEnabled = enabled;
+        this.defaultRadiusMeters = radiusMeters;
+        this.defaultHeadingDegrees = headingDegrees;
+        this.defaultSpeedKmh = speedKmh;
+        this.defaultHeartbeatSeconds = heartbeatSeconds;
+        this.settingsTtlMillis = cacheSeconds * 1000L;
+    }
+
+    /**
+     * Whether a live ping can be dropped because the driver has not moved since
+     * their last persisted ping.
+     */
+    public boolean isStationary(String companyId, DriverLocation location) {
+        Settings settings = settings(companyId);
+        Sample previous = lastPersisted.get(location.getDriverId());
+        return settings.enabled && previous != null && isStationary(previous, location, settings);
+    }
+
+    /**
+     * Make a persisted ping the reference for the driver's following pings.
+     */
+    public void markPersisted(DriverLocation location) {
+        lastPersisted.put(location.getDriverId(), new Sample(location));
+    }
+
+    /**
+     * Status recorded with the driver's last persisted ping, if this instance has one.
+     */
+    public String lastStatus(String driverId) {
+        Sample sample = lastPersisted.get(driverId);
+        return sample != null ? sample.status : null;
+    }
+
+    /**
+     * Drop stationary points from a time-ordered batch, comparing each point to
+     * the last one kept. The first point is always kept.
+     */
+    public List<DriverLocation> filter(String companyId, List<DriverLocation> points) {
+        Settings settings = settings(companyId);
+        if (!settings.enabled || points.size() < 2) {
+            return points;
+        }
+        List<DriverLocation> kept = new ArrayList<>(points.size());
+        Sample reference = null;
+        for (DriverLocation point : points) {
+            if (reference == null || !isStationary(reference, point, settings)) {
+                kept.add(point);
+                reference = new Sample(point);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Forget a driver's reference ping, so the next ping is persisted (e.g. after
+     * a status change that history should record promptly).
+     */
+    public void reset(String driverId) {
+        lastPersisted.remove(driverId);
+    }
+
+    private boolean isStationary(Sample previous, DriverLocation location, Settings settings) {
+        if (location.getTimestamp().toEpochMilli() - previous.timestamp >= settings.heartbeatMillis) {
+            return false;
+        }
+        double movedMeters = GeoHashUtil.calculateDistance(previous.latitude, previous.longitude,
+                location.getLatitude(), location.getLongitude()) * 1000;
+        if (movedMeters >= settings.radiusMeters) {
+            return false;
+        }
+        if (previous.heading != null && location.getHeading() != null) {
+            double turn = Math.abs(previous.heading - location.getHeading()) % 360;
+            if (Math.min(turn, 360 - turn) >= settings.headingDegrees) {
+                return false;
+            }
+        }
+        if (previous.speed != null && location.getSpeed() != null
+                && Math.abs(previous.speed - location.getSpeed()) >= settings.speedKmh) {
+            return false;
+        }
+        return true;
+    }
+
+    private Settings settings(String companyId) {
+        long now = System.currentTimeMillis();
+        Settings cached = settingsByCompany.get(companyId);
+        if (cached != null && now - cached.loadedAt < settingsTtlMillis) {
+            return cached;
+        }
+        Company company = companyRepository.getById(companyId);
+        Settings settings = new Settings(
+                valueOr(company != null ? company.getStationaryFilterEnabled() : null, defaultEnabled),
+                valueOr(company != null ? company.getStationaryRadiusMeters() : null, defaultRadiusMeters),
+                valueOr(company != null ? company.getStationaryHeadingDegrees() : null, defaultHeadingDegrees),
+                valueOr(company != null ? company.getStationarySpeedKmh() : null, defaultSpeedKmh),
+                valueOr(company != null ? company.getLocationHeartbeatSeconds() : null, defaultHeartbeatSeconds) * 1000L,
+                now);
+        settingsByCompany.put(companyId, settings);
+        return settings;
+    }
+
+    private static <T> T valueOr(T value, T fallback) {
+        return value != null ? value : fallback;
+    }
+
+    private static final class Settings {
+        final boolean enabled;
+        final double radiusMeters;
+        final double headingDegrees;
+        final double speedKmh;
+        final long heartbeatMillis;
+        final long loadedAt;
+
+        Settings(boolean enabled, double radiusMeters, double headingDegrees, double speedKmh, long heartbeatMillis,
+                long loadedAt) {
+            this.enabled = enabled;
+            this.radiusMeters = radiusMeters;
+            this.headingDegrees = headingDegrees;
+            this.speedKmh = speedKmh;
+            this.heartbeatMillis = heartbeatMillis;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private static final class Sample {
+        final double latitude;
+        final double longitude;
+        final Double speed;
+        final Double heading;
+        final String status;
+        final long timestamp;
+
+        Sample(DriverLocation location) {
+            this.latitude = location.getLatitude();
+            this.longitude = location.getLongitude();
+            this.speed = location.getSpeed();
+            this.heading = location.getHeading();
+            this.status = location.getStatus();
+            this.timestamp = location.getTimestamp().toEpochMilli();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.fulfai.deliverypartner.location;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.Startup;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Compacts the previous UTC day's location history once a day at the
+ * configured hour, for long-running deployments.
+ *
+ * Disabled by default: in Lambda there is no resident process to run it, so a
+ * scheduler calls POST /internal/jobs/trajectory-compaction instead (see
+ * InternalJobResource). Uncompacted days are also compacted on first simplified read.
+ */
+@Startup
+@ApplicationScoped
+public class TrajectoryCompactionJob {
+
+    private final TrajectoryService trajectoryService;
+    private final boolean enabled;
+    private final int hourUtc;
+    private ScheduledExecutorService scheduler;
+
+    @Inject
+    public TrajectoryCompactionJob(TrajectoryService trajectoryService,
+            @ConfigProperty(name = "delivery.location.compaction.enabled", defaultValue = "false") boolean enabled,
+            @ConfigProperty(name = "delivery.location.compaction.hour-utc", defaultValue = "2") int hourUtc) {
+        this.trajectoryService = trajectoryService;
+        this.enabled = enabled;
+        this.hourUtc = Math.floorMod(hourUtc, 24);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "trajectory-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        ZonedDateTime nextRun = now.withHour(hourUtc).withMinute(0).withSecond(0).withNano(0);
+        if (!nextRun.isAfter(now)) {
+            nextRun = nextRun.plusDays(1);
+        }
+        scheduler.scheduleAtFixedRate(this::run, Duration.between(now, nextRun).toMillis(),
+                TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+        Log.infof("Trajectory compaction scheduled daily at %02d:00 UTC", hourUtc);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    void run() {
+        LocalDate day = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        try {
+            int compacted = trajectoryService.compactAll(day);
+            Log.infof("Compacted %s location history for %d drivers", day, compacted);
+        } catch (RuntimeException e) {
+            Log.errorf(e, "Trajectory compaction for %s failed", day);
+        }
+    }
+}
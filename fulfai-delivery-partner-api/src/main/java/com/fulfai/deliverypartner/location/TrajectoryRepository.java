@@ -0,0 +1,31 @@
+package com.fulfai.deliverypartner.location;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fulfai.common.dynamodb.ClientFactory;
+import com.fulfai.common.dynamodb.DynamoDBUtils;
+import com.fulfai.deliverypartner.Schemas;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+
+@ApplicationScoped
+public class TrajectoryRepository {
+
+    private final DynamoDbTable<DriverTrajectory> trajectoryTable;
+
+    @Inject
+    public TrajectoryRepository(ClientFactory clientFactory,
+            @ConfigProperty(name = "delivery.trajectory.table.name") String tableName) {
+        this.trajectoryTable = clientFactory.getEnhancedDynamoClient().table(tableName, Schemas.TRAJECTORY_SCHEMA);
+    }
+
+    public DriverTrajectory get(String driverId, String day) {
+        return DynamoDBUtils.getItem(trajectoryTable, driverId, day);
+    }
+
+    public void save(DriverTrajectory trajectory) {
+        DynamoDBUtils.putItem(trajectoryTable, trajectory);
+    }
+}
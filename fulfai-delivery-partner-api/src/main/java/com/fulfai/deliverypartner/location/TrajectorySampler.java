@@ -0,0 +1,65 @@
+package com.fulfai.deliverypartner.location;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reduces a time-ordered track to at most maxPoints points for display.
+ * The first and last points are always kept.
+ */
+public class TrajectorySampler {
+
+    private TrajectorySampler() {
+    }
+
+    public static List<DriverLocation> downsample(List<DriverLocation> points, int maxPoints, DownsampleMode mode) {
+        if (points.size() <= maxPoints) {
+            return points;
+        }
+        return mode == DownsampleMode.DISTANCE ? byDistance(points, maxPoints) : uniform(points, maxPoints);
+    }
+
+    /**
+     * Evenly spaced by index.
+     */
+    static List<DriverLocation> uniform(List<DriverLocation> points, int maxPoints) {
+        int n = points.size();
+        List<DriverLocation> sampled = new ArrayList<>(maxPoints);
+        for (int i = 0; i < maxPoints; i++) {
+            sampled.add(points.get((int) Math.round((double) i * (n - 1) / (maxPoints - 1))));
+        }
+        return sampled;
+    }
+
+    /**
+     * Evenly spaced along the cumulative path length, so time spent standing
+     * still does not use up the point budget.
+     */
+    static List<DriverLocation> byDistance(List<DriverLocation> points, int maxPoints) {
+        int n = points.size();
+        double[] travelled = new double[n];
+        for (int i = 1; i < n; i++) {
+            DriverLocation a = points.get(i - 1);
+            DriverLocation b = points.get(i);
+            travelled[i] = travelled[i - 1] + GeoHashUtil.calculateDistance(a.getLatitude(), a.getLongitude(),
+                    b.getLatitude(), b.getLongitude());
+        }
+        double total = travelled[n - 1];
+        if (total == 0) {
+            return uniform(points, maxPoints);
+        }
+
+        double spacing = total / (maxPoints - 1);
+        List<DriverLocation> sampled = new ArrayList<>(maxPoints);
+        sampled.add(points.get(0));
+        int next = 1;
+        for (int i = 1; i < n - 1 && sampled.size() < maxPoints - 1; i++) {
+            if (travelled[i] >= next * spacing) {
+                sampled.add(points.get(i));
+                next = (int) (travelled[i] / spacing) + 1;
+            }
+        }
+        sampled.add(points.get(n - 1));
+        return sampled;
+    }
+}
@@ -0,0 +1,116 @@
+package com.fulfai.deliverypartner.location;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import software.amazon.awssdk.core.SdkBytes;
+
+/**
+ * Builds and serves simplified per-day trajectories.
+ * A day is compacted by reading its raw history once and keeping the
+ * Douglas-Peucker simplification; raw points are left to expire by TTL.
+ * Days that were never compacted are simplified on read and stored if the day
+ * is over, as long as their raw points have not expired yet.
+ */
+@ApplicationScoped
+public class TrajectoryService {
+
+    private final LocationHistoryStore historyStore;
+    private final TrajectoryRepository trajectoryRepository;
+    private final DriverPositionRepository positionRepository;
+    private final double toleranceMeters;
+
+    @Inject
+    public TrajectoryService(LocationHistoryStore historyStore, TrajectoryRepository trajectoryRepository,
+            DriverPositionRepository positionRepository,
+            @ConfigProperty(name = "delivery.location.compaction.tolerance-meters", defaultValue = "10") double toleranceMeters) {
+        this.historyStore = historyStore;
+        this.trajectoryRepository = trajectoryRepository;
+        this.positionRepository = positionRepository;
+        this.toleranceMeters = toleranceMeters;
+    }
+
+    /**
+     * The simplified route of a driver for one UTC day, oldest point first.
+     */
+    public List<DriverLocation> getSimplifiedDay(String driverId, LocalDate day) {
+        DriverTrajectory trajectory = trajectoryRepository.get(driverId, day.toString());
+        if (trajectory != null) {
+            return LocationChunkCodec.decode(driverId, trajectory.getPoints().asByteArray());
+        }
+
+        List<DriverLocation> raw = readDay(driverId, day);
+        List<DriverLocation> simplified = TrajectorySimplifier.simplify(raw, toleranceMeters);
+        if (!raw.isEmpty() && day.isBefore(LocalDate.now(ZoneOffset.UTC))) {
+            trajectoryRepository.save(toTrajectory(driverId, day, simplified, raw.size()));
+        }
+        return simplified;
+    }
+
+    /**
+     * Compact one driver's day. Returns null when the driver has no raw points
+     * for that day.
+     */
+    public DriverTrajectory compactDay(String driverId, LocalDate day) {
+        List<DriverLocation> raw = readDay(driverId, day);
+        if (raw.isEmpty()) {
+            return null;
+        }
+        DriverTrajectory trajectory = toTrajectory(driverId, day,
+                TrajectorySimplifier.simplify(raw, toleranceMeters), raw.size());
+        trajectoryRepository.save(trajectory);
+        Log.debugf("Compacted %s for driver %s: %d -> %d points", day, driverId, raw.size(),
+                trajectory.getPointCount());
+        return trajectory;
+    }
+
+    /**
+     * Compact a day for every driver that reported a position since it started,
+     * skipping days already compacted.
+     */
+    public int compactAll(LocalDate day) {
+        Instant dayStart = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+        int compacted = 0;
+        for (DriverPosition position : positionRepository.getAll()) {
+            if (position.getTimestamp() == null || position.getTimestamp().isBefore(dayStart)
+                    || trajectoryRepository.get(position.getDriverId(), day.toString()) != null) {
+                continue;
+            }
+            try {
+                if (compactDay(position.getDriverId(), day) != null) {
+                    compacted++;
+                }
+            } catch (RuntimeException e) {
+                Log.errorf(e, "Failed to compact %s for driver %s", day, position.getDriverId());
+            }
+        }
+        return compacted;
+    }
+
+    private List<DriverLocation> readDay(String driverId, LocalDate day) {
+        Instant from = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant to = day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().minusMillis(1);
+        return new ArrayList<>(historyStore.getRange(driverId, from, to));
+    }
+
+    private DriverTrajectory toTrajectory(String driverId, LocalDate day, List<DriverLocation> points,
+            int rawPointCount) {
+        DriverTrajectory trajectory = new DriverTrajectory();
+        trajectory.setDriverId(driverId);
+        trajectory.setDay(day.toString());
+        trajectory.setPoints(SdkBytes.fromByteArray(LocationChunkCodec.encode(points)));
+        trajectory.setPointCount(points.size());
+        trajectory.setRawPointCount(rawPointCount);
+        trajectory.setToleranceMeters(toleranceMeters);
+        trajectory.setCompactedAt(Instant.now());
+        return trajectory;
+    }
+}
@@ -0,0 +1,90 @@
+package com.fulfai.deliverypartner.location;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Douglas-Peucker simplification of a driver's track.
+ *
+ * Distances are measured in metres on a local equirectangular projection, which
+ * is accurate to well under a metre over a city-sized day of driving. Points are
+ * compared against the segment (not the infinite line) between the kept ends, so
+ * a driver doubling back along the same road is preserved.
+ */
+public class TrajectorySimplifier {
+
+    private static final double METERS_PER_DEGREE = 6_371_000 * Math.PI / 180;
+
+    private TrajectorySimplifier() {
+    }
+
+    /**
+     * Keep the fewest points such that no dropped point is more than
+     * toleranceMeters from the simplified track. Input must be ordered by time;
+     * the first and last points are always kept.
+     */
+    public static List<DriverLocation> simplify(List<DriverLocation> points, double toleranceMeters) {
+        int n = points.size();
+        if (n <= 2 || toleranceMeters <= 0) {
+            return new ArrayList<>(points);
+        }
+
+        // Project once into metres around the first point
+        double cosLat = Math.cos(Math.toRadians(points.get(0).getLatitude()));
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = points.get(i).getLongitude() * METERS_PER_DEGREE * cosLat;
+            y[i] = points.get(i).getLatitude() * METERS_PER_DEGREE;
+        }
+
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+        double toleranceSq = toleranceMeters * toleranceMeters;
+
+        // Explicit stack instead of recursion: a full day can be tens of thousands of points
+        Deque<int[]> ranges = new ArrayDeque<>();
+        ranges.push(new int[] {0, n - 1});
+        while (!ranges.isEmpty()) {
+            int[] range = ranges.pop();
+            int first = range[0];
+            int last = range[1];
+            int farthest = -1;
+            double farthestSq = toleranceSq;
+            for (int i = first + 1; i < last; i++) {
+                double distSq = segmentDistanceSq(x[i], y[i], x[first], y[first], x[last], y[last]);
+                if (distSq > farthestSq) {
+                    farthestSq = distSq;
+                    farthest = i;
+                }
+            }
+            if (farthest >= 0) {
+                keep[farthest] = true;
+                ranges.push(new int[] {first, farthest});
+                ranges.push(new int[] {farthest, last});
+            }
+        }
+
+        List<DriverLocation> simplified = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) {
+                simplified.add(points.get(i));
+            }
+        }
+        return simplified;
+    }
+
+    private static double segmentDistanceSq(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSq = dx * dx + dy * dy;
+        double t = lengthSq == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSq;
+        t = Math.max(0, Math.min(1, t));
+        double ex = px - (ax + t * dx);
+        double ey = py - (ay + t * dy);
+        return ex * ex + ey * ey;
+    }
+}
@@ -0,0 +1,109 @@
+package com.fulfai.deliverypartner.presence;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fulfai.common.concurrent.ScatterGatherResult;
+import com.fulfai.common.dto.PaginatedResponse;
+import com.fulfai.deliverypartner.driver.Driver;
+import com.fulfai.deliverypartner.driver.DriverRepository;
+import com.fulfai.deliverypartner.driver.DriverStatus;
+import com.fulfai.deliverypartner.location.DriverPositionRepository;
+import com.fulfai.deliverypartner.location.DriverSpatialIndex;
+import com.fulfai.deliverypartner.location.StationaryFilter;
+
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Driver liveness derived from pings: an AVAILABLE driver not seen (no location
+ * update, no switch to AVAILABLE) for offline-after-seconds is set OFFLINE, so
+ * drivers whose app died stop showing up in proximity search and dispatch.
+ *
+ * Stale drivers are read from the sparse presence index, which only holds
+ * AVAILABLE drivers, so a sweep costs reads proportional to the stale drivers
+ * rather than the driver table. offline-after-seconds must stay well above the
+ * stationary heartbeat, or parked drivers would be swept.
+ */
+@ApplicationScoped
+public class PresenceService {
+
+    private final DriverRepository driverRepository;
+    private final DriverPositionRepository positionRepository;
+    private final DriverSpatialIndex spatialIndex;
+    private final StationaryFilter stationaryFilter;
+    private final Duration offlineAfter;
+    private final int batchSize;
+    private final int concurrency;
+    private final Duration batchDeadline;
+
+    @Inject
+    public PresenceService(DriverRepository driverRepository, DriverPositionRepository positionRepository,
+            DriverSpatialIndex spatialIndex, StationaryFilter stationaryFilter,
+            @ConfigProperty(name = "delivery.presence.offline-after-seconds", defaultValue = "300") long offlineAfterSeconds,
+            @ConfigProperty(name = "delivery.presence.sweep.batch-size", defaultValue = "100") int batchSize,
+            @ConfigProperty(name = "delivery.presence.sweep.concurrency", defaultValue = "10") int concurrency,
+            @ConfigProperty(name = "delivery.presence.sweep.batch-deadline-ms", defaultValue = "10000") long batchDeadlineMs) {
+        this.driverRepository = driverRepository;
+        this.positionRepository = positionRepository;
+        this.spatialIndex = spatialIndex;
+        this.stationaryFilter = stationaryFilter;
+        this.offlineAfter = Duration.ofSeconds(offlineAfterSeconds);
+        this.batchSize = Math.max(batchSize, 1);
+        this.concurrency = Math.max(concurrency, 1);
+        this.batchDeadline = Duration.ofMillis(batchDeadlineMs);
+    }
+
+    /**
+     * Set every stale AVAILABLE driver OFFLINE, one presence shard and one page at
+     * a time.
+     *
+     * @return number of drivers set OFFLINE
+     */
+    public int sweep() {
+        Instant cutoff = Instant.now().minus(offlineAfter);
+        int flipped = 0;
+        for (int shard = 0; shard < driverRepository.getPresenceShards(); shard++) {
+            String nextToken = null;
+            PaginatedResponse<Driver> page;
+            do {
+                page = driverRepository.getStaleAvailable(shard, cutoff, nextToken, batchSize);
+                if (!page.getItems().isEmpty()) {
+                    flipped += markOffline(page, cutoff);
+                }
+                nextToken = page.getNextToken();
+            } while (page.isHasMore() && nextToken != null);
+        }
+        if (flipped > 0) {
+            Log.infof("Presence sweep set %d drivers OFFLINE (not seen since %s)", flipped, cutoff);
+        }
+        return flipped;
+    }
+
+    private int markOffline(PaginatedResponse<Driver> page, Instant cutoff) {
+        ScatterGatherResult<Driver, Boolean> result = driverRepository.markOfflineIfStale(page.getItems(), cutoff,
+                concurrency, batchDeadline);
+        if (result.isPartial()) {
+            Log.warnf("Presence sweep left %d drivers for the next run: %d timed out, %d failed",
+                    result.getTimedOut().size() + result.getFailed().size(), result.getTimedOut().size(),
+                    result.getFailed().size());
+        }
+
+        int flipped = 0;
+        for (Map.Entry<Driver, Boolean> entry : result.getResults().entrySet()) {
+            if (!entry.getValue()) {
+                continue;
+            }
+            Driver driver = entry.getKey();
+            positionRepository.updateStatus(driver.getDriverId(), DriverStatus.OFFLINE.name());
+            spatialIndex.updateStatus(driver.getCompanyId(), driver.getDriverId(), DriverStatus.OFFLINE.name());
+            stationaryFilter.reset(driver.getDriverId());
+            flipped++;
+        }
+        return flipped;
+    }
+}
@@ -0,0 +1,70 @@
+package com.fulfai.deliverypartner.presence;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.Startup;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Runs the presence sweep at a fixed interval, for long-running deployments.
+ *
+ * Disabled by default: in Lambda there is no resident process to run it, so a
+ * scheduler calls POST /internal/jobs/presence-sweep instead (see InternalJobResource).
+ * Only one instance needs to run it; concurrent sweeps are harmless since every
+ * flip is conditional.
+ */
+@Startup
+@ApplicationScoped
+public class PresenceSweepJob {
+
+    private final PresenceService presenceService;
+    private final boolean enabled;
+    private final long intervalSeconds;
+    private ScheduledExecutorService scheduler;
+
+    @Inject
+    public PresenceSweepJob(PresenceService presenceService,
+            @ConfigProperty(name = "delivery.presence.sweep.enabled", defaultValue = "false") boolean enabled,
+            @ConfigProperty(name = "delivery.presence.sweep.interval-seconds", defaultValue = "60") long intervalSeconds) {
+        this.presenceService = presenceService;
+        this.enabled = enabled;
+        this.intervalSeconds = Math.max(intervalSeconds, 1);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "presence-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::run, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        Log.infof("Presence sweep scheduled every %d seconds", intervalSeconds);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    void run() {
+        try {
+            presenceService.sweep();
+        } catch (RuntimeException e) {
+            Log.errorf(e, "Presence sweep failed");
+        }
+    }
+}
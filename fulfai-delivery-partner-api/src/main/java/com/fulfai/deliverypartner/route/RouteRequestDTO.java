@@ -0,0 +1,21 @@
+package com.fulfai.deliverypartner.route;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * Orders assigned to a driver to be sequenced into one route.
+ */
+@Data
+public class RouteRequestDTO {
+
+    @NotEmpty(message = "Order IDs are required")
+    @Size(max = 30, message = "At most 30 orders per route")
+    private List<String> orderIds;
+
+    private Double startLatitude;   // Route start (default: driver's current position)
+    private Double startLongitude;
+}
@@ -0,0 +1,31 @@
+package com.fulfai.deliverypartner.route;
+
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+@Path("/company/{companyId}/driver/{driverId}/route")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class RouteResource {
+
+    @Inject
+    RouteService routeService;
+
+    /**
+     * Optimised stop sequence for orders assigned to the driver.
+     */
+    @POST
+    public Response planRoute(@PathParam("companyId") String companyId,
+            @PathParam("driverId") String driverId,
+            @Valid RouteRequestDTO routeDTO) {
+        RouteResponseDTO route = routeService.planRoute(driverId, routeDTO);
+        return Response.ok(route).build();
+    }
+}
@@ -0,0 +1,22 @@
+package com.fulfai.deliverypartner.route;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Stop sequence for a driver. seedDistanceKm is the nearest-neighbour route the
+ * optimisation started from; converged is false when the time budget ran out
+ * before 2-opt converged.
+ */
+@Data
+@AllArgsConstructor
+public class RouteResponseDTO {
+
+    private String driverId;
+    private List<RouteStopDTO> stops;
+    private double totalDistanceKm;
+    private double seedDistanceKm;
+    private boolean converged;
+}
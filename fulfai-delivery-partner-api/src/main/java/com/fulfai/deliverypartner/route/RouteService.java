@@ -0,0 +1,163 @@
+package com.fulfai.deliverypartner.route;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fulfai.deliverypartner.assignment.AssignmentRepository;
+import com.fulfai.deliverypartner.assignment.AssignmentStatus;
+import com.fulfai.deliverypartner.assignment.DriverOrderAssignment;
+import com.fulfai.deliverypartner.location.DriverPosition;
+import com.fulfai.deliverypartner.location.DriverPositionRepository;
+import com.fulfai.deliverypartner.location.GeoHashUtil;
+
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.NotFoundException;
+
+/**
+ * Sequences a driver's assigned orders into one multi-drop route. Orders not yet
+ * picked up contribute a pickup and a delivery stop, picked-up orders only their
+ * delivery.
+ */
+@ApplicationScoped
+public class RouteService {
+
+    private final AssignmentRepository assignmentRepository;
+    private final DriverPositionRepository positionRepository;
+    private final long budgetNanos;
+
+    @Inject
+    public RouteService(AssignmentRepository assignmentRepository, DriverPositionRepository positionRepository,
+            @ConfigProperty(name = "delivery.route.time-budget-ms", defaultValue = "50") long budgetMs) {
+        this.assignmentRepository = assignmentRepository;
+        this.positionRepository = positionRepository;
+        this.budgetNanos = budgetMs * 1_000_000L;
+    }
+
+    public RouteResponseDTO planRoute(String driverId, @Valid RouteRequestDTO routeDTO) {
+        // Stop 0 is the start; pickups precede their deliveries in the list
+        List<RouteStopDTO> stops = new ArrayList<>();
+        stops.add(null);
+        List<Integer> pickups = new ArrayList<>();
+        pickups.add(-1);
+        for (String orderId : new LinkedHashSet<>(routeDTO.getOrderIds())) {
+            addStops(getAssignment(driverId, orderId), stops, pickups);
+        }
+
+        double[] start = resolveStart(driverId, routeDTO);
+        double[][] distance = distanceMatrix(start, stops);
+        int[] pickupOf = pickups.stream().mapToInt(Integer::intValue).toArray();
+
+        long startedAt = System.nanoTime();
+        RouteSolver.Solution solution = RouteSolver.solve(distance, pickupOf, budgetNanos);
+        Log.debugf("Sequenced %d stops for driver %s in %d us: %.2f km (seed %.2f km)", stops.size() - 1,
+                driverId, (System.nanoTime() - startedAt) / 1000, solution.getCost(), solution.getSeedCost());
+
+        List<RouteStopDTO> sequence = new ArrayList<>(solution.getRoute().length);
+        int previous = 0;
+        for (int stop : solution.getRoute()) {
+            RouteStopDTO routeStop = stops.get(stop);
+            routeStop.setSequence(sequence.size() + 1);
+            routeStop.setLegDistanceKm(round(distance[previous][stop]));
+            sequence.add(routeStop);
+            previous = stop;
+        }
+        return new RouteResponseDTO(driverId, sequence, round(solution.getCost()), round(solution.getSeedCost()),
+                solution.isConverged());
+    }
+
+    private DriverOrderAssignment getAssignment(String driverId, String orderId) {
+        DriverOrderAssignment assignment = assignmentRepository.getCurrentByOrder(orderId);
+        if (assignment == null) {
+            throw new NotFoundException("Assignment not found for order: " + orderId);
+        }
+        if (!assignment.getDriverId().equals(driverId)) {
+            throw new BadRequestException("Order " + orderId + " is not assigned to this driver");
+        }
+        return assignment;
+    }
+
+    private void addStops(DriverOrderAssignment assignment, List<RouteStopDTO> stops, List<Integer> pickups) {
+        AssignmentStatus status = AssignmentStatus.fromString(assignment.getStatus());
+        if (status == AssignmentStatus.DELIVERED || status == AssignmentStatus.CANCELLED) {
+            throw new BadRequestException("Order " + assignment.getOrderId() + " is already " + status);
+        }
+        if (assignment.getDeliveryLatitude() == null || assignment.getDeliveryLongitude() == null) {
+            throw new BadRequestException("Delivery coordinates are missing for order " + assignment.getOrderId());
+        }
+
+        int pickup = -1;
+        if (status == AssignmentStatus.ASSIGNED) {
+            if (assignment.getPickupLatitude() == null || assignment.getPickupLongitude() == null) {
+                throw new BadRequestException("Pickup coordinates are missing for order " + assignment.getOrderId());
+            }
+            pickup = stops.size();
+            stops.add(stop(assignment.getOrderId(), RouteStopType.PICKUP, assignment.getPickupAddress(),
+                    assignment.getPickupLatitude(), assignment.getPickupLongitude()));
+            pickups.add(-1);
+        }
+        stops.add(stop(assignment.getOrderId(), RouteStopType.DELIVERY, assignment.getDeliveryAddress(),
+                assignment.getDeliveryLatitude(), assignment.getDeliveryLongitude()));
+        pickups.add(pickup);
+    }
+
+    /**
+     * Explicit start from the request, else the driver's current position, else
+     * null (the route may begin at any stop).
+     */
+    private double[] resolveStart(String driverId, RouteRequestDTO routeDTO) {
+        if (routeDTO.getStartLatitude() != null && routeDTO.getStartLongitude() != null) {
+            return new double[] { routeDTO.getStartLatitude(), routeDTO.getStartLongitude() };
+        }
+        DriverPosition position = positionRepository.getByDriver(driverId);
+        if (position != null && position.getLatitude() != null && position.getLongitude() != null) {
+            return new double[] { position.getLatitude(), position.getLongitude() };
+        }
+        return null;
+    }
+
+    /**
+     * Haversine distances between every pair of stops, computed once per request
+     * so the solver only does array lookups.
+     */
+    private static double[][] distanceMatrix(double[] start, List<RouteStopDTO> stops) {
+        int size = stops.size();
+        double[][] distance = new double[size][size];
+        for (int a = 1; a < size; a++) {
+            RouteStopDTO from = stops.get(a);
+            if (start != null) {
+                distance[0][a] = GeoHashUtil.calculateDistance(start[0], start[1], from.getLatitude(),
+                        from.getLongitude());
+                distance[a][0] = distance[0][a];
+            }
+            for (int b = a + 1; b < size; b++) {
+                RouteStopDTO to = stops.get(b);
+                distance[a][b] = GeoHashUtil.calculateDistance(from.getLatitude(), from.getLongitude(),
+                        to.getLatitude(), to.getLongitude());
+                distance[b][a] = distance[a][b];
+            }
+        }
+        return distance;
+    }
+
+    private static RouteStopDTO stop(String orderId, RouteStopType type, String address, Double latitude,
+            Double longitude) {
+        RouteStopDTO stop = new RouteStopDTO();
+        stop.setOrderId(orderId);
+        stop.setType(type.name());
+        stop.setAddress(address);
+        stop.setLatitude(latitude);
+        stop.setLongitude(longitude);
+        return stop;
+    }
+
+    private static double round(double distanceKm) {
+        return Math.round(distanceKm * 100.0) / 100.0;
+    }
+}
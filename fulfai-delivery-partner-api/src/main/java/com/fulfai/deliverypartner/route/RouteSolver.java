@@ -0,0 +1,214 @@
+package com.fulfai.deliverypartner.route;
+
+import java.util.Arrays;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Open-path stop sequencing with precedence constraints.
+ *
+ * Works on a precomputed distance matrix where index 0 is the route start and
+ * 1..n are the stops. A row 0 of zeros means the route may begin at any stop.
+ * pickupOf[s] is the stop that must be visited before s (its pickup), or -1.
+ *
+ * The route is seeded by nearest-neighbour over the stops whose pickup has been
+ * visited, then improved by 2-opt segment reversals and single-stop relocations
+ * that keep every pickup ahead of its delivery, until neither helps or the time
+ * budget runs out. Relocation matters here: precedence blocks most reversals that
+ * span a whole order.
+ */
+public class RouteSolver {
+
+    private static final double EPSILON = 1e-9;
+
+    private RouteSolver() {
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Solution {
+        private final int[] route;          // Stop indices (1..n) in visiting order
+        private final double seedCost;
+        private final double cost;
+        private final boolean converged;
+    }
+
+    public static Solution solve(double[][] distance, int[] pickupOf, long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        int[] route = nearestNeighbour(distance, pickupOf);
+        double seedCost = cost(distance, route);
+        int[] deliveryOf = new int[pickupOf.length];
+        Arrays.fill(deliveryOf, -1);
+        for (int stop = 1; stop < pickupOf.length; stop++) {
+            if (pickupOf[stop] >= 0) {
+                deliveryOf[pickupOf[stop]] = stop;
+            }
+        }
+
+        boolean converged = false;
+        while (!converged && System.nanoTime() <= deadline) {
+            converged = twoOpt(distance, pickupOf, route, deadline)
+                    && !relocate(distance, pickupOf, deliveryOf, route, deadline);
+        }
+        return new Solution(route, seedCost, cost(distance, route), converged);
+    }
+
+    /**
+     * Total length of a route starting at index 0.
+     */
+    public static double cost(double[][] distance, int[] route) {
+        double total = 0;
+        int previous = 0;
+        for (int stop : route) {
+            total += distance[previous][stop];
+            previous = stop;
+        }
+        return total;
+    }
+
+    private static int[] nearestNeighbour(double[][] distance, int[] pickupOf) {
+        int n = distance.length - 1;
+        int[] route = new int[n];
+        boolean[] visited = new boolean[n + 1];
+        int current = 0;
+        for (int i = 0; i < n; i++) {
+            int next = -1;
+            for (int s = 1; s <= n; s++) {
+                if (visited[s] || (pickupOf[s] >= 0 && !visited[pickupOf[s]])) {
+                    continue;
+                }
+                if (next < 0 || distance[current][s] < distance[current][next]) {
+                    next = s;
+                }
+            }
+            if (next < 0) {
+                throw new IllegalArgumentException("Precedence constraints contain a cycle");
+            }
+            route[i] = next;
+            visited[next] = true;
+            current = next;
+        }
+        return route;
+    }
+
+    /**
+     * First-improvement 2-opt on an open path. Reversing route[i..k] only changes
+     * the edges into route[i] and out of route[k] (distances are symmetric), and is
+     * allowed only if no pickup and its delivery both fall inside the segment.
+     *
+     * @return true if a local optimum was reached within the deadline
+     */
+    private static boolean twoOpt(double[][] distance, int[] pickupOf, int[] route, long deadline) {
+        int n = route.length;
+        int[] position = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            position[route[i]] = i;
+        }
+
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 0; i < n - 1; i++) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                int before = i == 0 ? 0 : route[i - 1];
+                for (int k = i + 1; k < n; k++) {
+                    int first = route[i];
+                    int last = route[k];
+                    double delta = distance[before][last] - distance[before][first];
+                    if (k + 1 < n) {
+                        int after = route[k + 1];
+                        delta += distance[first][after] - distance[last][after];
+                    }
+                    if (delta < -EPSILON && reversible(pickupOf, route, position, i, k)) {
+                        reverse(route, position, i, k);
+                        improved = true;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * One pass moving single stops to the cheapest feasible slot elsewhere in the
+     * route: a delivery stays behind its pickup, a pickup ahead of its delivery.
+     *
+     * @return true if any stop was moved
+     */
+    private static boolean relocate(double[][] distance, int[] pickupOf, int[] deliveryOf, int[] route,
+            long deadline) {
+        int n = route.length;
+        boolean moved = false;
+        for (int i = 0; i < n && System.nanoTime() <= deadline; i++) {
+            int stop = route[i];
+            int before = i == 0 ? 0 : route[i - 1];
+            double removed = distance[before][stop];
+            if (i + 1 < n) {
+                removed += distance[stop][route[i + 1]] - distance[before][route[i + 1]];
+            }
+
+            // Slots are positions in the route without the stop; slot i puts it back
+            int lowest = 0;
+            int highest = n - 1;
+            for (int j = 0; j < n; j++) {
+                if (route[j] == pickupOf[stop]) {
+                    lowest = (j < i ? j : j - 1) + 1;
+                } else if (route[j] == deliveryOf[stop]) {
+                    highest = j < i ? j : j - 1;
+                }
+            }
+
+            int bestSlot = -1;
+            double bestDelta = -EPSILON;
+            for (int slot = lowest; slot <= highest; slot++) {
+                if (slot == i) {
+                    continue;
+                }
+                int previous = slot == 0 ? 0 : route[slot - 1 < i ? slot - 1 : slot];
+                int next = slot < n - 1 ? route[slot < i ? slot : slot + 1] : -1;
+                double added = distance[previous][stop];
+                if (next >= 0) {
+                    added += distance[stop][next] - distance[previous][next];
+                }
+                if (added - removed < bestDelta) {
+                    bestDelta = added - removed;
+                    bestSlot = slot;
+                }
+            }
+            if (bestSlot >= 0) {
+                if (bestSlot < i) {
+                    System.arraycopy(route, bestSlot, route, bestSlot + 1, i - bestSlot);
+                } else {
+                    System.arraycopy(route, i + 1, route, i, bestSlot - i);
+                }
+                route[bestSlot] = stop;
+                moved = true;
+            }
+        }
+        return moved;
+    }
+
+    private static boolean reversible(int[] pickupOf, int[] route, int[] position, int i, int k) {
+        for (int j = i + 1; j <= k; j++) {
+            int pickup = pickupOf[route[j]];
+            if (pickup >= 0 && position[pickup] >= i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void reverse(int[] route, int[] position, int i, int k) {
+        for (int left = i, right = k; left < right; left++, right--) {
+            int swap = route[left];
+            route[left] = route[right];
+            route[right] = swap;
+        }
+        for (int j = i; j <= k; j++) {
+            position[route[j]] = j;
+        }
+    }
+}
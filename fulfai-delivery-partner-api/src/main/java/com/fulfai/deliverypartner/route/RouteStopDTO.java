@@ -0,0 +1,19 @@
+package com.fulfai.deliverypartner.route;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteStopDTO {
+
+    private int sequence;
+    private String orderId;
+    private String type;            // PICKUP or DELIVERY
+    private String address;
+    private Double latitude;
+    private Double longitude;
+    private Double legDistanceKm;   // From the previous stop (or the start)
+}
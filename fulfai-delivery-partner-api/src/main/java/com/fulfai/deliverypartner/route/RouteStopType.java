@@ -0,0 +1,6 @@
+package com.fulfai.deliverypartner.route;
+
+public enum RouteStopType {
+    PICKUP,         // Collect the order from the selling partner
+    DELIVERY;       // Hand the order to the customer
+}
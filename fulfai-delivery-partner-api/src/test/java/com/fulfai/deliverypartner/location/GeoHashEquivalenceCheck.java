@@ -0,0 +1,70 @@
+package com.fulfai.deliverypartner.location;
+
+import java.util.Random;
+
+/**
+ * Checks GeoHashUtil against the legacy string encoder. Stored geohash keys
+ * (driver positions, history chunks) depend on exact encode output, so any
+ * mismatch fails the run.
+ *
+ * For every point and precision 1-12 it checks that:
+ * - encode matches LegacyGeoHashEncoder.encode
+ * - toBase32(fromBase32(hash)) round-trips
+ * - the point lies inside decodeBounds(hash)
+ *
+ * Run after test-compile, from fulfai-delivery-partner-api:
+ *   java -cp target/classes:target/test-classes \
+ *       com.fulfai.deliverypartner.location.GeoHashEquivalenceCheck [points] [seed]
+ */
+public class GeoHashEquivalenceCheck {
+
+    private static final double[] EDGE_LATITUDES = {
+            -90.0, Math.nextUp(-90.0), -45.0, Math.nextDown(0.0), 0.0, Math.nextUp(0.0), 45.0,
+            Math.nextDown(90.0), 90.0};
+    private static final double[] EDGE_LONGITUDES = {
+            -180.0, Math.nextUp(-180.0), -90.0, Math.nextDown(0.0), 0.0, Math.nextUp(0.0), 90.0,
+            Math.nextDown(180.0), 180.0};
+
+    public static void main(String[] args) {
+        int points = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 20261018L;
+
+        long checked = 0;
+        for (double latitude : EDGE_LATITUDES) {
+            for (double longitude : EDGE_LONGITUDES) {
+                checked += check(latitude, longitude);
+            }
+        }
+        Random random = new Random(seed);
+        for (int i = 0; i < points; i++) {
+            checked += check(random.nextDouble() * 180.0 - 90.0, random.nextDouble() * 360.0 - 180.0);
+        }
+
+        System.out.printf("GeoHashUtil matches the legacy encoder: %d encodings (%d random points, seed %d)%n",
+                checked, points, seed);
+    }
+
+    private static int check(double latitude, double longitude) {
+        for (int precision = 1; precision <= GeoHashUtil.MAX_PRECISION; precision++) {
+            String expected = LegacyGeoHashEncoder.encode(latitude, longitude, precision);
+            String actual = GeoHashUtil.encode(latitude, longitude, precision);
+            if (!expected.equals(actual)) {
+                throw fail("encode(%s, %s, %d) = %s, legacy %s", latitude, longitude, precision, actual, expected);
+            }
+            String roundTrip = GeoHashUtil.toBase32(GeoHashUtil.fromBase32(actual), precision);
+            if (!actual.equals(roundTrip)) {
+                throw fail("toBase32(fromBase32(%s)) = %s", actual, roundTrip);
+            }
+            double[] bounds = GeoHashUtil.decodeBounds(actual);
+            if (latitude < bounds[0] || latitude > bounds[2] || longitude < bounds[1] || longitude > bounds[3]) {
+                throw fail("(%s, %s) outside decodeBounds(%s) = [%s, %s, %s, %s]", latitude, longitude, actual,
+                        bounds[0], bounds[1], bounds[2], bounds[3]);
+            }
+        }
+        return GeoHashUtil.MAX_PRECISION;
+    }
+
+    private static IllegalStateException fail(String format, Object... args) {
+        return new IllegalStateException(String.format(format, args));
+    }
+}
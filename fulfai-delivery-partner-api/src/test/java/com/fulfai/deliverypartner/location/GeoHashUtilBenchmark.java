@@ -0,0 +1,79 @@
+package com.fulfai.deliverypartner.location;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Micro-benchmark of GeoHashUtil against the legacy string encoder on the ping
+ * path (precision 7). Each case runs warm-up rounds, then reports the median
+ * and best ns/op over the measured rounds; results feed a sink so the JIT
+ * cannot drop the work.
+ *
+ * Run after test-compile, from fulfai-delivery-partner-api:
+ *   java -cp target/classes:target/test-classes \
+ *       com.fulfai.deliverypartner.location.GeoHashUtilBenchmark [opsPerRound] [rounds]
+ */
+public class GeoHashUtilBenchmark {
+
+    private static final int PRECISION = 7;
+    private static final int POINTS = 1 << 16;
+    private static final int WARMUP_ROUNDS = 5;
+
+    private static long sink;
+
+    public static void main(String[] args) {
+        int opsPerRound = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        Random random = new Random(20261018L);
+        double[] latitudes = new double[POINTS];
+        double[] longitudes = new double[POINTS];
+        String[] hashes = new String[POINTS];
+        long[] bits = new long[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            latitudes[i] = random.nextDouble() * 180.0 - 90.0;
+            longitudes[i] = random.nextDouble() * 360.0 - 180.0;
+            hashes[i] = GeoHashUtil.encode(latitudes[i], longitudes[i], PRECISION);
+            bits[i] = GeoHashUtil.fromBase32(hashes[i]);
+        }
+        int mask = POINTS - 1;
+
+        run("legacy encode", opsPerRound, rounds,
+                i -> LegacyGeoHashEncoder.encode(latitudes[i & mask], longitudes[i & mask], PRECISION).hashCode());
+        run("encode", opsPerRound, rounds,
+                i -> GeoHashUtil.encode(latitudes[i & mask], longitudes[i & mask], PRECISION).hashCode());
+        run("encodeBits", opsPerRound, rounds,
+                i -> GeoHashUtil.encodeBits(latitudes[i & mask], longitudes[i & mask], PRECISION));
+        run("decodeBounds", opsPerRound, rounds,
+                i -> Double.doubleToRawLongBits(GeoHashUtil.decodeBounds(bits[i & mask], PRECISION)[0]));
+        run("getNeighbors", opsPerRound / 10, rounds,
+                i -> GeoHashUtil.getNeighbors(hashes[i & mask]).get(8).hashCode());
+
+        System.out.println("(sink " + sink + ")");
+    }
+
+    private static void run(String name, int opsPerRound, int rounds, IntToLongFunction op) {
+        for (int r = 0; r < WARMUP_ROUNDS; r++) {
+            round(opsPerRound, op);
+        }
+        double[] nanosPerOp = new double[rounds];
+        for (int r = 0; r < rounds; r++) {
+            nanosPerOp[r] = round(opsPerRound, op);
+        }
+        Arrays.sort(nanosPerOp);
+        System.out.printf("%-14s p%d  median %7.1f ns/op  best %7.1f ns/op%n", name, PRECISION,
+                nanosPerOp[rounds / 2], nanosPerOp[0]);
+    }
+
+    private static double round(int ops, IntToLongFunction op) {
+        long result = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            result += op.applyAsLong(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += result;
+        return (double) elapsed / ops;
+    }
+}
@@ -0,0 +1,54 @@
+package com.fulfai.deliverypartner.location;
+
+/**
+ * The string encoder GeoHashUtil shipped with before the move to interleaved
+ * long bits, kept verbatim as the reference for stored geohash keys.
+ */
+final class LegacyGeoHashEncoder {
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    private LegacyGeoHashEncoder() {
+    }
+
+    static String encode(double latitude, double longitude, int precision) {
+        double[] latRange = {-90.0, 90.0};
+        double[] lonRange = {-180.0, 180.0};
+
+        StringBuilder geohash = new StringBuilder();
+        boolean isEven = true;
+        int bit = 0;
+        int ch = 0;
+
+        while (geohash.length() < precision) {
+            if (isEven) {
+                double mid = (lonRange[0] + lonRange[1]) / 2;
+                if (longitude >= mid) {
+                    ch |= (1 << (4 - bit));
+                    lonRange[0] = mid;
+                } else {
+                    lonRange[1] = mid;
+                }
+            } else {
+                double mid = (latRange[0] + latRange[1]) / 2;
+                if (latitude >= mid) {
+                    ch |= (1 << (4 - bit));
+                    latRange[0] = mid;
+                } else {
+                    latRange[1] = mid;
+                }
+            }
+
+            isEven = !isEven;
+            if (bit < 4) {
+                bit++;
+            } else {
+                geohash.append(BASE32.charAt(ch));
+                bit = 0;
+                ch = 0;
+            }
+        }
+
+        return geohash.toString();
+    }
+}
@@ -0,0 +1,127 @@
+package com.fulfai.deliverypartner.route;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.fulfai.deliverypartner.location.GeoHashUtil;
+
+/**
+ * Benchmark of RouteSolver on random city-scale instances, for tuning
+ * delivery.route.time-budget-ms. For each stop count, orders are pickup and
+ * delivery pairs within ~10km of a start point; an odd count adds one
+ * delivery-only (picked-up) order. Each run builds the haversine matrix the way
+ * RouteService does and solves it under the budget.
+ *
+ * Reports per stop count: median and p99 solve time (matrix build included), the
+ * mean improvement over the nearest-neighbour seed, and how many runs converged
+ * before the budget ran out. Fails if any route breaks pickup-before-delivery.
+ *
+ * Run after test-compile, from fulfai-delivery-partner-api:
+ *   java -cp target/classes:target/test-classes \
+ *       com.fulfai.deliverypartner.route.RouteSolverBenchmark [budgetMs] [runs] [seed]
+ */
+public class RouteSolverBenchmark {
+
+    private static final int[] STOP_COUNTS = {5, 10, 15, 20, 25, 30};
+    private static final int WARMUP_RUNS = 200;
+    private static final double CENTER_LATITUDE = 1.3521;
+    private static final double CENTER_LONGITUDE = 103.8198;
+    private static final double SPREAD_DEGREES = 0.09;  // ~10km
+
+    public static void main(String[] args) {
+        long budgetMs = args.length > 0 ? Long.parseLong(args[0]) : 50;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 20261018L;
+        long budgetNanos = budgetMs * 1_000_000L;
+
+        Random warmup = new Random(seed - 1);
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            run(STOP_COUNTS[i % STOP_COUNTS.length], warmup, budgetNanos);
+        }
+
+        System.out.printf("budget %d ms, %d runs per size, seed %d%n", budgetMs, runs, seed);
+        System.out.println("stops  median ms  p99 ms  improvement  converged");
+        Random random = new Random(seed);
+        for (int stops : STOP_COUNTS) {
+            double[] millis = new double[runs];
+            double improvement = 0;
+            int converged = 0;
+            for (int r = 0; r < runs; r++) {
+                Result result = run(stops, random, budgetNanos);
+                millis[r] = result.nanos / 1e6;
+                improvement += 1 - result.solution.getCost() / result.solution.getSeedCost();
+                converged += result.solution.isConverged() ? 1 : 0;
+            }
+            Arrays.sort(millis);
+            System.out.printf("%5d  %9.3f  %6.3f  %10.1f%%  %5d/%d%n", stops, millis[runs / 2],
+                    millis[Math.min(runs - 1, (int) Math.ceil(runs * 0.99) - 1)], 100 * improvement / runs,
+                    converged, runs);
+        }
+    }
+
+    private static Result run(int stops, Random random, long budgetNanos) {
+        // Index 0 is the start; a pickup is always followed by its delivery
+        double[][] points = new double[stops + 1][];
+        int[] pickupOf = new int[stops + 1];
+        pickupOf[0] = -1;
+        points[0] = randomPoint(random);
+        for (int s = 1; s <= stops; s++) {
+            points[s] = randomPoint(random);
+            pickupOf[s] = -1;
+            if (s + 1 <= stops) {
+                points[++s] = randomPoint(random);
+                pickupOf[s] = s - 1;
+            }
+        }
+
+        long started = System.nanoTime();
+        double[][] distance = distanceMatrix(points);
+        RouteSolver.Solution solution = RouteSolver.solve(distance, pickupOf, budgetNanos);
+        long nanos = System.nanoTime() - started;
+
+        checkPrecedence(solution.getRoute(), pickupOf);
+        return new Result(solution, nanos);
+    }
+
+    private static double[][] distanceMatrix(double[][] points) {
+        int size = points.length;
+        double[][] distance = new double[size][size];
+        for (int a = 0; a < size; a++) {
+            for (int b = a + 1; b < size; b++) {
+                distance[a][b] = GeoHashUtil.calculateDistance(points[a][0], points[a][1], points[b][0],
+                        points[b][1]);
+                distance[b][a] = distance[a][b];
+            }
+        }
+        return distance;
+    }
+
+    private static void checkPrecedence(int[] route, int[] pickupOf) {
+        int[] position = new int[pickupOf.length];
+        for (int i = 0; i < route.length; i++) {
+            position[route[i]] = i;
+        }
+        for (int stop = 1; stop < pickupOf.length; stop++) {
+            if (pickupOf[stop] >= 0 && position[pickupOf[stop]] > position[stop]) {
+                throw new IllegalStateException("Delivery " + stop + " visited before its pickup "
+                        + pickupOf[stop] + ": " + Arrays.toString(route));
+            }
+        }
+    }
+
+    private static double[] randomPoint(Random random) {
+        return new double[] {
+                CENTER_LATITUDE + (random.nextDouble() * 2 - 1) * SPREAD_DEGREES,
+                CENTER_LONGITUDE + (random.nextDouble() * 2 - 1) * SPREAD_DEGREES};
+    }
+
+    private static final class Result {
+        private final RouteSolver.Solution solution;
+        private final long nanos;
+
+        private Result(RouteSolver.Solution solution, long nanos) {
+            this.solution = solution;
+            this.nanos = nanos;
+        }
+    }
+}
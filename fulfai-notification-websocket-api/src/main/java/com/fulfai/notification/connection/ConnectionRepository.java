@@ -1,5 +1,6 @@
 package com.fulfai.notification.connection;
 
+import com.fulfai.notification.dynamodb.BatchDeletes;
 import com.fulfai.notification.dynamodb.ClientFactory;
 import io.quarkus.logging.Log;
 import io.quarkus.runtime.annotations.RegisterForReflection;
@@ -61,6 +62,15 @@ public class ConnectionRepository {
         getTable().deleteItem(key);
     }
 
+    /**
+     * Delete many connections with BatchWriteItem
+     */
+    public void deleteAll(List<String> connectionIds) {
+        Log.debugf("Deleting %d connections", connectionIds.size());
+        BatchDeletes.deleteAll(clientFactory.getEnhancedDynamoClient(), getTable(), WebSocketConnection.class,
+                connectionIds.stream().map(id -> Key.builder().partitionValue(id).build()).toList());
+    }
+
     /**
      * Get all connections for a user
      */
@@ -1,5 +1,7 @@
 package com.fulfai.notification.connection;
 
+import com.fulfai.notification.server.LocalConnectionRegistry;
+import com.fulfai.notification.subscription.SubscriptionRepository;
 import io.quarkus.logging.Log;
 import io.quarkus.runtime.annotations.RegisterForReflection;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -10,7 +12,10 @@ import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 /**
- * Service for managing WebSocket connections
+ * Service for managing WebSocket connections.
+ *
+ * In server mode connections are also kept in the node's LocalConnectionRegistry,
+ * and DynamoDB is only written when nodes are clustered.
  */
 @ApplicationScoped
 @RegisterForReflection
@@ -21,6 +26,12 @@ public class ConnectionService {
     @Inject
     ConnectionRepository connectionRepository;
 
+    @Inject
+    SubscriptionRepository subscriptionRepository;
+
+    @Inject
+    LocalConnectionRegistry localRegistry;
+
     /**
      * Save a new WebSocket connection
      *
@@ -42,20 +53,48 @@ public class ConnectionService {
                 .ttl(expiresAt.getEpochSecond())
                 .build();
 
-        connectionRepository.save(connection);
+        if (localRegistry.isEnabled()) {
+            localRegistry.save(connection);
+        }
+        if (!localRegistry.isAuthoritative()) {
+            connectionRepository.save(connection);
+        }
         Log.infof("Saved connection: connectionId=%s, userSub=%s", connectionId, userSub);
     }
 
     /**
-     * Delete a WebSocket connection
+     * Delete a WebSocket connection and its topic subscriptions
      *
      * @param connectionId The API Gateway connection ID
      */
     public void deleteConnection(String connectionId) {
-        connectionRepository.delete(connectionId);
+        if (localRegistry.isEnabled()) {
+            localRegistry.remove(connectionId);
+        }
+        if (!localRegistry.isAuthoritative()) {
+            subscriptionRepository.deleteByConnections(List.of(connectionId));
+            connectionRepository.delete(connectionId);
+        }
         Log.infof("Deleted connection: connectionId=%s", connectionId);
     }
 
+    /**
+     * Delete many WebSocket connections (e.g. found gone while pushing) and their
+     * topic subscriptions
+     *
+     * @param connectionIds The API Gateway connection IDs
+     */
+    public void deleteConnections(List<String> connectionIds) {
+        if (localRegistry.isEnabled()) {
+            connectionIds.forEach(localRegistry::remove);
+        }
+        if (!localRegistry.isAuthoritative()) {
+            subscriptionRepository.deleteByConnections(connectionIds);
+            connectionRepository.deleteAll(connectionIds);
+        }
+        Log.infof("Deleted %d connections", connectionIds.size());
+    }
+
     /**
      * Get a connection by ID
      *
@@ -63,6 +102,10 @@ public class ConnectionService {
      * @return The connection or null if not found
      */
     public WebSocketConnection getConnection(String connectionId) {
+        WebSocketConnection local = localRegistry.isEnabled() ? localRegistry.get(connectionId) : null;
+        if (local != null || localRegistry.isAuthoritative()) {
+            return local;
+        }
         return connectionRepository.getById(connectionId);
     }
 
@@ -73,6 +116,9 @@ public class ConnectionService {
      * @return List of connections for the user
      */
     public List<WebSocketConnection> getConnectionsForUser(String userSub) {
+        if (localRegistry.isAuthoritative()) {
+            return localRegistry.getByUserSub(userSub);
+        }
         return connectionRepository.getByUserSub(userSub);
     }
 }
@@ -1,5 +1,7 @@
 package com.fulfai.notification.connection;
 
+import com.fulfai.notification.replay.LoggedMessage;
+import com.fulfai.notification.subscription.Subscription;
 import io.quarkus.runtime.annotations.RegisterForReflection;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags;
@@ -35,4 +37,54 @@ public class Schemas {
                     .getter(WebSocketConnection::getTtl)
                     .setter(WebSocketConnection::setTtl))
             .build();
+
+    public static final TableSchema<Subscription> SUBSCRIPTION_SCHEMA = TableSchema.builder(Subscription.class)
+            .newItemSupplier(Subscription::new)
+            .addAttribute(String.class, a -> a.name("connectionId")
+                    .getter(Subscription::getConnectionId)
+                    .setter(Subscription::setConnectionId)
+                    .tags(StaticAttributeTags.primaryPartitionKey(),
+                            StaticAttributeTags.secondarySortKey(Subscription.TOPIC_GSI)))
+            .addAttribute(String.class, a -> a.name("topic")
+                    .getter(Subscription::getTopic)
+                    .setter(Subscription::setTopic)
+                    .tags(StaticAttributeTags.primarySortKey(),
+                            StaticAttributeTags.secondaryPartitionKey(Subscription.TOPIC_GSI)))
+            .addAttribute(String.class, a -> a.name("userSub")
+                    .getter(Subscription::getUserSub)
+                    .setter(Subscription::setUserSub))
+            .addAttribute(String.class, a -> a.name("domainName")
+                    .getter(Subscription::getDomainName)
+                    .setter(Subscription::setDomainName))
+            .addAttribute(String.class, a -> a.name("stage")
+                    .getter(Subscription::getStage)
+                    .setter(Subscription::setStage))
+            .addAttribute(Instant.class, a -> a.name("subscribedAt")
+                    .getter(Subscription::getSubscribedAt)
+                    .setter(Subscription::setSubscribedAt))
+            .addAttribute(Long.class, a -> a.name("ttl")
+                    .getter(Subscription::getTtl)
+                    .setter(Subscription::setTtl))
+            .build();
+
+    public static final TableSchema<LoggedMessage> MESSAGE_LOG_SCHEMA = TableSchema.builder(LoggedMessage.class)
+            .newItemSupplier(LoggedMessage::new)
+            .addAttribute(String.class, a -> a.name("topic")
+                    .getter(LoggedMessage::getTopic)
+                    .setter(LoggedMessage::setTopic)
+                    .tags(StaticAttributeTags.primaryPartitionKey()))
+            .addAttribute(Long.class, a -> a.name("cursor")
+                    .getter(LoggedMessage::getCursor)
+                    .setter(LoggedMessage::setCursor)
+                    .tags(StaticAttributeTags.primarySortKey()))
+            .addAttribute(String.class, a -> a.name("data")
+                    .getter(LoggedMessage::getData)
+                    .setter(LoggedMessage::setData))
+            .addAttribute(Instant.class, a -> a.name("publishedAt")
+                    .getter(LoggedMessage::getPublishedAt)
+                    .setter(LoggedMessage::setPublishedAt))
+            .addAttribute(Long.class, a -> a.name("ttl")
+                    .getter(LoggedMessage::getTtl)
+                    .setter(LoggedMessage::setTtl))
+            .build();
 }
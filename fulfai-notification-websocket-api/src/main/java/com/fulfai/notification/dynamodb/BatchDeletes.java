@@ -0,0 +1,52 @@
+package com.fulfai.notification.dynamodb;
+
+import io.quarkus.logging.Log;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+
+import java.util.List;
+
+/**
+ * BatchWriteItem deletes (25 keys per request), retrying unprocessed keys a few times
+ */
+public final class BatchDeletes {
+
+    private static final int BATCH_SIZE = 25;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private BatchDeletes() {
+    }
+
+    /**
+     * Delete items by key. Keys still unprocessed after the last attempt are
+     * logged and left for TTL.
+     *
+     * @return Number of keys that could not be deleted
+     */
+    public static <T> int deleteAll(DynamoDbEnhancedClient client, DynamoDbTable<T> table, Class<T> itemClass,
+            List<Key> keys) {
+        int remaining = 0;
+        for (int start = 0; start < keys.size(); start += BATCH_SIZE) {
+            List<Key> pending = keys.subList(start, Math.min(start + BATCH_SIZE, keys.size()));
+            for (int attempt = 1; !pending.isEmpty(); attempt++) {
+                WriteBatch.Builder<T> batch = WriteBatch.builder(itemClass).mappedTableResource(table);
+                pending.forEach(batch::addDeleteItem);
+                BatchWriteResult result = client.batchWriteItem(BatchWriteItemEnhancedRequest.builder()
+                        .addWriteBatch(batch.build())
+                        .build());
+                pending = result.unprocessedDeleteItemsForTable(table);
+                if (!pending.isEmpty() && attempt >= MAX_ATTEMPTS) {
+                    Log.warnf("Gave up deleting %d items from %s; they expire by TTL", pending.size(),
+                            table.tableName());
+                    remaining += pending.size();
+                    break;
+                }
+            }
+        }
+        return remaining;
+    }
+}
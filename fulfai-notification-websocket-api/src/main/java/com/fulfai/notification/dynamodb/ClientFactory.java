@@ -15,6 +15,10 @@ public class ClientFactory {
 
     DynamoDbEnhancedClient enhancedClient;
 
+    public DynamoDbClient getDynamoClient() {
+        return dynamoDbClient;
+    }
+
     public DynamoDbEnhancedClient getEnhancedDynamoClient() {
         if (enhancedClient == null) {
             Log.debug("Creating a new DynamoDB Enhanced Client");
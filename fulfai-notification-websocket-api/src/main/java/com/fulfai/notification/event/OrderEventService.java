@@ -0,0 +1,140 @@
+package com.fulfai.notification.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfai.notification.connection.WebSocketConnection;
+import com.fulfai.notification.push.PushResult;
+import com.fulfai.notification.push.PushService;
+import com.fulfai.notification.replay.MessageLogService;
+import com.fulfai.notification.subscription.Subscription;
+import com.fulfai.notification.subscription.SubscriptionService;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pushes order status changes to the connections subscribed to the order, its
+ * branch or its company.
+ *
+ * A batch of changes is coalesced per connection: each connection gets one
+ * frame holding the latest change of every order it follows, however many
+ * topics it reached it through. The coalescing window is therefore the batch,
+ * i.e. the stream event source mapping's batching window.
+ *
+ * Each topic's share of a batch is also logged for replay, whether or not anyone
+ * is subscribed right now, and frames carry the resulting cursor per topic:
+ * {"type":"order.status","events":[...],"cursors":{"branch:1":42}}
+ */
+@ApplicationScoped
+@RegisterForReflection
+public class OrderEventService {
+
+    public static final String FRAME_TYPE = "order.status";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Inject
+    SubscriptionService subscriptionService;
+
+    @Inject
+    PushService pushService;
+
+    @Inject
+    MessageLogService messageLogService;
+
+    /**
+     * Push a batch of status changes to subscribers
+     *
+     * @param changes Status changes in the order they happened
+     * @return Delivery counts
+     */
+    public PushResult publish(List<OrderStatusEvent> changes) {
+        Map<String, List<OrderStatusEvent>> byTopic = new LinkedHashMap<>();
+        for (OrderStatusEvent change : coalesce(changes)) {
+            for (String topic : topics(change)) {
+                byTopic.computeIfAbsent(topic, t -> new ArrayList<>()).add(change);
+            }
+        }
+
+        Map<String, WebSocketConnection> connections = new LinkedHashMap<>();
+        Map<String, Map<String, OrderStatusEvent>> frames = new LinkedHashMap<>();
+        Map<String, Map<String, Long>> cursors = new LinkedHashMap<>();
+        for (Map.Entry<String, List<OrderStatusEvent>> topic : byTopic.entrySet()) {
+            long cursor = messageLogService.append(topic.getKey(), write(topic.getValue()));
+            for (Subscription subscription : subscriptionService.getSubscribers(topic.getKey())) {
+                String connectionId = subscription.getConnectionId();
+                connections.computeIfAbsent(connectionId, id -> SubscriptionService.toConnection(subscription));
+                Map<String, OrderStatusEvent> frame = frames.computeIfAbsent(connectionId,
+                        id -> new LinkedHashMap<>());
+                topic.getValue().forEach(change -> frame.put(change.getOrderId(), change));
+                cursors.computeIfAbsent(connectionId, id -> new LinkedHashMap<>()).put(topic.getKey(), cursor);
+            }
+        }
+        if (frames.isEmpty()) {
+            return PushResult.empty();
+        }
+
+        Map<WebSocketConnection, String> payloads = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, OrderStatusEvent>> frame : frames.entrySet()) {
+            payloads.put(connections.get(frame.getKey()),
+                    toFrame(frame.getValue().values(), cursors.get(frame.getKey())));
+        }
+        PushResult result = pushService.sendEach(payloads);
+        Log.infof("Pushed %d order status changes to %d connections: delivered=%d, gone=%d, failed=%d",
+                changes.size(), payloads.size(), result.getDelivered(), result.getGone(), result.getFailed());
+        return result;
+    }
+
+    /**
+     * One change per order: the first previous status and the last status, so
+     * RECEIVED -> ACCEPTED -> PREPARED in one batch reads as RECEIVED -> PREPARED.
+     */
+    private static List<OrderStatusEvent> coalesce(List<OrderStatusEvent> changes) {
+        Map<String, OrderStatusEvent> byOrder = new LinkedHashMap<>();
+        for (OrderStatusEvent change : changes) {
+            String key = change.getCompanyId() + "#" + change.getOrderId();
+            OrderStatusEvent earlier = byOrder.remove(key);
+            if (earlier != null) {
+                change = change.toBuilder().previousStatus(earlier.getPreviousStatus()).build();
+            }
+            byOrder.put(key, change);
+        }
+        return new ArrayList<>(byOrder.values());
+    }
+
+    private static Set<String> topics(OrderStatusEvent change) {
+        Set<String> topics = new LinkedHashSet<>();
+        topics.add("order:" + change.getOrderId());
+        if (change.getBranchId() != null) {
+            topics.add("branch:" + change.getBranchId());
+        }
+        if (change.getCompanyId() != null) {
+            topics.add("company:" + change.getCompanyId());
+        }
+        return topics;
+    }
+
+    private static String toFrame(Iterable<OrderStatusEvent> events, Map<String, Long> cursors) {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", FRAME_TYPE);
+        frame.put("events", events);
+        frame.put("cursors", cursors);
+        return write(frame);
+    }
+
+    private static String write(Object value) {
+        try {
+            return MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize order status events", e);
+        }
+    }
+}
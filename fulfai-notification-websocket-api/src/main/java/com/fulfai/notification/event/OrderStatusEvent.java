@@ -0,0 +1,39 @@
+package com.fulfai.notification.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A change of an order's status, as pushed to clients.
+ * Kept small on purpose: clients fetch the full order only if they need it.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@RegisterForReflection
+public class OrderStatusEvent {
+
+    private String orderId;
+
+    private String companyId;
+
+    private String branchId;
+
+    /**
+     * The status before the change, null for a new order
+     */
+    private String previousStatus;
+
+    private String status;
+
+    /**
+     * When the change was written (the order's updatedAt, ISO-8601)
+     */
+    private String updatedAt;
+}
@@ -0,0 +1,38 @@
+package com.fulfai.notification.event;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lambda handler for the order table's DynamoDB stream.
+ * Deployed as its own function from the same artifact with
+ * QUARKUS_LAMBDA_HANDLER=order-stream.
+ *
+ * Failed pushes are not retried, like any push; a failure to read
+ * subscriptions fails the invocation so Lambda retries the batch.
+ */
+@Named("order-stream")
+@RegisterForReflection
+public class OrderStreamHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+
+    @Inject
+    OrderEventService orderEventService;
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, Object> event, Context context) {
+        List<OrderStatusEvent> changes = OrderStreamRecords.statusChanges(event);
+        Log.debugf("Order stream batch: %d status changes", changes.size());
+
+        if (!changes.isEmpty()) {
+            orderEventService.publish(changes);
+        }
+        return Map.of("batchItemFailures", List.of());
+    }
+}
@@ -0,0 +1,76 @@
+package com.fulfai.notification.event;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reads order status changes out of a DynamoDB Streams Lambda event.
+ *
+ * Works on the raw event as a map, the same shape as the JSON Lambda receives
+ * ({"Records": [{"eventName": "MODIFY", "dynamodb": {"NewImage": ..., "OldImage": ...}}]}),
+ * so events can be crafted by hand for local runs. The order table's stream must
+ * use the NEW_AND_OLD_IMAGES view type.
+ */
+@RegisterForReflection
+public class OrderStreamRecords {
+
+    private OrderStreamRecords() {
+    }
+
+    /**
+     * The status transitions in a stream event, in stream order. New orders count
+     * as a transition from no status; deletions and edits that keep the status are skipped.
+     *
+     * @param event The Lambda event
+     * @return One event per status change
+     */
+    @SuppressWarnings("unchecked")
+    public static List<OrderStatusEvent> statusChanges(Map<String, Object> event) {
+        List<OrderStatusEvent> changes = new ArrayList<>();
+        List<Map<String, Object>> records = (List<Map<String, Object>>) event.get("Records");
+        if (records == null) {
+            return changes;
+        }
+
+        for (Map<String, Object> record : records) {
+            String eventName = (String) record.get("eventName");
+            Map<String, Object> dynamodb = (Map<String, Object>) record.get("dynamodb");
+            if (dynamodb == null || !("INSERT".equals(eventName) || "MODIFY".equals(eventName))) {
+                continue;
+            }
+            Map<String, Object> newImage = (Map<String, Object>) dynamodb.get("NewImage");
+            Map<String, Object> oldImage = (Map<String, Object>) dynamodb.get("OldImage");
+            String status = string(newImage, "status");
+            String previousStatus = string(oldImage, "status");
+            if (status == null || Objects.equals(status, previousStatus)) {
+                continue;
+            }
+
+            changes.add(OrderStatusEvent.builder()
+                    .orderId(string(newImage, "orderId"))
+                    .companyId(string(newImage, "companyId"))
+                    .branchId(string(newImage, "branchId"))
+                    .previousStatus(previousStatus)
+                    .status(status)
+                    .updatedAt(string(newImage, "updatedAt"))
+                    .build());
+        }
+        return changes;
+    }
+
+    /**
+     * A string attribute of an image in DynamoDB JSON ({"name": {"S": "value"}})
+     */
+    @SuppressWarnings("unchecked")
+    private static String string(Map<String, Object> image, String name) {
+        if (image == null) {
+            return null;
+        }
+        Map<String, Object> value = (Map<String, Object>) image.get(name);
+        return value == null ? null : (String) value.get("S");
+    }
+}
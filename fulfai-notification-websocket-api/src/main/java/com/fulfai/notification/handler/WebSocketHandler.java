@@ -3,6 +3,8 @@ package com.fulfai.notification.handler;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.fulfai.notification.connection.ConnectionService;
+import com.fulfai.notification.subscription.ClientMessage;
+import com.fulfai.notification.subscription.SubscriptionService;
 import io.quarkus.logging.Log;
 import io.quarkus.runtime.annotations.RegisterForReflection;
 import jakarta.inject.Inject;
@@ -23,6 +25,9 @@ public class WebSocketHandler implements RequestHandler<Map<String, Object>, Map
     @Inject
     ConnectionService connectionService;
 
+    @Inject
+    SubscriptionService subscriptionService;
+
     @Override
     public Map<String, Object> handleRequest(Map<String, Object> event, Context context) {
         Log.debugf("WebSocket event received: %s", event);
@@ -132,8 +137,11 @@ public class WebSocketHandler implements RequestHandler<Map<String, Object>, Map
         String body = (String) event.get("body");
         Log.debugf("Message body: %s", body);
 
-        // Echo back for now - can be extended for custom message handling
-        return successResponse("Message received");
+        try {
+            return successResponse(subscriptionService.handleClientMessage(connectionId, body));
+        } catch (IllegalArgumentException e) {
+            return errorResponse(400, e.getMessage());
+        }
     }
 
     private Map<String, Object> handleMessage(String connectionId, String routeKey, Map<String, Object> event) {
@@ -141,7 +149,10 @@ public class WebSocketHandler implements RequestHandler<Map<String, Object>, Map
         String body = (String) event.get("body");
         Log.debugf("Message body: %s", body);
 
-        // Handle custom routes here
+        // With route selection on $request.body.action, subscribe/unsubscribe arrive as their own routes
+        if (ClientMessage.SUBSCRIBE.equals(routeKey) || ClientMessage.UNSUBSCRIBE.equals(routeKey)) {
+            return handleDefault(connectionId, event);
+        }
         return successResponse("Route handled: " + routeKey);
     }
 
@@ -0,0 +1,69 @@
+package com.fulfai.notification.push;
+
+import com.fulfai.notification.connection.WebSocketConnection;
+import io.quarkus.arc.DefaultBean;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.apigatewaymanagementapi.ApiGatewayManagementApiClient;
+import software.amazon.awssdk.services.apigatewaymanagementapi.ApiGatewayManagementApiClientBuilder;
+import software.amazon.awssdk.services.apigatewaymanagementapi.model.GoneException;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Posts messages through the API Gateway Management API (PostToConnection).
+ * One client is kept per callback endpoint (domain + stage) and reused across
+ * invocations.
+ */
+@DefaultBean
+@ApplicationScoped
+@RegisterForReflection
+public class ApiGatewayPushTransport implements PushTransport {
+
+    @ConfigProperty(name = "websocket.push.region")
+    Optional<String> region;
+
+    private final Map<String, ApiGatewayManagementApiClient> clients = new ConcurrentHashMap<>();
+
+    @Override
+    public DeliveryStatus send(WebSocketConnection connection, String payload) {
+        try {
+            clientFor(connection.getCallbackUrl()).postToConnection(r -> r
+                    .connectionId(connection.getConnectionId())
+                    .data(SdkBytes.fromUtf8String(payload)));
+            return DeliveryStatus.DELIVERED;
+        } catch (GoneException e) {
+            Log.debugf("Connection gone: %s", connection.getConnectionId());
+            return DeliveryStatus.GONE;
+        } catch (SdkException e) {
+            Log.warnf("Failed to post to connection %s: %s", connection.getConnectionId(), e.getMessage());
+            return DeliveryStatus.FAILED;
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        clients.values().forEach(ApiGatewayManagementApiClient::close);
+    }
+
+    private ApiGatewayManagementApiClient clientFor(String endpoint) {
+        return clients.computeIfAbsent(endpoint, url -> {
+            Log.debugf("Creating API Gateway Management client for %s", url);
+            ApiGatewayManagementApiClientBuilder builder = ApiGatewayManagementApiClient.builder()
+                    .endpointOverride(URI.create(url))
+                    .httpClientBuilder(UrlConnectionHttpClient.builder());
+            region.ifPresent(r -> builder.region(Region.of(r)));
+            return builder.build();
+        });
+    }
+}
@@ -0,0 +1,10 @@
+package com.fulfai.notification.push;
+
+/**
+ * Outcome of posting one message to one connection
+ */
+public enum DeliveryStatus {
+    DELIVERED,  // Accepted by API Gateway
+    GONE,       // Connection no longer exists (410), safe to delete
+    FAILED      // Any other error; the connection is kept
+}
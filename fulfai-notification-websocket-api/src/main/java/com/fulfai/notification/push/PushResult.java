@@ -0,0 +1,37 @@
+package com.fulfai.notification.push;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Summary of a fan-out to several connections
+ */
+@Data
+@AllArgsConstructor
+@RegisterForReflection
+public class PushResult {
+
+    /**
+     * Connections that accepted the message
+     */
+    private int delivered;
+
+    /**
+     * Connections that no longer exist; they have been deleted
+     */
+    private int gone;
+
+    /**
+     * Connections that failed for any other reason; they are kept
+     */
+    private int failed;
+
+    public static PushResult empty() {
+        return new PushResult(0, 0, 0);
+    }
+
+    public PushResult plus(PushResult other) {
+        return new PushResult(delivered + other.delivered, gone + other.gone, failed + other.failed);
+    }
+}
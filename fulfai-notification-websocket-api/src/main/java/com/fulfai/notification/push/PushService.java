@@ -0,0 +1,123 @@
+package com.fulfai.notification.push;
+
+import com.fulfai.notification.connection.ConnectionService;
+import com.fulfai.notification.connection.WebSocketConnection;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Pushes messages to open WebSocket connections.
+ *
+ * A message for a user goes to every connection of that user (one per open
+ * app/tab), posted in parallel on a bounded pool. Connections reported gone
+ * (410) are deleted in one batch afterwards, with their subscriptions.
+ */
+@ApplicationScoped
+@RegisterForReflection
+public class PushService {
+
+    @Inject
+    ConnectionService connectionService;
+
+    @Inject
+    PushTransport transport;
+
+    @ConfigProperty(name = "websocket.push.concurrency", defaultValue = "16")
+    int concurrency;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(concurrency, 1), r -> {
+            Thread thread = new Thread(r, "websocket-push-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Send a message to every connection of a user
+     *
+     * @param userSub The Cognito user sub
+     * @param payload The message body, usually JSON
+     * @return Delivery counts
+     */
+    public PushResult sendToUser(String userSub, String payload) {
+        List<WebSocketConnection> connections = connectionService.getConnectionsForUser(userSub);
+        if (connections.isEmpty()) {
+            Log.debugf("No open connections for userSub: %s", userSub);
+            return PushResult.empty();
+        }
+        return sendToConnections(connections, payload);
+    }
+
+    /**
+     * Send a message to the given connections in parallel and delete those that are gone
+     *
+     * @param connections The target connections
+     * @param payload     The message body, usually JSON
+     * @return Delivery counts
+     */
+    public PushResult sendToConnections(List<WebSocketConnection> connections, String payload) {
+        return send(connections, connection -> payload);
+    }
+
+    /**
+     * Send each connection its own message in parallel and delete those that are gone
+     *
+     * @param payloads The message body per target connection
+     * @return Delivery counts
+     */
+    public PushResult sendEach(Map<WebSocketConnection, String> payloads) {
+        return send(new ArrayList<>(payloads.keySet()), payloads::get);
+    }
+
+    private PushResult send(List<WebSocketConnection> connections, Function<WebSocketConnection, String> payload) {
+        List<CompletableFuture<DeliveryStatus>> sends = new ArrayList<>(connections.size());
+        for (WebSocketConnection connection : connections) {
+            sends.add(CompletableFuture.supplyAsync(() -> transport.send(connection, payload.apply(connection)),
+                    executor));
+        }
+
+        int delivered = 0;
+        int failed = 0;
+        List<String> gone = new ArrayList<>();
+        for (int i = 0; i < connections.size(); i++) {
+            DeliveryStatus status = sends.get(i).join();
+            switch (status) {
+                case DELIVERED -> delivered++;
+                case GONE -> gone.add(connections.get(i).getConnectionId());
+                case FAILED -> failed++;
+            }
+        }
+
+        if (!gone.isEmpty()) {
+            connectionService.deleteConnections(gone);
+            Log.infof("Removed %d gone connections", gone.size());
+        }
+        Log.debugf("Pushed to %d connections: delivered=%d, gone=%d, failed=%d", connections.size(), delivered,
+                gone.size(), failed);
+        return new PushResult(delivered, gone.size(), failed);
+    }
+}
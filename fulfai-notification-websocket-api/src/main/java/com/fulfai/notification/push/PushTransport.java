@@ -0,0 +1,22 @@
+package com.fulfai.notification.push;
+
+import com.fulfai.notification.connection.WebSocketConnection;
+
+/**
+ * Delivers a message to a single WebSocket connection.
+ *
+ * The default implementation posts through the API Gateway Management API;
+ * tests and local runs can provide their own bean to replace it.
+ */
+public interface PushTransport {
+
+    /**
+     * Send a message to a connection. Must not throw: every error is reported
+     * as a {@link DeliveryStatus}.
+     *
+     * @param connection The target connection (carries the callback endpoint)
+     * @param payload    The message body, usually JSON
+     * @return The delivery outcome
+     */
+    DeliveryStatus send(WebSocketConnection connection, String payload);
+}
@@ -0,0 +1,82 @@
+package com.fulfai.notification.replay;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+import java.time.Instant;
+
+/**
+ * A message published to a topic, kept for a short time so reconnecting
+ * clients can catch up on what they missed.
+ *
+ * Table: FulfAI-{env}-WebSocketMessageLog
+ * PK: topic, SK: cursor (increasing per topic)
+ * The item with cursor 0 of each topic holds the topic's last cursor (lastCursor).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@DynamoDbBean
+@RegisterForReflection
+public class LoggedMessage {
+
+    /**
+     * The topic, "{kind}:{id}"
+     */
+    private String topic;
+
+    /**
+     * Position of the message in the topic
+     */
+    private Long cursor;
+
+    /**
+     * The message data as JSON
+     */
+    private String data;
+
+    /**
+     * When the message was published
+     */
+    private Instant publishedAt;
+
+    /**
+     * TTL (Unix timestamp in seconds)
+     */
+    private Long ttl;
+
+    @DynamoDbPartitionKey
+    @DynamoDbAttribute("topic")
+    public String getTopic() {
+        return topic;
+    }
+
+    @DynamoDbSortKey
+    @DynamoDbAttribute("cursor")
+    public Long getCursor() {
+        return cursor;
+    }
+
+    @DynamoDbAttribute("data")
+    public String getData() {
+        return data;
+    }
+
+    @DynamoDbAttribute("publishedAt")
+    public Instant getPublishedAt() {
+        return publishedAt;
+    }
+
+    @DynamoDbAttribute("ttl")
+    public Long getTtl() {
+        return ttl;
+    }
+}
@@ -0,0 +1,108 @@
+package com.fulfai.notification.replay;
+
+import com.fulfai.notification.connection.Schemas;
+import com.fulfai.notification.dynamodb.ClientFactory;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository for the per-topic message log
+ */
+@ApplicationScoped
+@RegisterForReflection
+public class MessageLogRepository {
+
+    private static final long HEAD_CURSOR = 0L;
+
+    @ConfigProperty(name = "websocket.message-log.table.name")
+    String tableName;
+
+    @Inject
+    ClientFactory clientFactory;
+
+    private DynamoDbTable<LoggedMessage> getTable() {
+        return clientFactory.getEnhancedDynamoClient().table(tableName, Schemas.MESSAGE_LOG_SCHEMA);
+    }
+
+    /**
+     * Reserve the next cursor of a topic with an atomic increment of its head item.
+     * A topic whose head has expired restarts from the current time in milliseconds,
+     * so cursors never go backwards for clients that still hold an old one.
+     *
+     * @param topic   The topic
+     * @param headTtl TTL of the head item (Unix timestamp in seconds)
+     * @return The reserved cursor
+     */
+    public long nextCursor(String topic, long headTtl) {
+        UpdateItemResponse response = clientFactory.getDynamoClient().updateItem(builder -> builder
+                .tableName(tableName)
+                .key(headKey(topic))
+                .updateExpression("SET lastCursor = if_not_exists(lastCursor, :start) + :one, #ttl = :ttl")
+                .expressionAttributeNames(Map.of("#ttl", "ttl"))
+                .expressionAttributeValues(Map.of(
+                        ":start", number(System.currentTimeMillis()),
+                        ":one", number(1),
+                        ":ttl", number(headTtl)))
+                .returnValues(ReturnValue.UPDATED_NEW));
+        return Long.parseLong(response.attributes().get("lastCursor").n());
+    }
+
+    /**
+     * The last cursor reserved for a topic, or null if the topic has no live head
+     */
+    public Long getLastCursor(String topic) {
+        GetItemResponse response = clientFactory.getDynamoClient().getItem(builder -> builder
+                .tableName(tableName)
+                .key(headKey(topic))
+                .consistentRead(true)
+                .projectionExpression("lastCursor"));
+        AttributeValue lastCursor = response.hasItem() ? response.item().get("lastCursor") : null;
+        return lastCursor == null ? null : Long.parseLong(lastCursor.n());
+    }
+
+    /**
+     * Save a message at its reserved cursor
+     */
+    public void save(LoggedMessage message) {
+        Log.debugf("Logging message: %s #%d", message.getTopic(), message.getCursor());
+        getTable().putItem(message);
+    }
+
+    /**
+     * Messages of a topic with from < cursor <= to, oldest first
+     *
+     * @param limit Maximum number of messages to return
+     */
+    public List<LoggedMessage> getBetween(String topic, long from, long to, int limit) {
+        QueryEnhancedRequest request = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.sortBetween(
+                        Key.builder().partitionValue(topic).sortValue(from + 1).build(),
+                        Key.builder().partitionValue(topic).sortValue(to).build()))
+                .consistentRead(true)
+                .limit(limit)
+                .build();
+        return getTable().query(request).items().stream().limit(limit).toList();
+    }
+
+    private static Map<String, AttributeValue> headKey(String topic) {
+        return Map.of("topic", AttributeValue.fromS(topic), "cursor", number(HEAD_CURSOR));
+    }
+
+    private static AttributeValue number(long value) {
+        return AttributeValue.fromN(Long.toString(value));
+    }
+}
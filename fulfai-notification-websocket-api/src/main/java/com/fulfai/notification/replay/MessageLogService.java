@@ -0,0 +1,167 @@
+package com.fulfai.notification.replay;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Per-topic message log for missed-message replay.
+ *
+ * Every published message is logged under an increasing per-topic cursor and
+ * pushed with that cursor. A client that reconnects subscribes again with the
+ * last cursor it saw and gets everything after it in one "replay" frame, or a
+ * "resync" frame when that is not possible (the messages have expired, or there
+ * are too many to fit one frame) and it should reload over REST instead.
+ *
+ * Frames:
+ * {"type":"message","topic":"branch:1","cursor":42,"data":{...}}
+ * {"type":"replay","topic":"branch:1","cursor":44,"messages":[{"cursor":43,"data":...},{"cursor":44,"data":...}]}
+ * {"type":"resync","topic":"branch:1","cursor":44}
+ *
+ * A message published while a client resubscribes can arrive both live and in
+ * the replay; clients drop anything at or below the cursor they already have.
+ */
+@ApplicationScoped
+@RegisterForReflection
+public class MessageLogService {
+
+    public static final String MESSAGE = "message";
+    public static final String REPLAY = "replay";
+    public static final String RESYNC = "resync";
+
+    // API Gateway rejects frames over 128 KB; leave room for the envelope
+    private static final int MAX_FRAME_BYTES = 120 * 1024;
+
+    // The head outlives the messages so cursors keep increasing between bursts
+    private static final long HEAD_TTL_SECONDS = 7 * 24 * 3600;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Inject
+    MessageLogRepository messageLogRepository;
+
+    @ConfigProperty(name = "websocket.message-log.ttl-minutes", defaultValue = "15")
+    long ttlMinutes;
+
+    @ConfigProperty(name = "websocket.replay.max-messages", defaultValue = "100")
+    int maxMessages;
+
+    /**
+     * Log a message for a topic
+     *
+     * @param topic The topic, "{kind}:{id}"
+     * @param data  The message data, JSON
+     * @return The message's cursor
+     */
+    public long append(String topic, String data) {
+        Instant now = Instant.now();
+        long cursor = messageLogRepository.nextCursor(topic, now.getEpochSecond() + HEAD_TTL_SECONDS);
+        messageLogRepository.save(LoggedMessage.builder()
+                .topic(topic)
+                .cursor(cursor)
+                .data(data)
+                .publishedAt(now)
+                .ttl(now.getEpochSecond() + ttlMinutes * 60)
+                .build());
+        return cursor;
+    }
+
+    /**
+     * The live frame for a logged message
+     *
+     * @param topic  The topic
+     * @param cursor The message's cursor
+     * @param data   The message data, JSON
+     * @return The frame as JSON
+     */
+    public String messageFrame(String topic, long cursor, String data) {
+        ObjectNode frame = frame(MESSAGE, topic, cursor);
+        frame.set("data", parse(data));
+        return write(frame);
+    }
+
+    /**
+     * The frame that brings a client from the given cursor up to date: a replay of
+     * the missed messages, or a resync when they cannot all be replayed
+     *
+     * @param topic  The topic
+     * @param cursor The last cursor the client saw
+     * @return The frame as JSON
+     */
+    public String catchUpFrame(String topic, long cursor) {
+        Long lastCursor = messageLogRepository.getLastCursor(topic);
+        if (lastCursor == null || cursor > lastCursor) {
+            // Nothing logged recently, or a cursor from before the head expired
+            return resyncFrame(topic, lastCursor == null ? cursor : lastCursor);
+        }
+
+        ArrayNode messages = MAPPER.createArrayNode();
+        if (cursor < lastCursor) {
+            long now = Instant.now().getEpochSecond();
+            List<LoggedMessage> missed = messageLogRepository.getBetween(topic, cursor, lastCursor, maxMessages + 1)
+                    .stream()
+                    .filter(message -> message.getTtl() == null || message.getTtl() > now)
+                    .toList();
+            // A gap right after the client's cursor means messages expired (or are still being written)
+            if (missed.isEmpty() || missed.get(0).getCursor() != cursor + 1 || missed.size() > maxMessages) {
+                Log.debugf("Resync for topic %s from cursor %d: %d messages available", topic, cursor,
+                        missed.size());
+                return resyncFrame(topic, lastCursor);
+            }
+            for (LoggedMessage message : missed) {
+                ObjectNode entry = messages.addObject();
+                entry.put("cursor", message.getCursor());
+                entry.set("data", parse(message.getData()));
+            }
+        }
+
+        ObjectNode frame = frame(REPLAY, topic, messages.isEmpty()
+                ? cursor
+                : messages.get(messages.size() - 1).get("cursor").asLong());
+        frame.set("messages", messages);
+        String json = write(frame);
+        if (json.getBytes(StandardCharsets.UTF_8).length > MAX_FRAME_BYTES) {
+            return resyncFrame(topic, lastCursor);
+        }
+        return json;
+    }
+
+    private String resyncFrame(String topic, long cursor) {
+        return write(frame(RESYNC, topic, cursor));
+    }
+
+    private static ObjectNode frame(String type, String topic, long cursor) {
+        ObjectNode frame = MAPPER.createObjectNode();
+        frame.put("type", type);
+        frame.put("topic", topic);
+        frame.put("cursor", cursor);
+        return frame;
+    }
+
+    private static JsonNode parse(String data) {
+        try {
+            return MAPPER.readTree(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Message data is not valid JSON", e);
+        }
+    }
+
+    private static String write(JsonNode frame) {
+        try {
+            return MAPPER.writeValueAsString(frame);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize frame", e);
+        }
+    }
+}
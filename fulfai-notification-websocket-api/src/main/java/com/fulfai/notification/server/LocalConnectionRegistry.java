@@ -0,0 +1,147 @@
+package com.fulfai.notification.server;
+
+import com.fulfai.notification.connection.WebSocketConnection;
+import com.fulfai.notification.push.DeliveryStatus;
+import com.fulfai.notification.subscription.Subscription;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import io.vertx.core.http.ServerWebSocket;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory connections and subscriptions of this node in server mode
+ * (websocket.server.enabled). Empty and unused when running as a Lambda.
+ *
+ * A single node is authoritative: everything lives here and DynamoDB is not
+ * touched for connections or subscriptions. With websocket.server.cluster.enabled
+ * they are also persisted, so a publish on any node can reach subscribers on the
+ * others.
+ */
+@ApplicationScoped
+@RegisterForReflection
+public class LocalConnectionRegistry {
+
+    @ConfigProperty(name = "websocket.server.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "websocket.server.cluster.enabled", defaultValue = "false")
+    boolean clustered;
+
+    private final Map<String, WebSocketConnection> connections = new ConcurrentHashMap<>();
+    private final Map<String, ServerWebSocket> sockets = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Subscription>> subscriptionsByConnection = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Subscription>> subscriptionsByTopic = new ConcurrentHashMap<>();
+
+    /**
+     * Whether this process serves WebSockets itself
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether this registry holds every connection and subscription, so DynamoDB
+     * need not be consulted (server mode without clustering)
+     */
+    public boolean isAuthoritative() {
+        return enabled && !clustered;
+    }
+
+    /**
+     * Attach the socket of a newly opened connection
+     */
+    public void open(String connectionId, ServerWebSocket socket) {
+        sockets.put(connectionId, socket);
+    }
+
+    /**
+     * Whether the connection's socket is open on this node
+     */
+    public boolean isLocal(String connectionId) {
+        return sockets.containsKey(connectionId);
+    }
+
+    public void save(WebSocketConnection connection) {
+        connections.put(connection.getConnectionId(), connection);
+    }
+
+    public WebSocketConnection get(String connectionId) {
+        return connections.get(connectionId);
+    }
+
+    public List<WebSocketConnection> getByUserSub(String userSub) {
+        return connections.values().stream()
+                .filter(connection -> Objects.equals(connection.getUserSub(), userSub))
+                .toList();
+    }
+
+    /**
+     * Forget a connection, its socket and its subscriptions
+     */
+    public void remove(String connectionId) {
+        connections.remove(connectionId);
+        sockets.remove(connectionId);
+        Map<String, Subscription> subscriptions = subscriptionsByConnection.remove(connectionId);
+        if (subscriptions != null) {
+            subscriptions.keySet().forEach(topic -> removeFromTopic(topic, connectionId));
+        }
+    }
+
+    public void subscribe(Subscription subscription) {
+        subscriptionsByConnection.computeIfAbsent(subscription.getConnectionId(), id -> new ConcurrentHashMap<>())
+                .put(subscription.getTopic(), subscription);
+        subscriptionsByTopic.compute(subscription.getTopic(), (topic, subscribers) -> {
+            Map<String, Subscription> updated = subscribers != null ? subscribers : new ConcurrentHashMap<>();
+            updated.put(subscription.getConnectionId(), subscription);
+            return updated;
+        });
+    }
+
+    public void unsubscribe(String connectionId, String topic) {
+        Map<String, Subscription> subscriptions = subscriptionsByConnection.get(connectionId);
+        if (subscriptions != null) {
+            subscriptions.remove(topic);
+        }
+        removeFromTopic(topic, connectionId);
+    }
+
+    public List<Subscription> getByConnection(String connectionId) {
+        return List.copyOf(subscriptionsByConnection.getOrDefault(connectionId, Map.of()).values());
+    }
+
+    public List<Subscription> getByTopic(String topic) {
+        return List.copyOf(subscriptionsByTopic.getOrDefault(topic, Map.of()).values());
+    }
+
+    /**
+     * Write a text frame to a connection open on this node. The write completes
+     * asynchronously; a connection whose write queue is full is reported as failed
+     * rather than buffered without bound.
+     */
+    public DeliveryStatus send(String connectionId, String payload) {
+        ServerWebSocket socket = sockets.get(connectionId);
+        if (socket == null || socket.isClosed()) {
+            return DeliveryStatus.GONE;
+        }
+        if (socket.writeQueueFull()) {
+            Log.warnf("Write queue full, dropping message for connection %s", connectionId);
+            return DeliveryStatus.FAILED;
+        }
+        socket.writeTextMessage(payload)
+                .onFailure(e -> Log.debugf("Failed to write to connection %s: %s", connectionId, e.getMessage()));
+        return DeliveryStatus.DELIVERED;
+    }
+
+    private void removeFromTopic(String topic, String connectionId) {
+        subscriptionsByTopic.computeIfPresent(topic, (key, subscribers) -> {
+            subscribers.remove(connectionId);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package com.fulfai.notification.server;
+
+import io.quarkus.arc.profile.IfBuildProfile;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Connect health of the other nodes in clustered server mode.
+ *
+ * A node is marked dead once failure-threshold forwards to it fail to connect
+ * within failure-window-ms, and forwards to it are short-circuited for
+ * dead-cooldown-ms. After the cooldown the next forward probes the node again: a
+ * success clears its record, a failure marks it dead again straight away.
+ *
+ * Being marked dead never deletes anything; the node may just be restarting or
+ * paused. Connections of a node that never comes back expire through their TTL.
+ */
+@IfBuildProfile("server")
+@ApplicationScoped
+@RegisterForReflection
+public class NodeHealthTracker {
+
+    @ConfigProperty(name = "websocket.server.node.failure-threshold", defaultValue = "3")
+    int failureThreshold;
+
+    @ConfigProperty(name = "websocket.server.node.failure-window-ms", defaultValue = "30000")
+    long failureWindowMs;
+
+    @ConfigProperty(name = "websocket.server.node.dead-cooldown-ms", defaultValue = "15000")
+    long deadCooldownMs;
+
+    private final Map<String, NodeState> nodes = new ConcurrentHashMap<>();
+
+    /**
+     * Whether forwards to the node should be skipped for now
+     */
+    public boolean isDead(String node) {
+        NodeState state = nodes.get(node);
+        if (state == null) {
+            return false;
+        }
+        synchronized (state) {
+            return System.currentTimeMillis() < state.deadUntil;
+        }
+    }
+
+    /**
+     * The node accepted a connection; forget its failures
+     */
+    public void recordSuccess(String node) {
+        NodeState state = nodes.remove(node);
+        if (state != null && state.deadUntil > 0) {
+            Log.infof("Node %s reachable again", node);
+        }
+    }
+
+    /**
+     * A forward to the node could not connect
+     */
+    public void recordFailure(String node) {
+        NodeState state = nodes.computeIfAbsent(node, key -> new NodeState());
+        synchronized (state) {
+            long now = System.currentTimeMillis();
+            if (now < state.deadUntil) {
+                return;
+            }
+            if (now - state.windowStart > failureWindowMs) {
+                state.windowStart = now;
+                state.failures = 0;
+            }
+            state.failures++;
+            // A node that was already marked dead and fails its probe goes straight back
+            if (state.deadUntil > 0 || state.failures >= Math.max(failureThreshold, 1)) {
+                Log.warnf("Node %s marked dead for %d ms after %d connect failures", node, deadCooldownMs,
+                        state.failures);
+                state.deadUntil = now + deadCooldownMs;
+                state.failures = 0;
+            }
+        }
+    }
+
+    private static final class NodeState {
+        private long windowStart;
+        private int failures;
+        private long deadUntil;
+    }
+}
@@ -0,0 +1,100 @@
+package com.fulfai.notification.server;
+
+import com.fulfai.notification.connection.WebSocketConnection;
+import com.fulfai.notification.push.DeliveryStatus;
+import com.fulfai.notification.push.PushTransport;
+import io.quarkus.arc.profile.IfBuildProfile;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Push transport of the server profile. Connections open on this node are written
+ * to directly; connections of other nodes (clustered mode) are forwarded to the
+ * owning node, whose address is the connection's domainName, with the same
+ * POST /@connections/{id} call API Gateway offers, authenticated with the shared
+ * cluster secret.
+ *
+ * Only a 410 from the owning node reports a connection GONE (and so deleted). A
+ * forward that cannot connect (refused, unresolvable or connect timeout) is
+ * FAILED and counted by NodeHealthTracker; while a node is marked dead its
+ * forwards fail immediately instead of costing a connect attempt on every
+ * publish.
+ */
+@IfBuildProfile("server")
+@ApplicationScoped
+@RegisterForReflection
+public class ServerPushTransport implements PushTransport {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(1);
+    private static final Duration FORWARD_TIMEOUT = Duration.ofSeconds(5);
+
+    @Inject
+    LocalConnectionRegistry localRegistry;
+
+    @Inject
+    NodeHealthTracker nodeHealth;
+
+    @ConfigProperty(name = "websocket.server.cluster.secret")
+    Optional<String> clusterSecret;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(CONNECT_TIMEOUT)
+            .build();
+
+    @Override
+    public DeliveryStatus send(WebSocketConnection connection, String payload) {
+        if (localRegistry.isLocal(connection.getConnectionId()) || localRegistry.isAuthoritative()) {
+            return localRegistry.send(connection.getConnectionId(), payload);
+        }
+        if (connection.getDomainName() == null) {
+            return DeliveryStatus.GONE;
+        }
+        if (nodeHealth.isDead(connection.getDomainName())) {
+            return DeliveryStatus.FAILED;
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(String.format("http://%s%s/%s", connection.getDomainName(),
+                        WebSocketServer.FORWARD_PATH,
+                        URLEncoder.encode(connection.getConnectionId(), StandardCharsets.UTF_8))))
+                .timeout(FORWARD_TIMEOUT)
+                .header(WebSocketServer.CLUSTER_SECRET_HEADER, clusterSecret.orElse(""))
+                .POST(HttpRequest.BodyPublishers.ofString(payload))
+                .build();
+        try {
+            int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            nodeHealth.recordSuccess(connection.getDomainName());
+            if (status == 410) {
+                return DeliveryStatus.GONE;
+            }
+            return status / 100 == 2 ? DeliveryStatus.DELIVERED : DeliveryStatus.FAILED;
+        } catch (ConnectException | HttpConnectTimeoutException e) {
+            Log.warnf("Node %s unreachable for connection %s: %s", connection.getDomainName(),
+                    connection.getConnectionId(), e.getMessage());
+            nodeHealth.recordFailure(connection.getDomainName());
+            return DeliveryStatus.FAILED;
+        } catch (IOException e) {
+            Log.warnf("Failed to forward to connection %s on %s: %s", connection.getConnectionId(),
+                    connection.getDomainName(), e.getMessage());
+            return DeliveryStatus.FAILED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return DeliveryStatus.FAILED;
+        }
+    }
+}
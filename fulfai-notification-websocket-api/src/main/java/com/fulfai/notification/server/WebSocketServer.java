@@ -0,0 +1,172 @@
+package com.fulfai.notification.server;
+
+import com.fulfai.notification.connection.ConnectionService;
+import com.fulfai.notification.push.DeliveryStatus;
+import com.fulfai.notification.subscription.SubscriptionService;
+import io.quarkus.arc.profile.IfBuildProfile;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import io.vertx.core.http.ServerWebSocket;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Serves WebSockets directly from Quarkus (server profile), as an alternative to
+ * the API Gateway Lambda deployment. Clients speak the same protocol as on
+ * $default; connect and disconnect go through ConnectionService as with
+ * $connect and $disconnect.
+ *
+ * Build and run with the "server" profile, e.g. -Dquarkus.profile=prod,server.
+ * Authentication is left to the proxy in front: the user sub is read from the
+ * header named by websocket.server.user-header, if set. The node-to-node
+ * forwarding endpoint only exists in clustered mode and requires the shared
+ * websocket.server.cluster.secret in the X-Cluster-Secret header.
+ */
+@IfBuildProfile("server")
+@ApplicationScoped
+@RegisterForReflection
+public class WebSocketServer {
+
+    /**
+     * Path other nodes post to for connections open on this one (clustered mode)
+     */
+    public static final String FORWARD_PATH = "/@connections";
+
+    /**
+     * Header carrying the shared cluster secret on forwarded messages
+     */
+    public static final String CLUSTER_SECRET_HEADER = "X-Cluster-Secret";
+
+    private static final String STAGE = "server";
+
+    @Inject
+    ConnectionService connectionService;
+
+    @Inject
+    SubscriptionService subscriptionService;
+
+    @Inject
+    LocalConnectionRegistry localRegistry;
+
+    @ConfigProperty(name = "websocket.server.path", defaultValue = "/ws")
+    String path;
+
+    @ConfigProperty(name = "websocket.server.user-header")
+    Optional<String> userHeader;
+
+    @ConfigProperty(name = "websocket.server.node-address")
+    Optional<String> nodeAddress;
+
+    @ConfigProperty(name = "websocket.server.cluster.secret")
+    Optional<String> clusterSecret;
+
+    @ConfigProperty(name = "websocket.server.worker-threads", defaultValue = "16")
+    int workerThreads;
+
+    private ExecutorService workers;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threads = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(workerThreads, 1), r -> {
+            Thread thread = new Thread(r, "websocket-server-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        workers.shutdown();
+    }
+
+    /**
+     * Register the WebSocket endpoint and the forwarding endpoint on the HTTP router
+     */
+    void init(@Observes Router router) {
+        if (!localRegistry.isEnabled()) {
+            Log.warn("Server profile built but websocket.server.enabled is false, not serving WebSockets");
+            return;
+        }
+        if (!localRegistry.isAuthoritative() && nodeAddress.isEmpty()) {
+            throw new IllegalStateException("websocket.server.node-address is required in clustered mode");
+        }
+        if (!localRegistry.isAuthoritative() && clusterSecret.filter(secret -> !secret.isBlank()).isEmpty()) {
+            throw new IllegalStateException("websocket.server.cluster.secret is required in clustered mode");
+        }
+
+        router.route(path).handler(ctx -> ctx.request().toWebSocket()
+                .onSuccess(socket -> open(socket, userHeader.map(ctx.request()::getHeader).orElse(null)))
+                .onFailure(ctx::fail));
+        if (!localRegistry.isAuthoritative()) {
+            router.post(FORWARD_PATH + "/:connectionId").handler(this::forward);
+        }
+        Log.infof("Serving WebSockets on %s", path);
+    }
+
+    /**
+     * Handle a new connection. Its events may call DynamoDB, so they run on the
+     * worker pool, chained so they are applied in the order they arrived.
+     */
+    private void open(ServerWebSocket socket, String userSub) {
+        String connectionId = UUID.randomUUID().toString();
+        AtomicReference<CompletableFuture<Void>> events = new AtomicReference<>(CompletableFuture.completedFuture(null));
+        Consumer<Runnable> enqueue = task -> events.updateAndGet(previous -> previous.thenRunAsync(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                Log.errorf(e, "Error handling WebSocket event for connection %s", connectionId);
+            }
+        }, workers));
+
+        localRegistry.open(connectionId, socket);
+        enqueue.accept(() -> connectionService.saveConnection(connectionId, userSub, nodeAddress.orElse(null), STAGE));
+        socket.textMessageHandler(text -> enqueue.accept(() -> {
+            try {
+                localRegistry.send(connectionId, subscriptionService.handleClientMessage(connectionId, text));
+            } catch (IllegalArgumentException e) {
+                localRegistry.send(connectionId, e.getMessage());
+            }
+        }));
+        socket.closeHandler(ignored -> enqueue.accept(() -> connectionService.deleteConnection(connectionId)));
+    }
+
+    /**
+     * Deliver a message forwarded by another node to a connection open on this one.
+     * Requests without the cluster secret get the same 404 as an unknown route.
+     */
+    private void forward(RoutingContext ctx) {
+        String secret = ctx.request().getHeader(CLUSTER_SECRET_HEADER);
+        if (secret == null || !MessageDigest.isEqual(clusterSecret.get().getBytes(StandardCharsets.UTF_8),
+                secret.getBytes(StandardCharsets.UTF_8))) {
+            ctx.response().setStatusCode(404).end();
+            return;
+        }
+        String connectionId = ctx.pathParam("connectionId");
+        ctx.request().body().onSuccess(body -> {
+            DeliveryStatus status = localRegistry.send(connectionId, body.toString());
+            ctx.response().setStatusCode(switch (status) {
+                case DELIVERED -> 200;
+                case GONE -> 410;
+                case FAILED -> 503;
+            }).end();
+        }).onFailure(ctx::fail);
+    }
+}
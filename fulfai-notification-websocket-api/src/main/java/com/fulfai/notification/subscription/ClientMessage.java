@@ -0,0 +1,31 @@
+package com.fulfai.notification.subscription;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import lombok.Data;
+
+/**
+ * A message sent by a client over the WebSocket, e.g.
+ * {"action": "subscribe", "topic": "branch:123"}
+ */
+@Data
+@RegisterForReflection
+public class ClientMessage {
+
+    public static final String SUBSCRIBE = "subscribe";
+    public static final String UNSUBSCRIBE = "unsubscribe";
+
+    /**
+     * What the client asks for (subscribe, unsubscribe)
+     */
+    private String action;
+
+    /**
+     * The topic the action applies to, "{kind}:{id}"
+     */
+    private String topic;
+
+    /**
+     * On subscribe, the last cursor the client saw for the topic (to replay what it missed)
+     */
+    private Long cursor;
+}
@@ -0,0 +1,35 @@
+package com.fulfai.notification.subscription;
+
+import com.fulfai.notification.connection.WebSocketConnection;
+import io.quarkus.arc.DefaultBean;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Admits authenticated connections to order topics only.
+ *
+ * This service has no company or branch membership data, so it cannot tell
+ * whether a user belongs to a company or branch, and company and branch topics
+ * carry that tenant's whole order flow. They are denied unless a
+ * membership-checking TopicAuthorizer bean replaces this one. Order topics are
+ * admitted: order IDs are random UUIDs handed to the parties of that order.
+ */
+@DefaultBean
+@ApplicationScoped
+@RegisterForReflection
+public class OrderTopicAuthorizer implements TopicAuthorizer {
+
+    private static final String ORDER_TOPIC_PREFIX = "order:";
+
+    /**
+     * Allow order topics; the caller already ensured the connection is authenticated
+     *
+     * @param connection The subscribing connection
+     * @param topic      The topic
+     * @return true for "order:{id}" topics, false for company and branch topics
+     */
+    @Override
+    public boolean canSubscribe(WebSocketConnection connection, String topic) {
+        return topic.startsWith(ORDER_TOPIC_PREFIX);
+    }
+}
@@ -0,0 +1,109 @@
+package com.fulfai.notification.subscription;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+import java.time.Instant;
+
+/**
+ * A connection's subscription to a topic (e.g. "branch:{id}").
+ * The connection's callback endpoint is copied in so a publish needs no
+ * connection lookups.
+ *
+ * Table: FulfAI-{env}-WebSocketSubscription
+ * PK: connectionId, SK: topic
+ * GSI: topic-index (topic as PK, connectionId as SK) for fan-out to subscribers
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@DynamoDbBean
+@RegisterForReflection
+public class Subscription {
+
+    public static final String TOPIC_GSI = "topic-index";
+
+    /**
+     * The subscribed connection
+     */
+    private String connectionId;
+
+    /**
+     * The topic, "{kind}:{id}"
+     */
+    private String topic;
+
+    /**
+     * The Cognito user sub of the connection
+     */
+    private String userSub;
+
+    /**
+     * The API Gateway domain name of the connection
+     */
+    private String domainName;
+
+    /**
+     * The API Gateway stage of the connection
+     */
+    private String stage;
+
+    /**
+     * When the subscription was made
+     */
+    private Instant subscribedAt;
+
+    /**
+     * TTL (Unix timestamp in seconds), same as the connection's
+     */
+    private Long ttl;
+
+    @DynamoDbPartitionKey
+    @DynamoDbSecondarySortKey(indexNames = TOPIC_GSI)
+    @DynamoDbAttribute("connectionId")
+    public String getConnectionId() {
+        return connectionId;
+    }
+
+    @DynamoDbSortKey
+    @DynamoDbSecondaryPartitionKey(indexNames = TOPIC_GSI)
+    @DynamoDbAttribute("topic")
+    public String getTopic() {
+        return topic;
+    }
+
+    @DynamoDbAttribute("userSub")
+    public String getUserSub() {
+        return userSub;
+    }
+
+    @DynamoDbAttribute("domainName")
+    public String getDomainName() {
+        return domainName;
+    }
+
+    @DynamoDbAttribute("stage")
+    public String getStage() {
+        return stage;
+    }
+
+    @DynamoDbAttribute("subscribedAt")
+    public Instant getSubscribedAt() {
+        return subscribedAt;
+    }
+
+    @DynamoDbAttribute("ttl")
+    public Long getTtl() {
+        return ttl;
+    }
+}
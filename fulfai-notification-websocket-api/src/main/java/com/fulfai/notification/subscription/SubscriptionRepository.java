@@ -0,0 +1,102 @@
+package com.fulfai.notification.subscription;
+
+import com.fulfai.notification.connection.Schemas;
+import com.fulfai.notification.dynamodb.BatchDeletes;
+import com.fulfai.notification.dynamodb.ClientFactory;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository for topic subscriptions
+ */
+@ApplicationScoped
+@RegisterForReflection
+public class SubscriptionRepository {
+
+    @ConfigProperty(name = "websocket.subscription.table.name")
+    String tableName;
+
+    @Inject
+    ClientFactory clientFactory;
+
+    private DynamoDbTable<Subscription> getTable() {
+        return clientFactory.getEnhancedDynamoClient().table(tableName, Schemas.SUBSCRIPTION_SCHEMA);
+    }
+
+    private DynamoDbIndex<Subscription> getTopicIndex() {
+        return getTable().index(Subscription.TOPIC_GSI);
+    }
+
+    /**
+     * Save a subscription (idempotent per connection and topic)
+     */
+    public void save(Subscription subscription) {
+        Log.debugf("Saving subscription: %s -> %s", subscription.getConnectionId(), subscription.getTopic());
+        getTable().putItem(subscription);
+    }
+
+    /**
+     * Delete one subscription
+     */
+    public void delete(String connectionId, String topic) {
+        Log.debugf("Deleting subscription: %s -> %s", connectionId, topic);
+        getTable().deleteItem(Key.builder().partitionValue(connectionId).sortValue(topic).build());
+    }
+
+    /**
+     * Get all subscriptions of a connection
+     */
+    public List<Subscription> getByConnection(String connectionId) {
+        List<Subscription> subscriptions = new ArrayList<>();
+        getTable().query(QueryConditional.keyEqualTo(Key.builder().partitionValue(connectionId).build()))
+                .forEach(page -> subscriptions.addAll(page.items()));
+        return subscriptions;
+    }
+
+    /**
+     * Delete every subscription of the given connections
+     */
+    public void deleteByConnections(List<String> connectionIds) {
+        List<Key> keys = new ArrayList<>();
+        for (String connectionId : connectionIds) {
+            for (Subscription subscription : getByConnection(connectionId)) {
+                keys.add(Key.builder().partitionValue(connectionId).sortValue(subscription.getTopic()).build());
+            }
+        }
+        if (!keys.isEmpty()) {
+            Log.debugf("Deleting %d subscriptions of %d connections", keys.size(), connectionIds.size());
+            BatchDeletes.deleteAll(clientFactory.getEnhancedDynamoClient(), getTable(), Subscription.class, keys);
+        }
+    }
+
+    /**
+     * One page of a topic's subscribers
+     *
+     * @param topic    The topic
+     * @param startKey Last evaluated key of the previous page, or null for the first
+     * @param limit    Page size
+     */
+    public Page<Subscription> getPageByTopic(String topic, Map<String, AttributeValue> startKey, int limit) {
+        QueryEnhancedRequest.Builder request = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(topic).build()))
+                .limit(limit);
+        if (startKey != null) {
+            request.exclusiveStartKey(startKey);
+        }
+        return getTopicIndex().query(request.build()).iterator().next();
+    }
+}
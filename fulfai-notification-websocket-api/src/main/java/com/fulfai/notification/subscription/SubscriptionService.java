@@ -0,0 +1,247 @@
+package com.fulfai.notification.subscription;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfai.notification.connection.ConnectionService;
+import com.fulfai.notification.connection.WebSocketConnection;
+import com.fulfai.notification.push.PushResult;
+import com.fulfai.notification.push.PushService;
+import com.fulfai.notification.replay.MessageLogService;
+import com.fulfai.notification.server.LocalConnectionRegistry;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Topic subscriptions and publishing.
+ *
+ * Topics are "{kind}:{id}" with kind company, branch or order, so a kitchen
+ * screen subscribes to "branch:{id}" once and receives every update for it.
+ * In server mode subscriptions of this node's connections are also kept in its
+ * LocalConnectionRegistry.
+ *
+ * Only authenticated connections may subscribe, and the TopicAuthorizer bean
+ * decides which topics they may follow.
+ */
+@ApplicationScoped
+@RegisterForReflection
+public class SubscriptionService {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final Pattern TOPIC = Pattern.compile("^(company|branch|order):[A-Za-z0-9_-]{1,128}$");
+
+    @Inject
+    SubscriptionRepository subscriptionRepository;
+
+    @Inject
+    ConnectionService connectionService;
+
+    @Inject
+    PushService pushService;
+
+    @Inject
+    MessageLogService messageLogService;
+
+    @Inject
+    LocalConnectionRegistry localRegistry;
+
+    @Inject
+    TopicAuthorizer topicAuthorizer;
+
+    @ConfigProperty(name = "websocket.subscription.max-per-connection", defaultValue = "20")
+    int maxPerConnection;
+
+    @ConfigProperty(name = "websocket.publish.page-size", defaultValue = "100")
+    int pageSize;
+
+    /**
+     * Apply a protocol message sent by a client, e.g.
+     * {"action":"subscribe","topic":"branch:123","cursor":42}
+     *
+     * @param connectionId The connection the message came from
+     * @param body         The message text
+     * @return The reply for the client
+     * @throws IllegalArgumentException if the message is malformed or cannot be applied
+     */
+    public String handleClientMessage(String connectionId, String body) {
+        ClientMessage message;
+        try {
+            message = body == null ? null : MAPPER.readValue(body, ClientMessage.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid message: expected JSON with action and topic");
+        }
+        if (message == null || message.getAction() == null) {
+            throw new IllegalArgumentException("Missing action");
+        }
+
+        switch (message.getAction()) {
+            case ClientMessage.SUBSCRIBE:
+                subscribe(connectionId, message.getTopic(), message.getCursor());
+                return "Subscribed: " + message.getTopic();
+            case ClientMessage.UNSUBSCRIBE:
+                unsubscribe(connectionId, message.getTopic());
+                return "Unsubscribed: " + message.getTopic();
+            default:
+                throw new IllegalArgumentException("Unknown action: " + message.getAction());
+        }
+    }
+
+    /**
+     * Subscribe a connection to a topic. With a cursor (the last one the client saw
+     * before reconnecting) the missed messages are pushed to the connection in one
+     * replay frame, or a resync frame if they cannot be replayed.
+     *
+     * @param connectionId The API Gateway connection ID
+     * @param topic        The topic, "{kind}:{id}"
+     * @param cursor       The client's last cursor for the topic, or null
+     * @throws IllegalArgumentException if the topic is invalid, the connection is
+     *                                  unknown, unauthenticated, not allowed the
+     *                                  topic or has too many subscriptions
+     */
+    public void subscribe(String connectionId, String topic, Long cursor) {
+        validateTopic(topic);
+        WebSocketConnection connection = connectionService.getConnection(connectionId);
+        if (connection == null) {
+            throw new IllegalArgumentException("Unknown connection: " + connectionId);
+        }
+        if (connection.getUserSub() == null) {
+            throw new IllegalArgumentException("Subscriptions require an authenticated connection");
+        }
+        if (!topicAuthorizer.canSubscribe(connection, topic)) {
+            Log.warnf("Subscription denied: connectionId=%s, userSub=%s, topic=%s", connectionId,
+                    connection.getUserSub(), topic);
+            throw new IllegalArgumentException("Not allowed to subscribe to " + topic);
+        }
+        List<Subscription> existing = localRegistry.isLocal(connectionId)
+                ? localRegistry.getByConnection(connectionId)
+                : subscriptionRepository.getByConnection(connectionId);
+        boolean alreadySubscribed = existing.stream().anyMatch(s -> s.getTopic().equals(topic));
+        if (!alreadySubscribed && existing.size() >= maxPerConnection) {
+            throw new IllegalArgumentException("At most " + maxPerConnection + " subscriptions per connection");
+        }
+
+        Subscription subscription = Subscription.builder()
+                .connectionId(connectionId)
+                .topic(topic)
+                .userSub(connection.getUserSub())
+                .domainName(connection.getDomainName())
+                .stage(connection.getStage())
+                .subscribedAt(Instant.now())
+                .ttl(connection.getTtl())
+                .build();
+        if (localRegistry.isLocal(connectionId)) {
+            localRegistry.subscribe(subscription);
+        }
+        if (!localRegistry.isAuthoritative()) {
+            subscriptionRepository.save(subscription);
+        }
+        Log.infof("Subscribed: connectionId=%s, topic=%s", connectionId, topic);
+
+        if (cursor != null) {
+            pushService.sendToConnections(List.of(connection), messageLogService.catchUpFrame(topic, cursor));
+        }
+    }
+
+    /**
+     * Unsubscribe a connection from a topic (no-op if not subscribed)
+     *
+     * @param connectionId The API Gateway connection ID
+     * @param topic        The topic, "{kind}:{id}"
+     */
+    public void unsubscribe(String connectionId, String topic) {
+        validateTopic(topic);
+        if (localRegistry.isLocal(connectionId)) {
+            localRegistry.unsubscribe(connectionId, topic);
+        }
+        if (!localRegistry.isAuthoritative()) {
+            subscriptionRepository.delete(connectionId, topic);
+        }
+        Log.infof("Unsubscribed: connectionId=%s, topic=%s", connectionId, topic);
+    }
+
+    /**
+     * Send a message to every subscriber of a topic. The message is logged for
+     * replay and pushed as a "message" frame carrying its cursor. Subscribers are
+     * read one page at a time and each page is pushed in parallel, so memory and
+     * concurrency stay bounded however many subscribers a topic has.
+     *
+     * @param topic The topic, "{kind}:{id}"
+     * @param data  The message data, JSON
+     * @return Delivery counts over all subscribers
+     */
+    public PushResult publish(String topic, String data) {
+        String payload = messageLogService.messageFrame(topic, messageLogService.append(topic, data), data);
+        if (localRegistry.isAuthoritative()) {
+            return pushService.sendToConnections(
+                    localRegistry.getByTopic(topic).stream().map(SubscriptionService::toConnection).toList(), payload);
+        }
+
+        PushResult total = PushResult.empty();
+        Map<String, AttributeValue> startKey = null;
+        do {
+            Page<Subscription> page = subscriptionRepository.getPageByTopic(topic, startKey, pageSize);
+            if (!page.items().isEmpty()) {
+                total = total.plus(pushService.sendToConnections(
+                        page.items().stream().map(SubscriptionService::toConnection).toList(), payload));
+            }
+            startKey = page.lastEvaluatedKey();
+        } while (startKey != null && !startKey.isEmpty());
+
+        Log.debugf("Published to topic %s: delivered=%d, gone=%d, failed=%d", topic, total.getDelivered(),
+                total.getGone(), total.getFailed());
+        return total;
+    }
+
+    /**
+     * Every subscriber of a topic, read page by page
+     *
+     * @param topic The topic, "{kind}:{id}"
+     * @return The topic's subscriptions
+     */
+    public List<Subscription> getSubscribers(String topic) {
+        if (localRegistry.isAuthoritative()) {
+            return localRegistry.getByTopic(topic);
+        }
+
+        List<Subscription> subscribers = new ArrayList<>();
+        Map<String, AttributeValue> startKey = null;
+        do {
+            Page<Subscription> page = subscriptionRepository.getPageByTopic(topic, startKey, pageSize);
+            subscribers.addAll(page.items());
+            startKey = page.lastEvaluatedKey();
+        } while (startKey != null && !startKey.isEmpty());
+        return subscribers;
+    }
+
+    /**
+     * The connection a subscription delivers to
+     *
+     * @param subscription A topic subscription
+     * @return The subscribed connection's address
+     */
+    public static WebSocketConnection toConnection(Subscription subscription) {
+        return WebSocketConnection.builder()
+                .connectionId(subscription.getConnectionId())
+                .userSub(subscription.getUserSub())
+                .domainName(subscription.getDomainName())
+                .stage(subscription.getStage())
+                .build();
+    }
+
+    private static void validateTopic(String topic) {
+        if (topic == null || !TOPIC.matcher(topic).matches()) {
+            throw new IllegalArgumentException("Invalid topic: " + topic);
+        }
+    }
+}
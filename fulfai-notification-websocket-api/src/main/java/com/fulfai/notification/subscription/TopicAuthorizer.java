@@ -0,0 +1,21 @@
+package com.fulfai.notification.subscription;
+
+import com.fulfai.notification.connection.WebSocketConnection;
+
+/**
+ * Decides whether a connection may subscribe to a topic.
+ *
+ * Only called for authenticated connections (SubscriptionService rejects the
+ * rest). The default implementation (OrderTopicAuthorizer) only admits order
+ * topics; to open company and branch topics a deployment must provide its own
+ * bean that checks the user's membership.
+ */
+public interface TopicAuthorizer {
+
+    /**
+     * @param connection The subscribing connection, with a non-null user sub
+     * @param topic      The validated topic, "{kind}:{id}"
+     * @return true if the connection may receive the topic's messages
+     */
+    boolean canSubscribe(WebSocketConnection connection, String topic);
+}
@@ -2,7 +2,6 @@ package com.fulfai.sellingpartner.order;
 
 import java.math.BigDecimal;
 import java.time.Instant;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -215,17 +214,18 @@ public class OrderService {
 
         String branchId = order.getBranchId();
 
-        // Fetch all products (needed to update them with reduced stock)
-        Map<String, Product> productMap = new HashMap<>();
+        // Fetch all products in batched round trips (needed to update them with reduced stock)
         for (OrderItem item : order.getItems()) {
             if (item.getProductId() == null) {
                 throw new BadRequestException("Order item missing productId");
             }
-            Product product = productRepository.getById(companyId, branchId, item.getProductId());
-            if (product == null) {
+        }
+        Map<String, Product> productMap = productRepository.getByIds(companyId, branchId,
+                order.getItems().stream().map(OrderItem::getProductId).collect(Collectors.toSet()));
+        for (OrderItem item : order.getItems()) {
+            if (!productMap.containsKey(item.getProductId())) {
                 throw new NotFoundException("Product not found: " + item.getProductId());
             }
-            productMap.put(item.getProductId(), product);
         }
 
         // Prepare updated order
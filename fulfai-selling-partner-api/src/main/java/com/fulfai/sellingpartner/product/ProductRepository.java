@@ -1,5 +1,10 @@
 package com.fulfai.sellingpartner.product;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import com.fulfai.common.dynamodb.ClientFactory;
@@ -12,6 +17,7 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
 
 @ApplicationScoped
 @RegisterForReflection
@@ -36,6 +42,25 @@ public class ProductRepository {
         return DynamoDBUtils.getItem(getProductTable(), companyId, branchProductKey);
     }
 
+    /**
+     * Fetch several products of a branch in batched round trips.
+     * Returns found products keyed by productId; missing products are absent.
+     */
+    public Map<String, Product> getByIds(String companyId, String branchId, Collection<String> productIds) {
+        List<Key> keys = productIds.stream()
+                .map(productId -> Key.builder()
+                        .partitionValue(companyId)
+                        .sortValue(branchId + "#" + productId)
+                        .build())
+                .toList();
+
+        Map<String, Product> products = new HashMap<>();
+        DynamoDBUtils.batchGetItems(clientFactory.getEnhancedDynamoClient(), getProductTable(), keys)
+                .values()
+                .forEach(product -> products.put(product.getProductId(), product));
+        return products;
+    }
+
     public PaginatedResponse<Product> getByCompanyId(String companyId, String nextToken, Integer limit) {
         return DynamoDBUtils.queryByPartitionKey(getProductTable(), companyId, nextToken, limit);
     }